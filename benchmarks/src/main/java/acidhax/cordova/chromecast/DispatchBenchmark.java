@@ -0,0 +1,139 @@
+package acidhax.cordova.chromecast;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Chromecast.execute: finding the handler for an action and its argument types and running it.
+ * There is no session, so every session action ends in callbackContext.error("session_error"),
+ * which keeps the Cast side out of the measurement.
+ * The reflective* benchmarks run the same calls through the getMethods() scan execute used to do.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DispatchBenchmark {
+	private Chromecast plugin;
+	private final LastResultCallbackContext callbackContext = new LastResultCallbackContext();
+
+	private final JSONArray noArgs = new JSONArray();
+	private JSONArray loadMediaArgs;
+	private JSONArray volumeArgs;
+	private JSONArray scopedSeekArgs;
+
+	@Setup(Level.Trial)
+	public void setUp() throws JSONException {
+		this.plugin = new Chromecast();
+		this.plugin.initialize(new FakeCordova(), new FakeWebView());
+		// Keep the trace ring and its clock reads out of the dispatch numbers
+		this.plugin.execute("initialize", new JSONArray("[\"CC1AD845\", \"page_scoped\", \"create_session\", {\"trace\": {\"enabled\": false}}]"),
+				this.callbackContext);
+
+		this.loadMediaArgs = new JSONArray();
+		this.loadMediaArgs.put("http://example.com/video.mp4");
+		this.loadMediaArgs.put("video/mp4");
+		this.loadMediaArgs.put(Integer.valueOf(596));
+		this.loadMediaArgs.put("buffered");
+		this.loadMediaArgs.put(Boolean.TRUE);
+		this.loadMediaArgs.put(Integer.valueOf(0));
+		this.loadMediaArgs.put(new JSONObject("{\"metadataType\": 0, \"title\": \"Big Buck Bunny\"}"));
+
+		this.volumeArgs = new JSONArray();
+		this.volumeArgs.put(Integer.valueOf(1));
+
+		this.scopedSeekArgs = new JSONArray();
+		this.scopedSeekArgs.put("session-1");
+		this.scopedSeekArgs.put(Integer.valueOf(42));
+		this.scopedSeekArgs.put("PLAYBACK_START");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		this.plugin.onDestroy();
+	}
+
+	/** No arguments, first signature of the action */
+	@Benchmark
+	public boolean mediaPlay() throws JSONException {
+		return this.plugin.execute("mediaPlay", this.noArgs, this.callbackContext);
+	}
+
+	/** Seven arguments, second overload: Integer currentTime after the Double one */
+	@Benchmark
+	public boolean loadMedia() throws JSONException {
+		return this.plugin.execute("loadMedia", this.loadMediaArgs, this.callbackContext);
+	}
+
+	/** Second overload: Integer level after the Double one */
+	@Benchmark
+	public boolean setReceiverVolumeLevel() throws JSONException {
+		return this.plugin.execute("setReceiverVolumeLevel", this.volumeArgs, this.callbackContext);
+	}
+
+	/** The signature with the session id in front */
+	@Benchmark
+	public boolean scopedMediaSeek() throws JSONException {
+		return this.plugin.execute("mediaSeek", this.scopedSeekArgs, this.callbackContext);
+	}
+
+	@Benchmark
+	public boolean unknownAction() throws JSONException {
+		return this.plugin.execute("noSuchAction", this.noArgs, this.callbackContext);
+	}
+
+	@Benchmark
+	public boolean reflectiveMediaPlay() throws JSONException {
+		return ReflectiveDispatch.execute(this.plugin, "mediaPlay", this.noArgs, this.callbackContext);
+	}
+
+	@Benchmark
+	public boolean reflectiveLoadMedia() throws JSONException {
+		return ReflectiveDispatch.execute(this.plugin, "loadMedia", this.loadMediaArgs, this.callbackContext);
+	}
+
+	@Benchmark
+	public boolean reflectiveSetReceiverVolumeLevel() throws JSONException {
+		return ReflectiveDispatch.execute(this.plugin, "setReceiverVolumeLevel", this.volumeArgs, this.callbackContext);
+	}
+
+	@Benchmark
+	public boolean reflectiveUnknownAction() throws JSONException {
+		return ReflectiveDispatch.execute(this.plugin, "noSuchAction", this.noArgs, this.callbackContext);
+	}
+
+	/**
+	 * Keeps only the last result, so results neither pile up nor get optimized away
+	 */
+	static class LastResultCallbackContext extends CallbackContext {
+		volatile PluginResult last;
+
+		LastResultCallbackContext() {
+			super("benchmark", null);
+		}
+
+		@Override
+		public void sendPluginResult(PluginResult pluginResult) {
+			this.last = pluginResult;
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package acidhax.cordova.chromecast;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaStatus;
+
+/**
+ * Event delivery to chrome.cast._, what used to be building sendJavascript strings:
+ * queueing a frame's events and flushing them as one encoded batch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventChannelBenchmark {
+	/** Events per frame */
+	@Param({ "1", "10" })
+	public int events;
+
+	private FakeWebView webView;
+	private ChromecastEventChannel channel;
+	private ChromecastMediaSnapshot media;
+	private JSONObject route;
+
+	@Setup(Level.Trial)
+	public void setUp() throws JSONException {
+		this.webView = new FakeWebView(true);
+		ChromecastTrace trace = new ChromecastTrace();
+		trace.configure(new JSONObject("{\"enabled\": false}"));
+		this.channel = new ChromecastEventChannel(this.webView, trace);
+		this.channel.setCallbackContext(new DispatchBenchmark.LastResultCallbackContext());
+		this.webView.runFrame();
+
+		MediaInfo info = new MediaInfo.Builder("http://example.com/video.mp4")
+				.setContentType("video/mp4")
+				.setStreamDuration(596000)
+				.build();
+		this.media = ChromecastMediaSnapshot.capture(new MediaStatus(info, 1)
+				.setStreamPosition(42500)
+				.setPlaybackRate(1)
+				.setPlayerState(MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE), "session-1");
+		this.route = new JSONObject("{\"name\": \"Living Room\", \"id\": \"Living Room-Cast\"}");
+	}
+
+	/** A frame of media updates, receiver messages and a route event */
+	@Benchmark
+	public int frame() {
+		for (int i = 0; i < this.events; i++) {
+			switch (i % 3) {
+				case 0:
+					this.channel.emit("mediaUpdated", true, this.media, false);
+					break;
+				case 1:
+					this.channel.emitBounded("onMessage", "session-1", "urn:x-cast:com.example", "{\"type\":\"progress\",\"value\":" + i + "}");
+					break;
+				default:
+					this.channel.emit("routeAdded", this.route);
+					break;
+			}
+		}
+		return this.webView.runFrame();
+	}
+}
@@ -0,0 +1,48 @@
+package acidhax.cordova.chromecast;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.cordova.CordovaInterface;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.support.v7.media.MediaRouter.RouteInfo;
+
+import com.google.android.gms.cast.CastDevice;
+
+/**
+ * The Cordova side of the fakes: an activity whose UI thread is the main looper and a daemon thread pool
+ */
+public class FakeCordova implements CordovaInterface {
+	private final Activity activity = new Activity();
+	private final ExecutorService threadPool = Executors.newCachedThreadPool(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "CordovaThreadPool");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	@Override
+	public Activity getActivity() {
+		return this.activity;
+	}
+
+	@Override
+	public ExecutorService getThreadPool() {
+		return this.threadPool;
+	}
+
+	/**
+	 * @param name
+	 * @return a Cast route for a receiver named name, as MediaRouter reports it
+	 */
+	public static RouteInfo route(String name) {
+		Bundle extras = new Bundle();
+		extras.putParcelable(CastDevice.EXTRA_CAST_DEVICE, new CastDevice("device-" + name, name, "Chromecast"));
+		return new RouteInfo("com.google.android.gms/.cast.media.CastMediaRouteProviderService:" + name + "-Cast", name, extras);
+	}
+}
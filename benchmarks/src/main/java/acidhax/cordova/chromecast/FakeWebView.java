@@ -0,0 +1,77 @@
+package acidhax.cordova.chromecast;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.cordova.CordovaWebView;
+
+import android.view.View;
+
+/**
+ * A web view that counts the javascript it is asked to run instead of running it.
+ * Its view either posts to the main looper, or, with manual frames, holds what was posted until runFrame(),
+ * so a benchmark can drive flushes on its own thread.
+ */
+public class FakeWebView implements CordovaWebView {
+	private final View view;
+	private final AtomicInteger statements = new AtomicInteger();
+	private final ArrayList<Runnable> frame = new ArrayList<Runnable>();
+
+	public FakeWebView() {
+		this(false);
+	}
+
+	/**
+	 * @param manualFrames whether runnables posted to the view wait for runFrame()
+	 */
+	public FakeWebView(boolean manualFrames) {
+		this.view = manualFrames ? new View() {
+			@Override
+			public boolean post(Runnable action) {
+				synchronized (FakeWebView.this.frame) {
+					FakeWebView.this.frame.add(action);
+				}
+				return true;
+			}
+
+			@Override
+			public void postOnAnimation(Runnable action) {
+				this.post(action);
+			}
+		} : new View();
+	}
+
+	@Override
+	public View getView() {
+		return this.view;
+	}
+
+	/**
+	 * Runs what was posted to the view since the last frame, on the calling thread
+	 * @return how many runnables ran
+	 */
+	public int runFrame() {
+		Runnable[] due;
+		synchronized (this.frame) {
+			due = this.frame.toArray(new Runnable[this.frame.size()]);
+			this.frame.clear();
+		}
+		for (Runnable action : due) {
+			action.run();
+		}
+		return due.length;
+	}
+
+	@Override
+	public void sendJavascript(String statement) {
+		this.statements.incrementAndGet();
+	}
+
+	@Override
+	public void loadUrl(String url) {
+	}
+
+	public int getStatementCount() {
+		return this.statements.get();
+	}
+}
@@ -0,0 +1,130 @@
+package acidhax.cordova.chromecast;
+
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.common.images.WebImage;
+
+/**
+ * createSessionObject and createMediaObject as ChromecastSession built them before the snapshots:
+ * a fresh org.json tree on every call, turned into a string for sendJavascript.
+ * Kept as the baseline for SnapshotBenchmark, with the session fields passed in instead of read from the session.
+ */
+final class LegacySnapshots {
+	private LegacySnapshots() {
+	}
+
+	static JSONObject createSessionObject(String appId, MediaStatus mediaStatus, List<WebImage> appImages, String sessionId,
+			String displayName, CastDevice device, double volumeLevel, boolean muted) {
+		JSONObject out = new JSONObject();
+		try {
+			out.put("appId", appId);
+			out.put("media", createMediaObject(mediaStatus, sessionId));
+
+			if (appImages != null) {
+				JSONArray images = new JSONArray();
+				for(WebImage o : appImages) {
+					images.put(o.toString());
+				}
+			}
+
+			// The array above was never used, the List itself went in
+			out.put("appImages", appImages);
+			out.put("sessionId", sessionId);
+			out.put("displayName", displayName);
+
+			JSONObject receiver = new JSONObject();
+			receiver.put("friendlyName", device.getFriendlyName());
+			receiver.put("label", device.getDeviceId());
+
+			JSONObject volume = new JSONObject();
+			volume.put("level", volumeLevel);
+			volume.put("muted", muted);
+
+			receiver.put("volume", volume);
+
+			out.put("receiver", receiver);
+
+		} catch(JSONException e) {
+			e.printStackTrace();
+		}
+
+		return out;
+	}
+
+	static JSONObject createMediaObject(MediaStatus mediaStatus, String sessionId) {
+		JSONObject out = new JSONObject();
+		JSONObject objInfo = new JSONObject();
+
+		if (mediaStatus == null) {
+			return out;
+		}
+
+		MediaInfo mediaInfo = mediaStatus.getMediaInfo();
+		try {
+			out.put("media", objInfo);
+			out.put("mediaSessionId", 1);
+			out.put("sessionId", sessionId);
+			out.put("currentTime", mediaStatus.getStreamPosition() / 1000.0);
+			out.put("playbackRate", mediaStatus.getPlaybackRate());
+			out.put("customData", mediaStatus.getCustomData());
+
+			switch(mediaStatus.getPlayerState()) {
+				case MediaStatus.PLAYER_STATE_BUFFERING:
+					out.put("playerState", "BUFFERING"); break;
+				case MediaStatus.PLAYER_STATE_IDLE:
+					out.put("playerState", "IDLE"); break;
+				case MediaStatus.PLAYER_STATE_PAUSED:
+					out.put("playerState", "PAUSED"); break;
+				case MediaStatus.PLAYER_STATE_PLAYING:
+					out.put("playerState", "PLAYING"); break;
+				case MediaStatus.PLAYER_STATE_UNKNOWN:
+					out.put("playerState", "UNKNOWN"); break;
+			}
+
+			switch(mediaStatus.getIdleReason()) {
+				case MediaStatus.IDLE_REASON_CANCELED:
+					out.put("idleReason", "canceled"); break;
+				case MediaStatus.IDLE_REASON_ERROR:
+					out.put("idleReason", "error"); break;
+				case MediaStatus.IDLE_REASON_FINISHED:
+					out.put("idleReason", "finished"); break;
+				case MediaStatus.IDLE_REASON_INTERRUPTED:
+					out.put("idleReason", "iterrupted"); break;
+				case MediaStatus.IDLE_REASON_NONE:
+					out.put("idleReason", "none"); break;
+			}
+
+			JSONObject volume = new JSONObject();
+			volume.put("level", mediaStatus.getStreamVolume());
+			volume.put("muted", mediaStatus.isMute());
+
+			out.put("volume", volume);
+
+			try {
+				objInfo.put("duration", mediaInfo.getStreamDuration() / 1000.0);
+				switch(mediaInfo.getStreamType()) {
+					case MediaInfo.STREAM_TYPE_BUFFERED:
+						objInfo.put("streamType", "buffered"); break;
+					case MediaInfo.STREAM_TYPE_LIVE:
+						objInfo.put("streamType", "live"); break;
+					case MediaInfo.STREAM_TYPE_NONE:
+						objInfo.put("streamType", "other"); break;
+				}
+			} catch (Exception e) {
+
+			}
+
+		} catch(JSONException e) {
+
+		}
+
+		return out;
+	}
+}
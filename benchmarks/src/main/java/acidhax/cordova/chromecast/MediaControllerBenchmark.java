@@ -0,0 +1,55 @@
+package acidhax.cordova.chromecast;
+
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.RemoteMediaPlayer;
+
+/**
+ * ChromecastMediaController.createLoadUrlRequest: parsing the javascript metadata into a MediaInfo
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MediaControllerBenchmark {
+	private final ChromecastMediaController controller = new ChromecastMediaController(new RemoteMediaPlayer());
+	private JSONObject genericMetadata;
+	private JSONObject movieMetadata;
+
+	@Setup(Level.Trial)
+	public void setUp() throws JSONException {
+		this.genericMetadata = new JSONObject("{\"metadataType\": 0, \"title\": \"Big Buck Bunny\", \"subtitle\": \"Blender Foundation\","
+				+ " \"images\": [{\"url\": \"http://example.com/poster.jpg\", \"width\": 480, \"height\": 270},"
+				+ " {\"url\": \"http://example.com/thumb.jpg\"}, {\"url\": \"data:image/png;base64,AAAA\"}]}");
+		this.movieMetadata = new JSONObject("{\"metadataType\": 1, \"title\": \"Big Buck Bunny\"}");
+	}
+
+	/** Title, subtitle and three images, one of which is skipped */
+	@Benchmark
+	public MediaInfo genericWithImages() {
+		return this.controller.createLoadUrlRequest("http://example.com/video.mp4", "video/mp4", 596, "buffered", this.genericMetadata);
+	}
+
+	/** Anything but GENERIC is sent without metadata fields */
+	@Benchmark
+	public MediaInfo movie() {
+		return this.controller.createLoadUrlRequest("http://example.com/live.m3u8", "application/x-mpegURL", 0, "live", this.movieMetadata);
+	}
+}
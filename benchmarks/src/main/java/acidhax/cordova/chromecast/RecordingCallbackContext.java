@@ -0,0 +1,60 @@
+package acidhax.cordova.chromecast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.PluginResult;
+
+/**
+ * A CallbackContext that keeps every result sent to it, for tests to wait on
+ */
+public class RecordingCallbackContext extends CallbackContext {
+	private final ArrayList<PluginResult> results = new ArrayList<PluginResult>();
+
+	public RecordingCallbackContext() {
+		super("test", null);
+	}
+
+	@Override
+	public void sendPluginResult(PluginResult pluginResult) {
+		super.sendPluginResult(pluginResult);
+		synchronized (this) {
+			this.results.add(pluginResult);
+			this.notifyAll();
+		}
+	}
+
+	public synchronized List<PluginResult> getResults() {
+		return new ArrayList<PluginResult>(this.results);
+	}
+
+	/**
+	 * Waits until count results arrived
+	 * @param count
+	 * @param timeoutMs
+	 * @return the results so far, fewer than count if the wait timed out
+	 * @throws InterruptedException
+	 */
+	public synchronized List<PluginResult> await(int count, long timeoutMs) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+		while (this.results.size() < count) {
+			long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+			if (left <= 0) {
+				break;
+			}
+			this.wait(left);
+		}
+		return new ArrayList<PluginResult>(this.results);
+	}
+
+	/**
+	 * @return the first result, waiting up to timeoutMs for it, null if none came
+	 * @throws InterruptedException
+	 */
+	public PluginResult awaitFirst(long timeoutMs) throws InterruptedException {
+		List<PluginResult> results = this.await(1, timeoutMs);
+		return results.isEmpty() ? null : results.get(0);
+	}
+}
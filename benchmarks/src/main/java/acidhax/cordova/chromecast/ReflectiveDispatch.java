@@ -0,0 +1,77 @@
+package acidhax.cordova.chromecast;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * The dispatch Chromecast.execute did before the action registry, kept as the baseline for DispatchBenchmark:
+ * scan getMethods() on every call, match name, argument count and exact argument classes, invoke reflectively.
+ * Session actions now take the session first, so a method whose first parameter is a ChromecastSession
+ * also matches, and gets null: the benchmark runs without a session.
+ */
+final class ReflectiveDispatch {
+	private ReflectiveDispatch() {
+	}
+
+	static boolean execute(Object plugin, String action, JSONArray args, CallbackContext cbContext) throws JSONException {
+		try {
+			Method[] list = plugin.getClass().getMethods();
+			Method methodToExecute = null;
+			int offset = 0;
+			for (Method method : list) {
+				if (method.getName().equals(action)) {
+					Type[] types = method.getGenericParameterTypes();
+					int skip = types.length > 0 && types[0] == ChromecastSession.class ? 1 : 0;
+					if (args.length() + 1 + skip == types.length) { // +1 is the cbContext
+						boolean isValid = true;
+						for (int i = 0; i < args.length(); i++) {
+							Class<?> arg = args.get(i).getClass();
+							if (types[i + skip] == arg) {
+								isValid = true;
+							} else {
+								isValid = false;
+								break;
+							}
+						}
+						if (isValid) {
+							methodToExecute = method;
+							offset = skip;
+							break;
+						}
+					}
+				}
+			}
+			if (methodToExecute != null) {
+				Type[] types = methodToExecute.getGenericParameterTypes();
+				Object[] variableArgs = new Object[types.length];
+				for (int i = 0; i < args.length(); i++) {
+					variableArgs[i + offset] = args.get(i);
+				}
+				variableArgs[variableArgs.length - 1] = cbContext;
+				Class<?> r = methodToExecute.getReturnType();
+				if (r == boolean.class) {
+					return (Boolean) methodToExecute.invoke(plugin, variableArgs);
+				} else {
+					methodToExecute.invoke(plugin, variableArgs);
+					return true;
+				}
+			} else {
+				return false;
+			}
+		} catch (IllegalAccessException e) {
+			e.printStackTrace();
+			return false;
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+			return false;
+		} catch (InvocationTargetException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package acidhax.cordova.chromecast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import android.net.Uri;
+
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaMetadata;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.common.images.WebImage;
+
+/**
+ * What createSessionObject and createMediaObject cost: capturing a session and its media status
+ * and turning them into the JSON the javascript side gets, in full or as a patch.
+ * The legacy* benchmarks build the same JSON the way it was built before the snapshots, as an org.json tree.
+ * Run with -prof gc for the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark {
+	private final ChromecastJsonWriter writer = new ChromecastJsonWriter(4096);
+	private MediaStatus status;
+	private MediaStatus nextStatus;
+	private List<WebImage> appImages;
+	private CastDevice device;
+	private ChromecastMediaSnapshot media;
+	private ChromecastMediaSnapshot nextMedia;
+
+	@Setup(Level.Trial)
+	public void setUp() throws JSONException {
+		MediaMetadata metadata = new MediaMetadata(MediaMetadata.MEDIA_TYPE_GENERIC);
+		metadata.putString(MediaMetadata.KEY_TITLE, "Big Buck Bunny");
+		MediaInfo info = new MediaInfo.Builder("http://example.com/video.mp4")
+				.setContentType("video/mp4")
+				.setStreamType(MediaInfo.STREAM_TYPE_BUFFERED)
+				.setStreamDuration(596000)
+				.setMetadata(metadata)
+				.build();
+		this.status = new MediaStatus(info, 1)
+				.setStreamPosition(42500)
+				.setPlaybackRate(1)
+				.setCustomData(new JSONObject("{\"chapter\": 3, \"subtitles\": \"en\"}"))
+				.setPlayerState(MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE)
+				.setStreamVolume(0.8, false);
+		// One second later, the usual mediaUpdate while playing
+		this.nextStatus = new MediaStatus(info, 1)
+				.setStreamPosition(43500)
+				.setPlaybackRate(1)
+				.setCustomData(this.status.getCustomData())
+				.setPlayerState(MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE)
+				.setStreamVolume(0.8, false);
+
+		this.appImages = new ArrayList<WebImage>();
+		this.appImages.add(new WebImage(Uri.parse("http://example.com/icon.png"), 128, 128));
+		this.device = new CastDevice("device-1", "Living Room", "Chromecast");
+
+		this.media = ChromecastMediaSnapshot.capture(this.status, "session-1");
+		this.nextMedia = ChromecastMediaSnapshot.capture(this.nextStatus, "session-1");
+	}
+
+	private ChromecastSessionSnapshot captureSession(ChromecastMediaSnapshot media) {
+		return new ChromecastSessionSnapshot(1, "CC1AD845", media, this.appImages, "session-1", "Default Media Receiver",
+				this.device, 0.5, Boolean.FALSE);
+	}
+
+	/** createMediaObject as the event channel uses it: capture and stream into the shared writer */
+	@Benchmark
+	public int streamMedia() {
+		ChromecastMediaSnapshot media = ChromecastMediaSnapshot.capture(this.status, "session-1");
+		media.writeTo(this.writer.reset());
+		return this.writer.length();
+	}
+
+	/** createSessionObject as the event channel uses it */
+	@Benchmark
+	public int streamSession() {
+		ChromecastSessionSnapshot session = this.captureSession(ChromecastMediaSnapshot.capture(this.status, "session-1"));
+		session.writeTo(this.writer.reset());
+		return this.writer.length();
+	}
+
+	/** createMediaObject before the snapshots: a JSONObject tree and its toString() for sendJavascript */
+	@Benchmark
+	public int legacyMedia() {
+		return LegacySnapshots.createMediaObject(this.status, "session-1").toString().length();
+	}
+
+	@Benchmark
+	public int legacySession() {
+		return LegacySnapshots.createSessionObject("CC1AD845", this.status, this.appImages, "session-1", "Default Media Receiver",
+				this.device, 0.5, false).toString().length();
+	}
+
+	/** createSessionObject for a plugin result, which needs an org.json object */
+	@Benchmark
+	public JSONObject sessionObject() {
+		return this.captureSession(ChromecastMediaSnapshot.capture(this.status, "session-1")).toJSONObject();
+	}
+
+	/** A mediaUpdate patch: diffing two captures and writing the changed fields */
+	@Benchmark
+	public int mediaPatch() {
+		int changed = this.nextMedia.changedFields(this.media);
+		new ChromecastSnapshot.Patch(this.nextMedia, changed).writeTo(this.writer.reset());
+		return this.writer.length();
+	}
+}
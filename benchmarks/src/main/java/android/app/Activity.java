@@ -0,0 +1,70 @@
+package android.app;
+
+import java.io.File;
+import java.util.HashMap;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.net.wifi.WifiManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+
+/**
+ * Fake of the Android Activity. Its UI thread is the main looper, preferences are kept in memory
+ * and files go to a temporary directory.
+ */
+public class Activity extends Context {
+	private final HashMap<String, SharedPreferences> preferences = new HashMap<String, SharedPreferences>();
+	private final PowerManager powerManager = new PowerManager();
+	private final WifiManager wifiManager = new WifiManager();
+	private File filesDir;
+
+	public void runOnUiThread(Runnable action) {
+		if (Looper.myLooper() == Looper.getMainLooper()) {
+			action.run();
+		} else {
+			new Handler(Looper.getMainLooper()).post(action);
+		}
+	}
+
+	@Override
+	public Object getSystemService(String name) {
+		if (POWER_SERVICE.equals(name)) {
+			return this.powerManager;
+		}
+		if (WIFI_SERVICE.equals(name)) {
+			return this.wifiManager;
+		}
+		return null;
+	}
+
+	@Override
+	public Context getApplicationContext() {
+		return this;
+	}
+
+	@Override
+	public synchronized SharedPreferences getSharedPreferences(String name, int mode) {
+		SharedPreferences settings = this.preferences.get(name);
+		if (settings == null) {
+			settings = new MemorySharedPreferences();
+			this.preferences.put(name, settings);
+		}
+		return settings;
+	}
+
+	@Override
+	public synchronized File getFilesDir() {
+		if (this.filesDir == null) {
+			this.filesDir = new File(System.getProperty("java.io.tmpdir"), "chromecast-" + Integer.toHexString(System.identityHashCode(this)));
+			this.filesDir.mkdirs();
+		}
+		return this.filesDir;
+	}
+
+	@Override
+	public File getCacheDir() {
+		return this.getFilesDir();
+	}
+}
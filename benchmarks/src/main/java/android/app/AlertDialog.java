@@ -0,0 +1,34 @@
+package android.app;
+
+import android.content.Context;
+import android.content.DialogInterface;
+
+/**
+ * Fake of the Android AlertDialog, nothing is shown
+ */
+public class AlertDialog implements DialogInterface {
+	@Override
+	public void dismiss() {
+	}
+
+	public static class Builder {
+		public Builder(Context context) {
+		}
+
+		public Builder setTitle(CharSequence title) {
+			return this;
+		}
+
+		public Builder setNegativeButton(CharSequence text, DialogInterface.OnClickListener listener) {
+			return this;
+		}
+
+		public Builder setItems(CharSequence[] items, DialogInterface.OnClickListener listener) {
+			return this;
+		}
+
+		public AlertDialog show() {
+			return new AlertDialog();
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package android.app;
+
+import java.util.HashMap;
+
+import android.content.SharedPreferences;
+
+/**
+ * SharedPreferences kept in a map, edits are applied when apply or commit is called
+ */
+class MemorySharedPreferences implements SharedPreferences {
+	private final HashMap<String, Object> values = new HashMap<String, Object>();
+
+	@Override
+	public synchronized String getString(String key, String defValue) {
+		Object value = this.values.get(key);
+		return value instanceof String ? (String) value : defValue;
+	}
+
+	@Override
+	public synchronized long getLong(String key, long defValue) {
+		Object value = this.values.get(key);
+		return value instanceof Long ? (Long) value : defValue;
+	}
+
+	@Override
+	public synchronized boolean getBoolean(String key, boolean defValue) {
+		Object value = this.values.get(key);
+		return value instanceof Boolean ? (Boolean) value : defValue;
+	}
+
+	@Override
+	public Editor edit() {
+		return new Editor() {
+			private final HashMap<String, Object> changes = new HashMap<String, Object>();
+
+			@Override
+			public Editor putString(String key, String value) {
+				this.changes.put(key, value);
+				return this;
+			}
+
+			@Override
+			public Editor putLong(String key, long value) {
+				this.changes.put(key, value);
+				return this;
+			}
+
+			@Override
+			public Editor putBoolean(String key, boolean value) {
+				this.changes.put(key, value);
+				return this;
+			}
+
+			@Override
+			public Editor remove(String key) {
+				this.changes.put(key, null);
+				return this;
+			}
+
+			@Override
+			public void apply() {
+				this.commit();
+			}
+
+			@Override
+			public boolean commit() {
+				synchronized (MemorySharedPreferences.this) {
+					for (String key : this.changes.keySet()) {
+						Object value = this.changes.get(key);
+						if (value == null) {
+							MemorySharedPreferences.this.values.remove(key);
+						} else {
+							MemorySharedPreferences.this.values.put(key, value);
+						}
+					}
+				}
+				return true;
+			}
+		};
+	}
+}
@@ -0,0 +1,21 @@
+package android.content;
+
+import java.io.File;
+
+/**
+ * Fake of the Android Context
+ */
+public abstract class Context {
+	public static final String POWER_SERVICE = "power";
+	public static final String WIFI_SERVICE = "wifi";
+
+	public abstract Object getSystemService(String name);
+
+	public abstract Context getApplicationContext();
+
+	public abstract SharedPreferences getSharedPreferences(String name, int mode);
+
+	public abstract File getFilesDir();
+
+	public abstract File getCacheDir();
+}
@@ -0,0 +1,12 @@
+package android.content;
+
+/**
+ * Fake of the Android DialogInterface
+ */
+public interface DialogInterface {
+	void dismiss();
+
+	interface OnClickListener {
+		void onClick(DialogInterface dialog, int which);
+	}
+}
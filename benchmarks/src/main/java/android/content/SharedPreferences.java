@@ -0,0 +1,28 @@
+package android.content;
+
+/**
+ * Fake of the Android SharedPreferences, the parts the plugin uses
+ */
+public interface SharedPreferences {
+	String getString(String key, String defValue);
+
+	long getLong(String key, long defValue);
+
+	boolean getBoolean(String key, boolean defValue);
+
+	Editor edit();
+
+	interface Editor {
+		Editor putString(String key, String value);
+
+		Editor putLong(String key, long value);
+
+		Editor putBoolean(String key, boolean value);
+
+		Editor remove(String key);
+
+		void apply();
+
+		boolean commit();
+	}
+}
@@ -0,0 +1,36 @@
+package android.net.wifi;
+
+/**
+ * Fake of the Android WifiManager, its wifi locks only track whether they are held
+ */
+public class WifiManager {
+	public static final int WIFI_MODE_FULL_HIGH_PERF = 3;
+
+	public WifiLock createWifiLock(int lockType, String tag) {
+		return new WifiLock();
+	}
+
+	public class WifiLock {
+		private boolean counted = true;
+		private int count = 0;
+
+		public synchronized void acquire() {
+			this.count = this.counted ? this.count + 1 : 1;
+		}
+
+		public synchronized void release() {
+			if (this.count == 0) {
+				throw new RuntimeException("WifiLock under-locked");
+			}
+			this.count = this.counted ? this.count - 1 : 0;
+		}
+
+		public synchronized boolean isHeld() {
+			return this.count > 0;
+		}
+
+		public synchronized void setReferenceCounted(boolean value) {
+			this.counted = value;
+		}
+	}
+}
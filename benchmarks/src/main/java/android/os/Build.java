@@ -0,0 +1,16 @@
+package android.os;
+
+/**
+ * Fake of Android's Build, the plugin runs as on KitKat
+ */
+public class Build {
+	public static class VERSION {
+		public static final int SDK_INT = 19;
+	}
+
+	public static class VERSION_CODES {
+		public static final int JELLY_BEAN = 16;
+		public static final int JELLY_BEAN_MR2 = 18;
+		public static final int KITKAT = 19;
+	}
+}
@@ -0,0 +1,27 @@
+package android.os;
+
+import java.util.HashMap;
+
+/**
+ * Fake of the Android Bundle, a plain map
+ */
+public class Bundle {
+	private final HashMap<String, Object> values = new HashMap<String, Object>();
+
+	public void putParcelable(String key, Object value) {
+		this.values.put(key, value);
+	}
+
+	public Object getParcelable(String key) {
+		return this.values.get(key);
+	}
+
+	public void putString(String key, String value) {
+		this.values.put(key, value);
+	}
+
+	public String getString(String key) {
+		Object value = this.values.get(key);
+		return value instanceof String ? (String) value : null;
+	}
+}
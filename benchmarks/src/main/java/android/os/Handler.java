@@ -0,0 +1,45 @@
+package android.os;
+
+/**
+ * Fake of the Android Handler, posting runnables to its Looper
+ */
+public class Handler {
+	private final Looper looper;
+
+	public Handler() {
+		this(Looper.myLooper());
+	}
+
+	public Handler(Looper looper) {
+		if (looper == null) {
+			throw new RuntimeException("Can't create handler inside thread that has not called Looper.prepare()");
+		}
+		this.looper = looper;
+	}
+
+	public final boolean post(Runnable r) {
+		return this.looper.enqueue(this, r, SystemClock.uptimeMillis());
+	}
+
+	public final boolean postDelayed(Runnable r, long delayMillis) {
+		return this.looper.enqueue(this, r, SystemClock.uptimeMillis() + Math.max(0, delayMillis));
+	}
+
+	public final boolean postAtTime(Runnable r, long uptimeMillis) {
+		return this.looper.enqueue(this, r, uptimeMillis);
+	}
+
+	public final void removeCallbacks(Runnable r) {
+		if (r != null) {
+			this.looper.remove(this, r);
+		}
+	}
+
+	public final void removeCallbacksAndMessages(Object token) {
+		this.looper.remove(this, null);
+	}
+
+	public final Looper getLooper() {
+		return this.looper;
+	}
+}
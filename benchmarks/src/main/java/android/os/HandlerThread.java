@@ -0,0 +1,56 @@
+package android.os;
+
+/**
+ * Fake of the Android HandlerThread, a thread running a Looper
+ */
+public class HandlerThread extends Thread {
+	private Looper looper;
+
+	public HandlerThread(String name) {
+		super(name);
+	}
+
+	@Override
+	public void run() {
+		Looper.prepare();
+		synchronized (this) {
+			this.looper = Looper.myLooper();
+			this.notifyAll();
+		}
+		Looper.loop();
+	}
+
+	public Looper getLooper() {
+		if (!this.isAlive() && this.looper == null) {
+			return null;
+		}
+		synchronized (this) {
+			while (this.looper == null) {
+				try {
+					this.wait();
+				} catch (InterruptedException e) {
+					return null;
+				}
+			}
+			return this.looper;
+		}
+	}
+
+	public boolean quit() {
+		Looper looper = this.getLooper();
+		if (looper == null) {
+			return false;
+		}
+		looper.quit();
+		return true;
+	}
+
+	public boolean quitSafely() {
+		Looper looper = this.getLooper();
+		if (looper == null) {
+			return false;
+		}
+		looper.quitSafely();
+		return true;
+	}
+}
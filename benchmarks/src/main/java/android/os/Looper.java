@@ -0,0 +1,116 @@
+package android.os;
+
+import java.util.Iterator;
+import java.util.PriorityQueue;
+
+/**
+ * Fake of the Android Looper: a thread running the runnables posted to it in time order.
+ * The main looper runs on a daemon thread started on first use.
+ */
+public class Looper {
+	private static final ThreadLocal<Looper> current = new ThreadLocal<Looper>();
+	private static Looper main;
+
+	private final PriorityQueue<Message> queue = new PriorityQueue<Message>();
+	private final Thread thread;
+	private long sequence = 0;
+	private boolean quitting = false;
+	private boolean safely = false;
+
+	private Looper(Thread thread) {
+		this.thread = thread;
+	}
+
+	public static void prepare() {
+		if (current.get() != null) {
+			throw new RuntimeException("Only one Looper may be created per thread");
+		}
+		current.set(new Looper(Thread.currentThread()));
+	}
+
+	public static Looper myLooper() {
+		return current.get();
+	}
+
+	public static synchronized Looper getMainLooper() {
+		if (main == null) {
+			HandlerThread thread = new HandlerThread("main");
+			thread.setDaemon(true);
+			thread.start();
+			main = thread.getLooper();
+		}
+		return main;
+	}
+
+	public static void loop() {
+		Looper looper = myLooper();
+		if (looper == null) {
+			throw new RuntimeException("No Looper; Looper.prepare() wasn't called on this thread.");
+		}
+		Message message;
+		while ((message = looper.next()) != null) {
+			message.callback.run();
+		}
+	}
+
+	public Thread getThread() {
+		return this.thread;
+	}
+
+	public synchronized void quit() {
+		this.quitting = true;
+		this.queue.clear();
+		this.notifyAll();
+	}
+
+	public synchronized void quitSafely() {
+		this.quitting = true;
+		this.safely = true;
+		this.notifyAll();
+	}
+
+	synchronized boolean enqueue(Handler handler, Runnable callback, long when) {
+		if (this.quitting) {
+			return false;
+		}
+		this.queue.add(new Message(handler, callback, when, this.sequence++));
+		this.notifyAll();
+		return true;
+	}
+
+	synchronized void remove(Handler handler, Object callback) {
+		Iterator<Message> messages = this.queue.iterator();
+		while (messages.hasNext()) {
+			Message message = messages.next();
+			if (message.handler == handler && (callback == null || message.callback == callback)) {
+				messages.remove();
+			}
+		}
+	}
+
+	private synchronized Message next() {
+		while (true) {
+			long now = SystemClock.uptimeMillis();
+			Message head = this.queue.peek();
+			if (this.quitting) {
+				// quitSafely still runs what is due, later messages are dropped
+				if (!this.safely || head == null || head.when > now) {
+					this.queue.clear();
+					return null;
+				}
+			}
+			if (head != null && head.when <= now) {
+				return this.queue.poll();
+			}
+			try {
+				if (head == null) {
+					this.wait();
+				} else {
+					this.wait(Math.max(1, head.when - now));
+				}
+			} catch (InterruptedException e) {
+				return null;
+			}
+		}
+	}
+}
@@ -0,0 +1,26 @@
+package android.os;
+
+/**
+ * A runnable queued on a Looper, ordered by due time and then by posting order
+ */
+final class Message implements Comparable<Message> {
+	final Handler handler;
+	final Runnable callback;
+	final long when;
+	final long sequence;
+
+	Message(Handler handler, Runnable callback, long when, long sequence) {
+		this.handler = handler;
+		this.callback = callback;
+		this.when = when;
+		this.sequence = sequence;
+	}
+
+	@Override
+	public int compareTo(Message other) {
+		if (this.when != other.when) {
+			return this.when < other.when ? -1 : 1;
+		}
+		return this.sequence < other.sequence ? -1 : (this.sequence == other.sequence ? 0 : 1);
+	}
+}
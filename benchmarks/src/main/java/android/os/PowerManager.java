@@ -0,0 +1,36 @@
+package android.os;
+
+/**
+ * Fake of the Android PowerManager, its wake locks only track whether they are held
+ */
+public class PowerManager {
+	public static final int PARTIAL_WAKE_LOCK = 1;
+
+	public WakeLock newWakeLock(int levelAndFlags, String tag) {
+		return new WakeLock();
+	}
+
+	public class WakeLock {
+		private boolean counted = true;
+		private int count = 0;
+
+		public synchronized void acquire() {
+			this.count = this.counted ? this.count + 1 : 1;
+		}
+
+		public synchronized void release() {
+			if (this.count == 0) {
+				throw new RuntimeException("WakeLock under-locked");
+			}
+			this.count = this.counted ? this.count - 1 : 0;
+		}
+
+		public synchronized boolean isHeld() {
+			return this.count > 0;
+		}
+
+		public synchronized void setReferenceCounted(boolean value) {
+			this.counted = value;
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package android.os;
+
+/**
+ * Fake of the Android SystemClock, both clocks count from the JVM's monotonic clock
+ */
+public final class SystemClock {
+	private static final long origin = System.nanoTime();
+
+	private SystemClock() {
+	}
+
+	public static long uptimeMillis() {
+		return (System.nanoTime() - origin) / 1000000L;
+	}
+
+	public static long elapsedRealtime() {
+		return uptimeMillis();
+	}
+
+	public static long elapsedRealtimeNanos() {
+		return System.nanoTime() - origin;
+	}
+}
@@ -0,0 +1,32 @@
+package android.support.v7.media;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fake of the support library MediaRouteSelector
+ */
+public class MediaRouteSelector {
+	private final List<String> categories;
+
+	private MediaRouteSelector(List<String> categories) {
+		this.categories = categories;
+	}
+
+	public List<String> getControlCategories() {
+		return this.categories;
+	}
+
+	public static final class Builder {
+		private final ArrayList<String> categories = new ArrayList<String>();
+
+		public Builder addControlCategory(String category) {
+			this.categories.add(category);
+			return this;
+		}
+
+		public MediaRouteSelector build() {
+			return new MediaRouteSelector(new ArrayList<String>(this.categories));
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package android.support.v7.media;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import android.content.Context;
+import android.os.Bundle;
+
+/**
+ * Fake of the support library MediaRouter. Routes are added and removed by hand,
+ * the registered callbacks hear about it on the calling thread.
+ */
+public class MediaRouter {
+	public static final int CALLBACK_FLAG_PERFORM_ACTIVE_SCAN = 1;
+	public static final int CALLBACK_FLAG_UNFILTERED_EVENTS = 2;
+	public static final int CALLBACK_FLAG_REQUEST_DISCOVERY = 4;
+
+	private static MediaRouter instance;
+
+	private final ArrayList<RouteInfo> routes = new ArrayList<RouteInfo>();
+	private final ArrayList<Callback> callbacks = new ArrayList<Callback>();
+
+	public static synchronized MediaRouter getInstance(Context context) {
+		if (instance == null) {
+			instance = new MediaRouter();
+		}
+		return instance;
+	}
+
+	public synchronized List<RouteInfo> getRoutes() {
+		return new ArrayList<RouteInfo>(this.routes);
+	}
+
+	public void addCallback(MediaRouteSelector selector, Callback callback) {
+		this.addCallback(selector, callback, 0);
+	}
+
+	public synchronized void addCallback(MediaRouteSelector selector, Callback callback, int flags) {
+		if (!this.callbacks.contains(callback)) {
+			this.callbacks.add(callback);
+		}
+	}
+
+	public synchronized void removeCallback(Callback callback) {
+		this.callbacks.remove(callback);
+	}
+
+	public void addRoute(RouteInfo route) {
+		ArrayList<Callback> callbacks;
+		synchronized (this) {
+			this.routes.add(route);
+			callbacks = new ArrayList<Callback>(this.callbacks);
+		}
+		for (Callback callback : callbacks) {
+			callback.onRouteAdded(this, route);
+		}
+	}
+
+	public void removeRoute(RouteInfo route) {
+		ArrayList<Callback> callbacks;
+		synchronized (this) {
+			this.routes.remove(route);
+			callbacks = new ArrayList<Callback>(this.callbacks);
+		}
+		for (Callback callback : callbacks) {
+			callback.onRouteRemoved(this, route);
+		}
+	}
+
+	public static class RouteInfo {
+		private final String id;
+		private final String name;
+		private final Bundle extras;
+
+		public RouteInfo(String id, String name, Bundle extras) {
+			this.id = id;
+			this.name = name;
+			this.extras = extras;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public String getId() {
+			return this.id;
+		}
+
+		public Bundle getExtras() {
+			return this.extras;
+		}
+
+		public String getDescription() {
+			return null;
+		}
+
+		public boolean matchesSelector(MediaRouteSelector selector) {
+			return true;
+		}
+	}
+
+	public static abstract class Callback {
+		public void onRouteAdded(MediaRouter router, RouteInfo route) {
+		}
+
+		public void onRouteRemoved(MediaRouter router, RouteInfo route) {
+		}
+
+		public void onRouteChanged(MediaRouter router, RouteInfo route) {
+		}
+
+		public void onRouteSelected(MediaRouter router, RouteInfo route) {
+		}
+
+		public void onRouteUnselected(MediaRouter router, RouteInfo route) {
+		}
+	}
+}
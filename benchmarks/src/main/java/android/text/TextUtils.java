@@ -0,0 +1,23 @@
+package android.text;
+
+/**
+ * Fake of the Android TextUtils
+ */
+public class TextUtils {
+	public static boolean isEmpty(CharSequence str) {
+		return str == null || str.length() == 0;
+	}
+
+	public static String join(CharSequence delimiter, Iterable tokens) {
+		StringBuilder joined = new StringBuilder();
+		boolean first = true;
+		for (Object token : tokens) {
+			if (!first) {
+				joined.append(delimiter);
+			}
+			joined.append(token);
+			first = false;
+		}
+		return joined.toString();
+	}
+}
@@ -0,0 +1,56 @@
+package android.util;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * Fake of the Android Log. Warnings and errors go to stderr, the rest is dropped.
+ */
+public final class Log {
+	public static final int VERBOSE = 2;
+	public static final int DEBUG = 3;
+	public static final int INFO = 4;
+	public static final int WARN = 5;
+	public static final int ERROR = 6;
+	public static final int ASSERT = 7;
+
+	private Log() {
+	}
+
+	public static int println(int priority, String tag, String msg) {
+		if (priority < WARN) {
+			return 0;
+		}
+		System.err.println(tag + ": " + msg);
+		return msg.length();
+	}
+
+	public static int d(String tag, String msg) {
+		return println(DEBUG, tag, msg);
+	}
+
+	public static int i(String tag, String msg) {
+		return println(INFO, tag, msg);
+	}
+
+	public static int w(String tag, String msg) {
+		return println(WARN, tag, msg);
+	}
+
+	public static int e(String tag, String msg) {
+		return println(ERROR, tag, msg);
+	}
+
+	public static int e(String tag, String msg, Throwable tr) {
+		return println(ERROR, tag, msg + '\n' + getStackTraceString(tr));
+	}
+
+	public static String getStackTraceString(Throwable tr) {
+		if (tr == null) {
+			return "";
+		}
+		StringWriter trace = new StringWriter();
+		tr.printStackTrace(new PrintWriter(trace));
+		return trace.toString();
+	}
+}
@@ -0,0 +1,24 @@
+package android.view;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Fake of the Android View, runnables are posted to the main looper.
+ * A frame is taken to start right away, so postOnAnimation is a plain post.
+ */
+public class View {
+	private final Handler handler = new Handler(Looper.getMainLooper());
+
+	public boolean post(Runnable action) {
+		return this.handler.post(action);
+	}
+
+	public boolean postDelayed(Runnable action, long delayMillis) {
+		return this.handler.postDelayed(action, delayMillis);
+	}
+
+	public void postOnAnimation(Runnable action) {
+		this.handler.post(action);
+	}
+}
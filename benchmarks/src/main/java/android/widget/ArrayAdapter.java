@@ -0,0 +1,7 @@
+package android.widget;
+
+/**
+ * Fake of the Android ArrayAdapter
+ */
+public class ArrayAdapter<T> {
+}
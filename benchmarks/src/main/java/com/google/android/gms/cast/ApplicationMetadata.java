@@ -0,0 +1,32 @@
+package com.google.android.gms.cast;
+
+import java.util.List;
+
+import com.google.android.gms.common.images.WebImage;
+
+/**
+ * Fake of the Play services ApplicationMetadata
+ */
+public class ApplicationMetadata {
+	private final String applicationId;
+	private final String name;
+	private final List<WebImage> images;
+
+	public ApplicationMetadata(String applicationId, String name, List<WebImage> images) {
+		this.applicationId = applicationId;
+		this.name = name;
+		this.images = images;
+	}
+
+	public String getApplicationId() {
+		return this.applicationId;
+	}
+
+	public String getName() {
+		return this.name;
+	}
+
+	public List<WebImage> getImages() {
+		return this.images;
+	}
+}
@@ -0,0 +1,109 @@
+package com.google.android.gms.cast;
+
+import java.io.IOException;
+
+import com.google.android.gms.common.api.Api;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.common.api.PendingResult;
+import com.google.android.gms.common.api.Result;
+import com.google.android.gms.common.api.Status;
+
+/**
+ * Fake of the Play services Cast entry point, CastApi talks to the receiver kept by FakeGoogleApiClient
+ */
+public final class Cast {
+	public static final Api<CastOptions> API = new Api<CastOptions>();
+	public static final CastApi CastApi = new FakeCastApi();
+
+	public interface ApplicationConnectionResult extends Result {
+		ApplicationMetadata getApplicationMetadata();
+
+		String getSessionId();
+
+		String getApplicationStatus();
+
+		boolean getWasLaunched();
+	}
+
+	public interface MessageReceivedCallback {
+		void onMessageReceived(CastDevice castDevice, String namespace, String message);
+	}
+
+	public static class Listener {
+		public void onApplicationStatusChanged() {
+		}
+
+		public void onVolumeChanged() {
+		}
+
+		public void onApplicationDisconnected(int statusCode) {
+		}
+
+		public void onApplicationMetadataChanged(ApplicationMetadata applicationMetadata) {
+		}
+	}
+
+	public static final class CastOptions implements Api.ApiOptions.HasOptions {
+		private final Listener listener;
+
+		private CastOptions(Listener listener) {
+			this.listener = listener;
+		}
+
+		public Listener getListener() {
+			return this.listener;
+		}
+
+		public static Builder builder(CastDevice castDevice, Listener castListener) {
+			return new Builder(castListener);
+		}
+
+		public static final class Builder {
+			private final Listener listener;
+
+			private Builder(Listener listener) {
+				this.listener = listener;
+			}
+
+			public Builder setVerboseLoggingEnabled(boolean enabled) {
+				return this;
+			}
+
+			public CastOptions build() {
+				return new CastOptions(this.listener);
+			}
+		}
+	}
+
+	public interface CastApi {
+		PendingResult<ApplicationConnectionResult> launchApplication(GoogleApiClient client, String applicationId, boolean relaunchIfRunning);
+
+		PendingResult<ApplicationConnectionResult> joinApplication(GoogleApiClient client, String applicationId, String sessionId);
+
+		PendingResult<ApplicationConnectionResult> joinApplication(GoogleApiClient client, String applicationId);
+
+		PendingResult<Status> leaveApplication(GoogleApiClient client);
+
+		PendingResult<Status> stopApplication(GoogleApiClient client);
+
+		PendingResult<Status> stopApplication(GoogleApiClient client, String sessionId);
+
+		PendingResult<Status> sendMessage(GoogleApiClient client, String namespace, String message);
+
+		void setVolume(GoogleApiClient client, double volume) throws IOException;
+
+		double getVolume(GoogleApiClient client);
+
+		void setMute(GoogleApiClient client, boolean mute) throws IOException;
+
+		boolean isMute(GoogleApiClient client);
+
+		void setMessageReceivedCallbacks(GoogleApiClient client, String namespace, MessageReceivedCallback callbacks) throws IOException;
+
+		void removeMessageReceivedCallbacks(GoogleApiClient client, String namespace) throws IOException;
+
+		ApplicationMetadata getApplicationMetadata(GoogleApiClient client);
+
+		String getApplicationStatus(GoogleApiClient client);
+	}
+}
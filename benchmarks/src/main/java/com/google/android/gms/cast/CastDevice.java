@@ -0,0 +1,36 @@
+package com.google.android.gms.cast;
+
+import android.os.Bundle;
+
+/**
+ * Fake of the Play services CastDevice, stored in a route's extras under "com.google.android.gms.cast.EXTRA_CAST_DEVICE"
+ */
+public class CastDevice {
+	public static final String EXTRA_CAST_DEVICE = "com.google.android.gms.cast.EXTRA_CAST_DEVICE";
+
+	private final String deviceId;
+	private final String friendlyName;
+	private final String modelName;
+
+	public CastDevice(String deviceId, String friendlyName, String modelName) {
+		this.deviceId = deviceId;
+		this.friendlyName = friendlyName;
+		this.modelName = modelName;
+	}
+
+	public static CastDevice getFromBundle(Bundle extras) {
+		return extras == null ? null : (CastDevice) extras.getParcelable(EXTRA_CAST_DEVICE);
+	}
+
+	public String getDeviceId() {
+		return this.deviceId;
+	}
+
+	public String getFriendlyName() {
+		return this.friendlyName;
+	}
+
+	public String getModelName() {
+		return this.modelName;
+	}
+}
@@ -0,0 +1,13 @@
+package com.google.android.gms.cast;
+
+/**
+ * Fake of the Play services CastMediaControlIntent
+ */
+public final class CastMediaControlIntent {
+	private CastMediaControlIntent() {
+	}
+
+	public static String categoryForCast(String applicationId) {
+		return "com.google.android.gms.cast.CATEGORY_CAST/" + applicationId;
+	}
+}
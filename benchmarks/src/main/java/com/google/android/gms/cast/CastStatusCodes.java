@@ -0,0 +1,7 @@
+package com.google.android.gms.cast;
+
+import com.google.android.gms.common.api.CommonStatusCodes;
+
+public final class CastStatusCodes extends CommonStatusCodes {
+	public static final int APPLICATION_NOT_RUNNING = 2005;
+}
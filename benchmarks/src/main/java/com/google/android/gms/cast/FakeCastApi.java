@@ -0,0 +1,236 @@
+package com.google.android.gms.cast;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+
+import com.google.android.gms.cast.Cast.ApplicationConnectionResult;
+import com.google.android.gms.cast.Cast.MessageReceivedCallback;
+import com.google.android.gms.common.api.FakeGoogleApiClient;
+import com.google.android.gms.common.api.FakePendingResult;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.common.api.PendingResult;
+import com.google.android.gms.common.api.Result;
+import com.google.android.gms.common.api.Status;
+
+/**
+ * The Cast API against the receivers kept by FakeGoogleApiClient. Every call answers successfully on the
+ * client's handler, in the order the calls were made, unless results are held to let commands time out.
+ * Like the real API, calls on a client that is not connected throw IllegalStateException.
+ */
+public class FakeCastApi implements Cast.CastApi {
+	private final ArrayList<Runnable> held = new ArrayList<Runnable>();
+	private boolean holding = false;
+	private int sessions = 0;
+
+	/**
+	 * @return the Cast.CastApi instance
+	 */
+	public static FakeCastApi get() {
+		return (FakeCastApi) Cast.CastApi;
+	}
+
+	/**
+	 * Keeps results from being delivered until releaseHeld(), or never if they are cancelled first
+	 * @param holding
+	 */
+	public synchronized void holdResults(boolean holding) {
+		this.holding = holding;
+	}
+
+	/**
+	 * Completes the results held so far
+	 */
+	public void releaseHeld() {
+		ArrayList<Runnable> release;
+		synchronized (this) {
+			release = new ArrayList<Runnable>(this.held);
+			this.held.clear();
+		}
+		for (Runnable result : release) {
+			result.run();
+		}
+	}
+
+	static FakeGoogleApiClient connected(GoogleApiClient client) {
+		if (!client.isConnected()) {
+			throw new IllegalStateException("GoogleApiClient is not connected yet.");
+		}
+		return (FakeGoogleApiClient) client;
+	}
+
+	<R extends Result> PendingResult<R> answer(FakeGoogleApiClient client, final R result) {
+		final FakePendingResult<R> pending = new FakePendingResult<R>(client.getHandler());
+		Runnable complete = new Runnable() {
+			@Override
+			public void run() {
+				pending.setResult(result);
+			}
+		};
+		synchronized (this) {
+			if (this.holding) {
+				this.held.add(complete);
+				return pending;
+			}
+		}
+		complete.run();
+		return pending;
+	}
+
+	private ApplicationConnectionResult connection(final Status status, final String applicationId, final String sessionId, final boolean launched) {
+		return new ApplicationConnectionResult() {
+			@Override
+			public Status getStatus() {
+				return status;
+			}
+
+			@Override
+			public ApplicationMetadata getApplicationMetadata() {
+				return new ApplicationMetadata(applicationId, "Fake receiver app", Collections.<com.google.android.gms.common.images.WebImage>emptyList());
+			}
+
+			@Override
+			public String getSessionId() {
+				return sessionId;
+			}
+
+			@Override
+			public String getApplicationStatus() {
+				return "Ready";
+			}
+
+			@Override
+			public boolean getWasLaunched() {
+				return launched;
+			}
+		};
+	}
+
+	@Override
+	public PendingResult<ApplicationConnectionResult> launchApplication(GoogleApiClient client, String applicationId, boolean relaunchIfRunning) {
+		FakeGoogleApiClient receiver = connected(client);
+		String sessionId;
+		synchronized (this) {
+			sessionId = "session-" + (++this.sessions);
+		}
+		synchronized (receiver) {
+			receiver.applicationId = applicationId;
+			receiver.sessionId = sessionId;
+		}
+		return this.answer(receiver, this.connection(Status.SUCCESS, applicationId, sessionId, true));
+	}
+
+	@Override
+	public PendingResult<ApplicationConnectionResult> joinApplication(GoogleApiClient client, String applicationId, String sessionId) {
+		FakeGoogleApiClient receiver = connected(client);
+		boolean running;
+		synchronized (receiver) {
+			running = receiver.sessionId != null && (sessionId == null || sessionId.equals(receiver.sessionId))
+					&& (applicationId == null || applicationId.equals(receiver.applicationId));
+			sessionId = receiver.sessionId;
+		}
+		Status status = running ? Status.SUCCESS : new Status(CastStatusCodes.APPLICATION_NOT_RUNNING);
+		return this.answer(receiver, this.connection(status, applicationId, running ? sessionId : null, false));
+	}
+
+	@Override
+	public PendingResult<ApplicationConnectionResult> joinApplication(GoogleApiClient client, String applicationId) {
+		return this.joinApplication(client, applicationId, null);
+	}
+
+	@Override
+	public PendingResult<Status> leaveApplication(GoogleApiClient client) {
+		return this.answer(connected(client), Status.SUCCESS);
+	}
+
+	@Override
+	public PendingResult<Status> stopApplication(GoogleApiClient client) {
+		return this.stopApplication(client, null);
+	}
+
+	@Override
+	public PendingResult<Status> stopApplication(GoogleApiClient client, String sessionId) {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			if (sessionId == null || sessionId.equals(receiver.sessionId)) {
+				receiver.applicationId = null;
+				receiver.sessionId = null;
+			}
+		}
+		return this.answer(receiver, Status.SUCCESS);
+	}
+
+	@Override
+	public PendingResult<Status> sendMessage(GoogleApiClient client, String namespace, String message) {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			receiver.sentMessages.add(message);
+		}
+		return this.answer(receiver, Status.SUCCESS);
+	}
+
+	@Override
+	public void setVolume(GoogleApiClient client, double volume) throws IOException {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			receiver.volume = volume;
+		}
+	}
+
+	@Override
+	public double getVolume(GoogleApiClient client) {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			return receiver.volume;
+		}
+	}
+
+	@Override
+	public void setMute(GoogleApiClient client, boolean mute) throws IOException {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			receiver.muted = mute;
+		}
+	}
+
+	@Override
+	public boolean isMute(GoogleApiClient client) {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			return receiver.muted;
+		}
+	}
+
+	@Override
+	public void setMessageReceivedCallbacks(GoogleApiClient client, String namespace, MessageReceivedCallback callbacks) throws IOException {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			receiver.channels.put(namespace, callbacks);
+		}
+	}
+
+	@Override
+	public void removeMessageReceivedCallbacks(GoogleApiClient client, String namespace) throws IOException {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			receiver.channels.remove(namespace);
+		}
+	}
+
+	@Override
+	public ApplicationMetadata getApplicationMetadata(GoogleApiClient client) {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			return receiver.applicationId == null ? null
+					: new ApplicationMetadata(receiver.applicationId, "Fake receiver app", Collections.<com.google.android.gms.common.images.WebImage>emptyList());
+		}
+	}
+
+	@Override
+	public String getApplicationStatus(GoogleApiClient client) {
+		FakeGoogleApiClient receiver = connected(client);
+		synchronized (receiver) {
+			return receiver.sessionId != null ? "Ready" : null;
+		}
+	}
+}
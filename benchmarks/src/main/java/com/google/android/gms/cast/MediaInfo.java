@@ -0,0 +1,72 @@
+package com.google.android.gms.cast;
+
+/**
+ * Fake of the Play services MediaInfo
+ */
+public final class MediaInfo {
+	public static final int STREAM_TYPE_NONE = 0;
+	public static final int STREAM_TYPE_BUFFERED = 1;
+	public static final int STREAM_TYPE_LIVE = 2;
+
+	private final String contentId;
+	private String contentType;
+	private int streamType = STREAM_TYPE_BUFFERED;
+	private long streamDuration;
+	private MediaMetadata metadata;
+
+	private MediaInfo(String contentId) {
+		this.contentId = contentId;
+	}
+
+	public String getContentId() {
+		return this.contentId;
+	}
+
+	public String getContentType() {
+		return this.contentType;
+	}
+
+	public int getStreamType() {
+		return this.streamType;
+	}
+
+	public long getStreamDuration() {
+		return this.streamDuration;
+	}
+
+	public MediaMetadata getMetadata() {
+		return this.metadata;
+	}
+
+	public static class Builder {
+		private final MediaInfo info;
+
+		public Builder(String contentId) {
+			this.info = new MediaInfo(contentId);
+		}
+
+		public Builder setContentType(String contentType) {
+			this.info.contentType = contentType;
+			return this;
+		}
+
+		public Builder setStreamType(int streamType) {
+			this.info.streamType = streamType;
+			return this;
+		}
+
+		public Builder setStreamDuration(long duration) {
+			this.info.streamDuration = duration;
+			return this;
+		}
+
+		public Builder setMetadata(MediaMetadata metadata) {
+			this.info.metadata = metadata;
+			return this;
+		}
+
+		public MediaInfo build() {
+			return this.info;
+		}
+	}
+}
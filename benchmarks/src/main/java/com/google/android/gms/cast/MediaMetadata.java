@@ -0,0 +1,49 @@
+package com.google.android.gms.cast;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.google.android.gms.common.images.WebImage;
+
+/**
+ * Fake of the Play services MediaMetadata
+ */
+public class MediaMetadata {
+	public static final int MEDIA_TYPE_GENERIC = 0;
+	public static final int MEDIA_TYPE_MOVIE = 1;
+	public static final String KEY_TITLE = "com.google.android.gms.cast.metadata.TITLE";
+	public static final String KEY_SUBTITLE = "com.google.android.gms.cast.metadata.SUBTITLE";
+
+	private final int mediaType;
+	private final HashMap<String, String> strings = new HashMap<String, String>();
+	private final ArrayList<WebImage> images = new ArrayList<WebImage>();
+
+	public MediaMetadata() {
+		this(MEDIA_TYPE_GENERIC);
+	}
+
+	public MediaMetadata(int mediaType) {
+		this.mediaType = mediaType;
+	}
+
+	public int getMediaType() {
+		return this.mediaType;
+	}
+
+	public void putString(String key, String value) {
+		this.strings.put(key, value);
+	}
+
+	public String getString(String key) {
+		return this.strings.get(key);
+	}
+
+	public void addImage(WebImage image) {
+		this.images.add(image);
+	}
+
+	public List<WebImage> getImages() {
+		return this.images;
+	}
+}
@@ -0,0 +1,98 @@
+package com.google.android.gms.cast;
+
+import org.json.JSONObject;
+
+/**
+ * Fake of the Play services MediaStatus. The setters stand in for the receiver's status messages.
+ */
+public final class MediaStatus {
+	public static final int PLAYER_STATE_UNKNOWN = 0;
+	public static final int PLAYER_STATE_IDLE = 1;
+	public static final int PLAYER_STATE_PLAYING = 2;
+	public static final int PLAYER_STATE_PAUSED = 3;
+	public static final int PLAYER_STATE_BUFFERING = 4;
+
+	public static final int IDLE_REASON_NONE = 0;
+	public static final int IDLE_REASON_FINISHED = 1;
+	public static final int IDLE_REASON_CANCELED = 2;
+	public static final int IDLE_REASON_INTERRUPTED = 3;
+	public static final int IDLE_REASON_ERROR = 4;
+
+	private MediaInfo mediaInfo;
+	private long mediaSessionId;
+	private long streamPosition;
+	private double playbackRate;
+	private JSONObject customData;
+	private int playerState = PLAYER_STATE_IDLE;
+	private int idleReason = IDLE_REASON_NONE;
+	private double streamVolume = 1;
+	private boolean mute;
+
+	public MediaStatus(MediaInfo mediaInfo, long mediaSessionId) {
+		this.mediaInfo = mediaInfo;
+		this.mediaSessionId = mediaSessionId;
+	}
+
+	public MediaInfo getMediaInfo() {
+		return this.mediaInfo;
+	}
+
+	public long getMediaSessionId() {
+		return this.mediaSessionId;
+	}
+
+	public long getStreamPosition() {
+		return this.streamPosition;
+	}
+
+	public double getPlaybackRate() {
+		return this.playbackRate;
+	}
+
+	public JSONObject getCustomData() {
+		return this.customData;
+	}
+
+	public int getPlayerState() {
+		return this.playerState;
+	}
+
+	public int getIdleReason() {
+		return this.idleReason;
+	}
+
+	public double getStreamVolume() {
+		return this.streamVolume;
+	}
+
+	public boolean isMute() {
+		return this.mute;
+	}
+
+	public MediaStatus setStreamPosition(long streamPosition) {
+		this.streamPosition = streamPosition;
+		return this;
+	}
+
+	public MediaStatus setPlaybackRate(double playbackRate) {
+		this.playbackRate = playbackRate;
+		return this;
+	}
+
+	public MediaStatus setCustomData(JSONObject customData) {
+		this.customData = customData;
+		return this;
+	}
+
+	public MediaStatus setPlayerState(int playerState, int idleReason) {
+		this.playerState = playerState;
+		this.idleReason = idleReason;
+		return this;
+	}
+
+	public MediaStatus setStreamVolume(double streamVolume, boolean mute) {
+		this.streamVolume = streamVolume;
+		this.mute = mute;
+		return this;
+	}
+}
@@ -0,0 +1,214 @@
+package com.google.android.gms.cast;
+
+import org.json.JSONObject;
+
+import com.google.android.gms.common.api.FakeGoogleApiClient;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.common.api.PendingResult;
+import com.google.android.gms.common.api.Result;
+import com.google.android.gms.common.api.Status;
+
+/**
+ * Fake of the Play services RemoteMediaPlayer. Commands change the media status right away, tell the
+ * status listener on the client's handler and then answer through FakeCastApi.
+ */
+public class RemoteMediaPlayer implements Cast.MessageReceivedCallback {
+	public static final int RESUME_STATE_UNCHANGED = 0;
+	public static final int RESUME_STATE_PLAY = 1;
+	public static final int RESUME_STATE_PAUSE = 2;
+
+	static final String NAMESPACE = "urn:x-cast:com.google.cast.media";
+
+	public interface MediaChannelResult extends Result {
+		JSONObject getCustomData();
+	}
+
+	public interface OnMetadataUpdatedListener {
+		void onMetadataUpdated();
+	}
+
+	public interface OnStatusUpdatedListener {
+		void onStatusUpdated();
+	}
+
+	private volatile OnMetadataUpdatedListener metadataListener;
+	private volatile OnStatusUpdatedListener statusListener;
+	private volatile MediaStatus status = null;
+	private long mediaSessionId = 0;
+
+	public void setOnMetadataUpdatedListener(OnMetadataUpdatedListener listener) {
+		this.metadataListener = listener;
+	}
+
+	public void setOnStatusUpdatedListener(OnStatusUpdatedListener listener) {
+		this.statusListener = listener;
+	}
+
+	public MediaStatus getMediaStatus() {
+		return this.status;
+	}
+
+	public MediaInfo getMediaInfo() {
+		MediaStatus status = this.status;
+		return status != null ? status.getMediaInfo() : null;
+	}
+
+	public String getNamespace() {
+		return NAMESPACE;
+	}
+
+	public long getApproximateStreamPosition() {
+		MediaStatus status = this.status;
+		return status != null ? status.getStreamPosition() : 0;
+	}
+
+	/**
+	 * Replaces the media status as if the receiver had sent it, the status listener is told on the client's handler
+	 * @param client
+	 * @param status
+	 */
+	public void receiveStatus(GoogleApiClient client, MediaStatus status) {
+		this.status = status;
+		this.notifyStatus((FakeGoogleApiClient) client);
+	}
+
+	private void notifyStatus(FakeGoogleApiClient client) {
+		final OnStatusUpdatedListener listener = this.statusListener;
+		if (listener != null) {
+			client.getHandler().post(new Runnable() {
+				@Override
+				public void run() {
+					listener.onStatusUpdated();
+				}
+			});
+		}
+	}
+
+	private MediaStatus copy(MediaStatus current) {
+		MediaStatus copy = new MediaStatus(current.getMediaInfo(), current.getMediaSessionId());
+		copy.setStreamPosition(current.getStreamPosition());
+		copy.setPlaybackRate(current.getPlaybackRate());
+		copy.setCustomData(current.getCustomData());
+		copy.setPlayerState(current.getPlayerState(), current.getIdleReason());
+		copy.setStreamVolume(current.getStreamVolume(), current.isMute());
+		return copy;
+	}
+
+	private PendingResult<MediaChannelResult> update(GoogleApiClient client, MediaStatus status) {
+		FakeGoogleApiClient receiver = FakeCastApi.connected(client);
+		if (status != null) {
+			this.status = status;
+			this.notifyStatus(receiver);
+		}
+		return FakeCastApi.get().answer(receiver, (MediaChannelResult) new FakeMediaChannelResult(status != null
+				? Status.SUCCESS : new Status(CastStatusCodes.APPLICATION_NOT_RUNNING)));
+	}
+
+	private MediaStatus current() {
+		MediaStatus status = this.status;
+		return status != null ? this.copy(status) : null;
+	}
+
+	public PendingResult<MediaChannelResult> load(GoogleApiClient client, MediaInfo mediaInfo, boolean autoplay, long playPosition) {
+		MediaStatus status;
+		synchronized (this) {
+			status = new MediaStatus(mediaInfo, ++this.mediaSessionId);
+		}
+		status.setStreamPosition(playPosition);
+		status.setPlaybackRate(autoplay ? 1 : 0);
+		status.setPlayerState(autoplay ? MediaStatus.PLAYER_STATE_PLAYING : MediaStatus.PLAYER_STATE_PAUSED, MediaStatus.IDLE_REASON_NONE);
+		return this.update(client, status);
+	}
+
+	public PendingResult<MediaChannelResult> play(GoogleApiClient client) {
+		MediaStatus status = this.current();
+		if (status != null) {
+			status.setPlaybackRate(1);
+			status.setPlayerState(MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE);
+		}
+		return this.update(client, status);
+	}
+
+	public PendingResult<MediaChannelResult> pause(GoogleApiClient client) {
+		MediaStatus status = this.current();
+		if (status != null) {
+			status.setPlaybackRate(0);
+			status.setPlayerState(MediaStatus.PLAYER_STATE_PAUSED, MediaStatus.IDLE_REASON_NONE);
+		}
+		return this.update(client, status);
+	}
+
+	public PendingResult<MediaChannelResult> stop(GoogleApiClient client) {
+		MediaStatus status = this.current();
+		if (status != null) {
+			status.setPlaybackRate(0);
+			status.setPlayerState(MediaStatus.PLAYER_STATE_IDLE, MediaStatus.IDLE_REASON_CANCELED);
+		}
+		return this.update(client, status);
+	}
+
+	public PendingResult<MediaChannelResult> seek(GoogleApiClient client, long position) {
+		return this.seek(client, position, RESUME_STATE_UNCHANGED);
+	}
+
+	public PendingResult<MediaChannelResult> seek(GoogleApiClient client, long position, int resumeState) {
+		MediaStatus status = this.current();
+		if (status != null) {
+			status.setStreamPosition(position);
+			if (resumeState == RESUME_STATE_PLAY) {
+				status.setPlayerState(MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE);
+			} else if (resumeState == RESUME_STATE_PAUSE) {
+				status.setPlayerState(MediaStatus.PLAYER_STATE_PAUSED, MediaStatus.IDLE_REASON_NONE);
+			}
+		}
+		return this.update(client, status);
+	}
+
+	public PendingResult<MediaChannelResult> setStreamVolume(GoogleApiClient client, double volume) {
+		MediaStatus status = this.current();
+		if (status != null) {
+			status.setStreamVolume(volume, status.isMute());
+		}
+		return this.update(client, status);
+	}
+
+	public PendingResult<MediaChannelResult> setStreamMute(GoogleApiClient client, boolean muteState) {
+		MediaStatus status = this.current();
+		if (status != null) {
+			status.setStreamVolume(status.getStreamVolume(), muteState);
+		}
+		return this.update(client, status);
+	}
+
+	public PendingResult<MediaChannelResult> requestStatus(GoogleApiClient client) {
+		FakeGoogleApiClient receiver = FakeCastApi.connected(client);
+		this.notifyStatus(receiver);
+		return FakeCastApi.get().answer(receiver, (MediaChannelResult) new FakeMediaChannelResult(Status.SUCCESS));
+	}
+
+	@Override
+	public void onMessageReceived(CastDevice castDevice, String namespace, String message) {
+		OnMetadataUpdatedListener listener = this.metadataListener;
+		if (listener != null) {
+			listener.onMetadataUpdated();
+		}
+	}
+
+	private static final class FakeMediaChannelResult implements MediaChannelResult {
+		private final Status status;
+
+		FakeMediaChannelResult(Status status) {
+			this.status = status;
+		}
+
+		@Override
+		public Status getStatus() {
+			return this.status;
+		}
+
+		@Override
+		public JSONObject getCustomData() {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.google.android.gms.common;
+
+/**
+ * Fake of the Play services ConnectionResult
+ */
+public final class ConnectionResult {
+	public static final int SUCCESS = 0;
+	public static final int NETWORK_ERROR = 7;
+
+	private final int errorCode;
+
+	public ConnectionResult(int errorCode) {
+		this.errorCode = errorCode;
+	}
+
+	public int getErrorCode() {
+		return this.errorCode;
+	}
+
+	public boolean isSuccess() {
+		return this.errorCode == SUCCESS;
+	}
+}
@@ -0,0 +1,14 @@
+package com.google.android.gms.common.api;
+
+/**
+ * Fake of the Play services Api token
+ */
+public final class Api<O extends Api.ApiOptions> {
+	public interface ApiOptions {
+		interface HasOptions extends ApiOptions {
+		}
+
+		interface NotRequiredOptions extends ApiOptions {
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package com.google.android.gms.common.api;
+
+public class CommonStatusCodes {
+	public static final int SUCCESS = 0;
+	public static final int NETWORK_ERROR = 7;
+	public static final int INTERRUPTED = 14;
+	public static final int TIMEOUT = 15;
+	public static final int CANCELED = 16;
+}
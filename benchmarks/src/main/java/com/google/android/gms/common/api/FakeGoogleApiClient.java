@@ -0,0 +1,161 @@
+package com.google.android.gms.common.api;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import android.os.Handler;
+
+import com.google.android.gms.cast.Cast;
+import com.google.android.gms.common.ConnectionResult;
+
+/**
+ * A GoogleApiClient connected to a make-believe receiver. Connecting succeeds on the client's handler
+ * unless a test said otherwise, and the receiver state the Cast API fake works on is kept here.
+ */
+public class FakeGoogleApiClient extends GoogleApiClient {
+	/** How the next connect() ends */
+	public enum ConnectOutcome { CONNECT, FAIL, HANG }
+
+	private final Handler handler;
+	private final ConnectionCallbacks connectionCallbacks;
+	private final OnConnectionFailedListener failedListener;
+	private final Cast.Listener castListener;
+
+	private volatile ConnectOutcome outcome = ConnectOutcome.CONNECT;
+	private boolean connected = false;
+	private boolean connecting = false;
+	private int connects = 0;
+
+	/** Receiver state, guarded by this */
+	public String applicationId = null;
+	public String sessionId = null;
+	public double volume = 0.5;
+	public boolean muted = false;
+	public final HashMap<String, Cast.MessageReceivedCallback> channels = new HashMap<String, Cast.MessageReceivedCallback>();
+	public final List<String> sentMessages = new ArrayList<String>();
+
+	FakeGoogleApiClient(Handler handler, ConnectionCallbacks connectionCallbacks, OnConnectionFailedListener failedListener, Cast.Listener castListener) {
+		this.handler = handler;
+		this.connectionCallbacks = connectionCallbacks;
+		this.failedListener = failedListener;
+		this.castListener = castListener;
+	}
+
+	public Handler getHandler() {
+		return this.handler;
+	}
+
+	public Cast.Listener getCastListener() {
+		return this.castListener;
+	}
+
+	public void setConnectOutcome(ConnectOutcome outcome) {
+		this.outcome = outcome;
+	}
+
+	public synchronized int getConnectCount() {
+		return this.connects;
+	}
+
+	@Override
+	public void connect() {
+		final ConnectOutcome outcome = this.outcome;
+		synchronized (this) {
+			if (this.connected || this.connecting) {
+				return;
+			}
+			this.connecting = true;
+			this.connects++;
+		}
+		if (outcome != ConnectOutcome.HANG) {
+			this.finishConnect(outcome);
+		}
+	}
+
+	/**
+	 * Lets a connect() that was left hanging connect after all, on the client's handler
+	 */
+	public void finishHangingConnect() {
+		this.finishConnect(ConnectOutcome.CONNECT);
+	}
+
+	private void finishConnect(final ConnectOutcome outcome) {
+		this.handler.post(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (FakeGoogleApiClient.this) {
+					if (!FakeGoogleApiClient.this.connecting) {
+						return;
+					}
+					FakeGoogleApiClient.this.connecting = false;
+					FakeGoogleApiClient.this.connected = outcome == ConnectOutcome.CONNECT;
+				}
+				if (outcome == ConnectOutcome.CONNECT) {
+					FakeGoogleApiClient.this.connectionCallbacks.onConnected(null);
+				} else {
+					FakeGoogleApiClient.this.failedListener.onConnectionFailed(new ConnectionResult(ConnectionResult.NETWORK_ERROR));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Drops the connection as if the receiver went out of reach, runs on the client's handler
+	 */
+	public void suspend() {
+		this.handler.post(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (FakeGoogleApiClient.this) {
+					FakeGoogleApiClient.this.connected = false;
+					FakeGoogleApiClient.this.connecting = false;
+				}
+				FakeGoogleApiClient.this.connectionCallbacks.onConnectionSuspended(ConnectionCallbacks.CAUSE_NETWORK_LOST);
+			}
+		});
+	}
+
+	@Override
+	public synchronized void disconnect() {
+		this.connected = false;
+		this.connecting = false;
+	}
+
+	@Override
+	public void reconnect() {
+		this.disconnect();
+		this.connect();
+	}
+
+	@Override
+	public synchronized boolean isConnected() {
+		return this.connected;
+	}
+
+	@Override
+	public synchronized boolean isConnecting() {
+		return this.connecting;
+	}
+
+	@Override
+	public void registerConnectionCallbacks(ConnectionCallbacks listener) {
+	}
+
+	@Override
+	public void unregisterConnectionCallbacks(ConnectionCallbacks listener) {
+	}
+
+	@Override
+	public void registerConnectionFailedListener(OnConnectionFailedListener listener) {
+	}
+
+	@Override
+	public void unregisterConnectionFailedListener(OnConnectionFailedListener listener) {
+	}
+
+	@Override
+	public boolean isConnectionCallbacksRegistered(ConnectionCallbacks listener) {
+		return listener == this.connectionCallbacks;
+	}
+}
@@ -0,0 +1,93 @@
+package com.google.android.gms.common.api;
+
+import java.util.concurrent.TimeUnit;
+
+import android.os.Handler;
+
+/**
+ * A PendingResult completed by hand. The callback runs on the given handler, like Play services
+ * delivers results on the GoogleApiClient's looper, and never runs once the result was cancelled.
+ */
+public class FakePendingResult<R extends Result> extends PendingResult<R> {
+	private final Handler handler;
+	private R result = null;
+	private ResultCallback<? super R> callback = null;
+	private boolean canceled = false;
+	private boolean delivered = false;
+
+	public FakePendingResult(Handler handler) {
+		this.handler = handler;
+	}
+
+	/**
+	 * Completes the result, the callback is posted if it is set already
+	 * @param result
+	 */
+	public void setResult(R result) {
+		synchronized (this) {
+			if (this.result != null || this.canceled) {
+				return;
+			}
+			this.result = result;
+			this.notifyAll();
+		}
+		this.deliver();
+	}
+
+	@Override
+	public void setResultCallback(ResultCallback<? super R> callback) {
+		synchronized (this) {
+			this.callback = callback;
+		}
+		this.deliver();
+	}
+
+	@Override
+	public void setResultCallback(ResultCallback<? super R> callback, long maxTime, TimeUnit timeUnit) {
+		this.setResultCallback(callback);
+	}
+
+	private void deliver() {
+		final ResultCallback<? super R> callback;
+		final R result;
+		synchronized (this) {
+			if (this.callback == null || this.result == null || this.canceled || this.delivered) {
+				return;
+			}
+			this.delivered = true;
+			callback = this.callback;
+			result = this.result;
+		}
+		this.handler.post(new Runnable() {
+			@Override
+			public void run() {
+				if (!FakePendingResult.this.isCanceled()) {
+					callback.onResult(result);
+				}
+			}
+		});
+	}
+
+	@Override
+	public synchronized void cancel() {
+		this.canceled = true;
+		this.notifyAll();
+	}
+
+	@Override
+	public synchronized boolean isCanceled() {
+		return this.canceled;
+	}
+
+	@Override
+	public synchronized R await() {
+		while (this.result == null && !this.canceled) {
+			try {
+				this.wait();
+			} catch (InterruptedException e) {
+				return null;
+			}
+		}
+		return this.result;
+	}
+}
@@ -0,0 +1,84 @@
+package com.google.android.gms.common.api;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.gms.cast.Cast;
+import com.google.android.gms.common.ConnectionResult;
+
+/**
+ * Fake of the Play services GoogleApiClient, build() returns a FakeGoogleApiClient
+ */
+public abstract class GoogleApiClient {
+	public abstract void connect();
+
+	public abstract void disconnect();
+
+	public abstract void reconnect();
+
+	public abstract boolean isConnected();
+
+	public abstract boolean isConnecting();
+
+	public abstract void registerConnectionCallbacks(ConnectionCallbacks listener);
+
+	public abstract void unregisterConnectionCallbacks(ConnectionCallbacks listener);
+
+	public abstract void registerConnectionFailedListener(OnConnectionFailedListener listener);
+
+	public abstract void unregisterConnectionFailedListener(OnConnectionFailedListener listener);
+
+	public abstract boolean isConnectionCallbacksRegistered(ConnectionCallbacks listener);
+
+	public interface ConnectionCallbacks {
+		int CAUSE_SERVICE_DISCONNECTED = 1;
+		int CAUSE_NETWORK_LOST = 2;
+
+		void onConnected(Bundle connectionHint);
+
+		void onConnectionSuspended(int cause);
+	}
+
+	public interface OnConnectionFailedListener {
+		void onConnectionFailed(ConnectionResult result);
+	}
+
+	public static final class Builder {
+		private ConnectionCallbacks connectionCallbacks;
+		private OnConnectionFailedListener failedListener;
+		private Cast.Listener castListener;
+		private Handler handler;
+
+		public Builder(Context context) {
+		}
+
+		public <O extends Api.ApiOptions.HasOptions> Builder addApi(Api<O> api, O options) {
+			if (options instanceof Cast.CastOptions) {
+				this.castListener = ((Cast.CastOptions) options).getListener();
+			}
+			return this;
+		}
+
+		public Builder addConnectionCallbacks(ConnectionCallbacks listener) {
+			this.connectionCallbacks = listener;
+			return this;
+		}
+
+		public Builder addOnConnectionFailedListener(OnConnectionFailedListener listener) {
+			this.failedListener = listener;
+			return this;
+		}
+
+		public Builder setHandler(Handler handler) {
+			this.handler = handler;
+			return this;
+		}
+
+		public GoogleApiClient build() {
+			Handler handler = this.handler != null ? this.handler : new Handler(Looper.getMainLooper());
+			return new FakeGoogleApiClient(handler, this.connectionCallbacks, this.failedListener, this.castListener);
+		}
+	}
+}
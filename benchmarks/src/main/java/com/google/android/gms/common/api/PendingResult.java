@@ -0,0 +1,15 @@
+package com.google.android.gms.common.api;
+
+import java.util.concurrent.TimeUnit;
+
+public abstract class PendingResult<R extends Result> {
+	public abstract void setResultCallback(ResultCallback<? super R> callback);
+
+	public abstract void setResultCallback(ResultCallback<? super R> callback, long maxTime, TimeUnit timeUnit);
+
+	public abstract void cancel();
+
+	public abstract boolean isCanceled();
+
+	public abstract R await();
+}
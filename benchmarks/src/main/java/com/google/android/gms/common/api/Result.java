@@ -0,0 +1,5 @@
+package com.google.android.gms.common.api;
+
+public interface Result {
+	Status getStatus();
+}
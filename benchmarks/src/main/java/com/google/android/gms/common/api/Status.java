@@ -0,0 +1,41 @@
+package com.google.android.gms.common.api;
+
+/**
+ * Fake of the Play services Status
+ */
+public final class Status implements Result {
+	public static final Status SUCCESS = new Status(CommonStatusCodes.SUCCESS);
+	public static final Status CANCELED = new Status(CommonStatusCodes.CANCELED);
+
+	private final int statusCode;
+
+	public Status(int statusCode) {
+		this.statusCode = statusCode;
+	}
+
+	public boolean isSuccess() {
+		return this.statusCode <= CommonStatusCodes.SUCCESS;
+	}
+
+	public boolean isCanceled() {
+		return this.statusCode == CommonStatusCodes.CANCELED;
+	}
+
+	public boolean isInterrupted() {
+		return this.statusCode == CommonStatusCodes.INTERRUPTED;
+	}
+
+	public int getStatusCode() {
+		return this.statusCode;
+	}
+
+	@Override
+	public Status getStatus() {
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "Status{statusCode=" + this.statusCode + "}";
+	}
+}
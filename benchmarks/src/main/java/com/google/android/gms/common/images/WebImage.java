@@ -0,0 +1,34 @@
+package com.google.android.gms.common.images;
+
+import android.net.Uri;
+
+/**
+ * Fake of the Play services WebImage
+ */
+public final class WebImage {
+	private final Uri url;
+	private final int width;
+	private final int height;
+
+	public WebImage(Uri url) {
+		this(url, 0, 0);
+	}
+
+	public WebImage(Uri url, int width, int height) {
+		this.url = url;
+		this.width = width;
+		this.height = height;
+	}
+
+	public Uri getUrl() {
+		return this.url;
+	}
+
+	public int getWidth() {
+		return this.width;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+}
@@ -0,0 +1,66 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Fake of the Cordova CallbackContext. Results go to sendPluginResult, which drops them;
+ * tests override it to see what was sent.
+ */
+public class CallbackContext {
+	private final String callbackId;
+	private boolean finished = false;
+
+	public CallbackContext(String callbackId, CordovaWebView webView) {
+		this.callbackId = callbackId;
+	}
+
+	public boolean isFinished() {
+		return this.finished;
+	}
+
+	public String getCallbackId() {
+		return this.callbackId;
+	}
+
+	public void sendPluginResult(PluginResult pluginResult) {
+		synchronized (this) {
+			if (this.finished) {
+				return;
+			}
+			this.finished = !pluginResult.getKeepCallback();
+		}
+	}
+
+	public void success() {
+		this.sendPluginResult(new PluginResult(PluginResult.Status.OK));
+	}
+
+	public void success(String message) {
+		this.sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+	}
+
+	public void success(JSONObject message) {
+		this.sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+	}
+
+	public void success(JSONArray message) {
+		this.sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+	}
+
+	public void success(int message) {
+		this.sendPluginResult(new PluginResult(PluginResult.Status.OK, message));
+	}
+
+	public void error(String message) {
+		this.sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+	}
+
+	public void error(JSONObject message) {
+		this.sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+	}
+
+	public void error(int message) {
+		this.sendPluginResult(new PluginResult(PluginResult.Status.ERROR, message));
+	}
+}
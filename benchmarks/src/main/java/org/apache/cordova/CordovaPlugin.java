@@ -0,0 +1,33 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * Fake of the Cordova plugin base class
+ */
+public class CordovaPlugin {
+	public CordovaWebView webView;
+	public CordovaInterface cordova;
+
+	public void initialize(CordovaInterface cordova, CordovaWebView webView) {
+		this.cordova = cordova;
+		this.webView = webView;
+	}
+
+	public boolean execute(String action, JSONArray args, CallbackContext callbackContext) throws JSONException {
+		return false;
+	}
+
+	public void onPause(boolean multitasking) {
+	}
+
+	public void onResume(boolean multitasking) {
+	}
+
+	public void onDestroy() {
+	}
+
+	public void onReset() {
+	}
+}
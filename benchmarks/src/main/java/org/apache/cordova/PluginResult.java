@@ -0,0 +1,87 @@
+package org.apache.cordova;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Fake of the Cordova PluginResult, keeping the message as the bridge would encode it
+ */
+public class PluginResult {
+	public static final int MESSAGE_TYPE_STRING = 1;
+	public static final int MESSAGE_TYPE_JSON = 2;
+	public static final int MESSAGE_TYPE_NUMBER = 3;
+	public static final int MESSAGE_TYPE_BOOLEAN = 4;
+	public static final int MESSAGE_TYPE_NULL = 5;
+
+	public enum Status {
+		NO_RESULT, OK, CLASS_NOT_FOUND_EXCEPTION, ILLEGAL_ACCESS_EXCEPTION, INSTANTIATION_EXCEPTION, MALFORMED_URL_EXCEPTION,
+		IO_EXCEPTION, INVALID_ACTION, JSON_EXCEPTION, ERROR
+	}
+
+	private final int status;
+	private final int messageType;
+	private final String strMessage;
+	private final String encodedMessage;
+	private boolean keepCallback = false;
+
+	public PluginResult(Status status) {
+		this(status, MESSAGE_TYPE_NULL, null, "null");
+	}
+
+	public PluginResult(Status status, String message) {
+		this(status, message == null ? MESSAGE_TYPE_NULL : MESSAGE_TYPE_STRING, message, message == null ? "null" : JSONObject.quote(message));
+	}
+
+	public PluginResult(Status status, JSONArray message) {
+		this(status, MESSAGE_TYPE_JSON, null, message.toString());
+	}
+
+	public PluginResult(Status status, JSONObject message) {
+		this(status, MESSAGE_TYPE_JSON, null, message.toString());
+	}
+
+	public PluginResult(Status status, int i) {
+		this(status, MESSAGE_TYPE_NUMBER, null, String.valueOf(i));
+	}
+
+	public PluginResult(Status status, boolean b) {
+		this(status, MESSAGE_TYPE_BOOLEAN, null, String.valueOf(b));
+	}
+
+	private PluginResult(Status status, int messageType, String strMessage, String encodedMessage) {
+		this.status = status.ordinal();
+		this.messageType = messageType;
+		this.strMessage = strMessage;
+		this.encodedMessage = encodedMessage;
+	}
+
+	public void setKeepCallback(boolean b) {
+		this.keepCallback = b;
+	}
+
+	public int getStatus() {
+		return this.status;
+	}
+
+	public int getMessageType() {
+		return this.messageType;
+	}
+
+	/**
+	 * @return the message as the bridge hands it to javascript
+	 */
+	public String getMessage() {
+		return this.encodedMessage;
+	}
+
+	/**
+	 * @return the message of a string result
+	 */
+	public String getStrMessage() {
+		return this.strMessage;
+	}
+
+	public boolean getKeepCallback() {
+		return this.keepCallback;
+	}
+}
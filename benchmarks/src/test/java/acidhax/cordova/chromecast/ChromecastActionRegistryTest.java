@@ -0,0 +1,50 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
+import org.junit.Test;
+
+public class ChromecastActionRegistryTest {
+	private static ChromecastAction action(Class<?>... argTypes) {
+		return new ChromecastAction(argTypes) {
+			boolean run(JSONArray args, CallbackContext callbackContext) {
+				return true;
+			}
+		};
+	}
+
+	@Test
+	public void unscopedOverloadsWinOverScopedOnes() throws Exception {
+		ChromecastActionRegistry registry = new ChromecastActionRegistry();
+		ChromecastAction all = action();
+		ChromecastAction scopedAll = action(String.class);
+		ChromecastAction named = action(String.class);
+		ChromecastAction scopedNamed = action(String.class, String.class);
+		// In the order registerSessionAction adds cancelPending's two forms
+		registry.register("cancelPending", all);
+		registry.registerScoped("cancelPending", scopedAll);
+		registry.register("cancelPending", named);
+		registry.registerScoped("cancelPending", scopedNamed);
+
+		assertSame(all, registry.find("cancelPending", new JSONArray()));
+		assertSame(named, registry.find("cancelPending", new JSONArray("[\"launch\"]")));
+		assertSame(scopedNamed, registry.find("cancelPending", new JSONArray("[\"session-1\", \"\"]")));
+		assertNull(registry.find("cancelPending", new JSONArray("[1]")));
+	}
+
+	@Test
+	public void scopedFormsAreFoundWhenNothingElseMatches() throws Exception {
+		ChromecastActionRegistry registry = new ChromecastActionRegistry();
+		ChromecastAction play = action();
+		ChromecastAction scopedPlay = action(String.class);
+		registry.register("mediaPlay", play);
+		registry.registerScoped("mediaPlay", scopedPlay);
+
+		assertSame(play, registry.find("mediaPlay", new JSONArray()));
+		assertSame(scopedPlay, registry.find("mediaPlay", new JSONArray("[\"session-1\"]")));
+		assertNull(registry.find("mediaPause", new JSONArray()));
+	}
+}
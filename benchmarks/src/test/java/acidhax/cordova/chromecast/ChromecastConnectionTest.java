@@ -0,0 +1,155 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.Activity;
+
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.FakeCastApi;
+import com.google.android.gms.common.api.FakeGoogleApiClient;
+
+/**
+ * Sessions sharing one pooled connection: only the session that launched last hears the receiver,
+ * and closing the connection fails what its sessions still wait on.
+ */
+public class ChromecastConnectionTest {
+	private static final String NAMESPACE = "urn:x-cast:com.example";
+
+	private ChromecastConnectionPool pool;
+	private ChromecastConnection connection;
+	private FakeGoogleApiClient receiver;
+	private final List<String> heard = new ArrayList<String>();
+
+	@Before
+	public void setUp() {
+		this.pool = new ChromecastConnectionPool(new Activity(), new ChromecastMetrics(), new ChromecastTrace());
+		// A lease of its own, only to reach the connection
+		this.connection = this.pool.lease(null, "device-Shared", "Shared");
+		this.receiver = (FakeGoogleApiClient) this.connection.getClient();
+	}
+
+	@After
+	public void tearDown() {
+		FakeCastApi.get().holdResults(false);
+		FakeCastApi.get().releaseHeld();
+		this.pool.clear();
+	}
+
+	private ChromecastSession session(final String name) {
+		return new ChromecastSession(FakeCordova.route("Shared"), new FakeCordova(), this.pool, null,
+				new ChromecastOnSessionUpdatedListener() {
+					@Override
+					public void onSessionUpdated(ChromecastSession session, boolean isAlive, ChromecastJsonValue properties, boolean isDelta) {
+					}
+
+					@Override
+					public void onMessage(ChromecastSession session, String namespace, String message) {
+						synchronized (ChromecastConnectionTest.this.heard) {
+							ChromecastConnectionTest.this.heard.add(name + " " + message);
+						}
+					}
+				});
+	}
+
+	private static void launch(ChromecastSession session) throws InterruptedException {
+		final CountDownLatch launched = new CountDownLatch(1);
+		session.launch("CC1AD845", new ChromecastSessionCallback() {
+			@Override
+			void onSuccess(Object object) {
+				launched.countDown();
+			}
+
+			@Override
+			void onError(String reason) {
+			}
+		});
+		assertTrue(launched.await(5, TimeUnit.SECONDS));
+	}
+
+	/**
+	 * Delivers a message from the receiver on the client's thread and waits until it was handled
+	 */
+	private void receive(final String namespace, final String message) throws InterruptedException {
+		final CountDownLatch delivered = new CountDownLatch(1);
+		this.receiver.getHandler().post(new Runnable() {
+			@Override
+			public void run() {
+				synchronized (ChromecastConnectionTest.this.receiver) {
+					ChromecastConnectionTest.this.receiver.channels.get(namespace)
+							.onMessageReceived(new CastDevice("device-Shared", "Shared", "Chromecast"), namespace, message);
+				}
+				delivered.countDown();
+			}
+		});
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	public void messagesGoToTheSessionThatLaunchedLast() throws Exception {
+		ChromecastSession first = this.session("first");
+		launch(first);
+		first.addMessageListener(NAMESPACE);
+		ChromecastSession preconnected = this.session("preconnected");
+		preconnected.preconnect();
+		preconnected.addMessageListener(NAMESPACE);
+
+		this.receive(NAMESPACE, "one");
+		synchronized (this.receiver) {
+			assertSame(this.connection, this.receiver.channels.get(NAMESPACE));
+			assertSame(this.connection, this.receiver.channels.get("urn:x-cast:com.google.cast.media"));
+		}
+
+		ChromecastSession second = this.session("second");
+		launch(second);
+		second.addMessageListener(NAMESPACE);
+		this.receive(NAMESPACE, "two");
+
+		second.release();
+		this.receive(NAMESPACE, "three");
+
+		synchronized (this.heard) {
+			assertEquals("[first one, second two, first three]", this.heard.toString());
+		}
+		first.release();
+		preconnected.release();
+	}
+
+	@Test
+	public void closingFailsTheCommandsInFlight() throws Exception {
+		ChromecastSession session = this.session("session");
+		launch(session);
+
+		FakeCastApi.get().holdResults(true);
+		final CountDownLatch failed = new CountDownLatch(1);
+		final List<String> reasons = new ArrayList<String>();
+		// No deadline, only closing the connection ends the command
+		session.setCommandTimeouts(new JSONObject("{\"default\": 0}"));
+		session.sendMessage(NAMESPACE, "never answered", new ChromecastSessionCallback() {
+			@Override
+			void onSuccess(Object object) {
+			}
+
+			@Override
+			void onError(String reason) {
+				reasons.add(reason);
+				failed.countDown();
+			}
+		});
+
+		this.pool.clear();
+		assertTrue(failed.await(5, TimeUnit.SECONDS));
+		assertEquals("[session_error]", reasons.toString());
+	}
+}
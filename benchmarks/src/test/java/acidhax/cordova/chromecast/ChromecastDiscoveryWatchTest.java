@@ -0,0 +1,36 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ChromecastDiscoveryWatchTest {
+	private final CountDownLatch settled = new CountDownLatch(1);
+	private final ChromecastDiscoveryWatch watch = new ChromecastDiscoveryWatch(new Runnable() {
+		@Override
+		public void run() {
+			ChromecastDiscoveryWatchTest.this.settled.countDown();
+		}
+	});
+
+	@Test
+	public void aRunWithoutReceiversWaitsForTheFirstOne() throws Exception {
+		this.watch.start(0);
+		assertFalse(this.settled.await(ChromecastDiscoveryWatch.MIN_QUIET_MILLIS * 3, TimeUnit.MILLISECONDS));
+		assertFalse(this.watch.isSettled());
+
+		this.watch.receiverAdded();
+		assertTrue(this.settled.await(ChromecastDiscoveryWatch.MIN_QUIET_MILLIS * 5, TimeUnit.MILLISECONDS));
+		assertTrue(this.watch.isSettled());
+	}
+
+	@Test
+	public void knownReceiversStartTheQuietWindow() throws Exception {
+		this.watch.start(1);
+		assertTrue(this.settled.await(ChromecastDiscoveryWatch.MIN_QUIET_MILLIS * 5, TimeUnit.MILLISECONDS));
+	}
+}
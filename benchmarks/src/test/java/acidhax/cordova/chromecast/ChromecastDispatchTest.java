@@ -0,0 +1,72 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChromecastDispatchTest {
+	private Chromecast plugin;
+
+	@Before
+	public void setUp() {
+		this.plugin = new Chromecast();
+		this.plugin.initialize(new FakeCordova(), new FakeWebView(true));
+	}
+
+	@After
+	public void tearDown() {
+		this.plugin.onDestroy();
+	}
+
+	/**
+	 * Runs a call through the registry and through the old reflective dispatch
+	 * @return whether the registry handled it
+	 */
+	private boolean dispatch(String action, String args) throws Exception {
+		RecordingCallbackContext registry = new RecordingCallbackContext();
+		RecordingCallbackContext reflective = new RecordingCallbackContext();
+		boolean handled = this.plugin.execute(action, new JSONArray(args), registry);
+		assertEquals(action + " " + args, ReflectiveDispatch.execute(this.plugin, action, new JSONArray(args), reflective), handled);
+		assertEquals(reflective.getResults().size(), registry.getResults().size());
+		return handled;
+	}
+
+	@Test
+	public void matchesTheReflectiveDispatch() throws Exception {
+		assertTrue(this.dispatch("mediaPlay", "[]"));
+		assertTrue(this.dispatch("setReceiverVolumeLevel", "[0.5]"));
+		assertTrue(this.dispatch("setReceiverVolumeLevel", "[1]"));
+		// loadMedia has always returned false when there is no session
+		assertFalse(this.dispatch("loadMedia", "[\"http://example.com/a.mp4\", \"video/mp4\", 10, \"buffered\", true, 1.5, {}]"));
+		assertFalse(this.dispatch("loadMedia", "[\"http://example.com/a.mp4\", \"video/mp4\", 10, \"buffered\", true, 0, {}]"));
+		assertTrue(this.dispatch("mediaSeek", "[42, \"PLAYBACK_START\"]"));
+		assertTrue(this.dispatch("getMetrics", "[]"));
+
+		assertFalse(this.dispatch("noSuchAction", "[]"));
+		assertFalse(this.dispatch("mediaPlay", "[1]"));
+		assertFalse(this.dispatch("setReceiverVolumeLevel", "[\"loud\"]"));
+		assertFalse(this.dispatch("mediaSeek", "[42.5, \"PLAYBACK_START\"]"));
+	}
+
+	@Test
+	public void sessionActionsFailWithoutASession() throws Exception {
+		RecordingCallbackContext callbackContext = new RecordingCallbackContext();
+		assertTrue(this.plugin.execute("mediaPause", new JSONArray(), callbackContext));
+		PluginResult result = callbackContext.awaitFirst(1000);
+		assertEquals(PluginResult.Status.ERROR.ordinal(), result.getStatus());
+		assertEquals("session_error", result.getStrMessage());
+	}
+
+	@Test
+	public void scopedSignaturesTakeTheSessionIdFirst() throws Exception {
+		RecordingCallbackContext callbackContext = new RecordingCallbackContext();
+		assertTrue(this.plugin.execute("mediaSeek", new JSONArray("[\"no-such-session\", 42, \"PLAYBACK_START\"]"), callbackContext));
+		assertEquals("session_error", callbackContext.awaitFirst(1000).getStrMessage());
+	}
+}
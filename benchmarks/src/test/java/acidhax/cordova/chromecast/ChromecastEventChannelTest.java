@@ -0,0 +1,82 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.apache.cordova.PluginResult;
+import org.json.JSONArray;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ChromecastEventChannelTest {
+	private FakeWebView webView;
+	private ChromecastEventChannel channel;
+	private RecordingCallbackContext callbackContext;
+
+	@Before
+	public void setUp() {
+		this.webView = new FakeWebView(true);
+		this.channel = new ChromecastEventChannel(this.webView, new ChromecastTrace());
+		this.callbackContext = new RecordingCallbackContext();
+	}
+
+	@Test
+	public void setupGetsAnEmptyBatchOnTheNextFrame() {
+		this.channel.setCallbackContext(this.callbackContext);
+		assertEquals(0, this.callbackContext.getResults().size());
+		assertEquals(1, this.webView.runFrame());
+
+		List<PluginResult> results = this.callbackContext.getResults();
+		assertEquals(1, results.size());
+		assertEquals("[]", results.get(0).getStrMessage());
+		assertTrue(results.get(0).getKeepCallback());
+	}
+
+	@Test
+	public void eventsOfAFrameGoOutAsOneBatch() throws Exception {
+		this.channel.setCallbackContext(this.callbackContext);
+		this.webView.runFrame();
+		this.channel.emit("receiverAvailable");
+		this.channel.emit("onMessage", "session-1", "urn:x-cast:com.example", "{\"a\":1}");
+		this.channel.emit("mediaUpdated", true, ChromecastMediaSnapshot.EMPTY, false);
+
+		assertEquals(1, this.webView.runFrame());
+		List<PluginResult> results = this.callbackContext.getResults();
+		assertEquals(2, results.size());
+		JSONArray batch = new JSONArray(results.get(1).getStrMessage());
+		assertEquals(3, batch.length());
+		assertEquals("[\"receiverAvailable\"]", batch.getJSONArray(0).toString());
+		assertEquals("{\"a\":1}", batch.getJSONArray(1).getString(3));
+		assertEquals("{}", batch.getJSONArray(2).getJSONObject(2).toString());
+	}
+
+	@Test
+	public void eventsBeforeSetupAreHeld() throws Exception {
+		this.channel.emit("receiverAvailable");
+		assertEquals(0, this.webView.runFrame());
+
+		this.channel.setCallbackContext(this.callbackContext);
+		assertEquals(1, this.webView.runFrame());
+		JSONArray batch = new JSONArray(this.callbackContext.getResults().get(0).getStrMessage());
+		assertEquals(1, batch.length());
+	}
+
+	@Test
+	public void setupWhilePausedIsAnsweredOnResume() throws Exception {
+		this.channel.pause();
+		this.channel.setCallbackContext(this.callbackContext);
+		assertEquals(0, this.callbackContext.getResults().size());
+
+		this.channel.resume();
+		assertEquals(1, this.webView.runFrame());
+		List<PluginResult> results = this.callbackContext.getResults();
+		assertEquals(1, results.size());
+		assertEquals("[]", results.get(0).getStrMessage());
+
+		this.channel.pause();
+		this.channel.resume();
+		assertEquals(0, this.webView.runFrame());
+	}
+}
@@ -0,0 +1,42 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertEquals;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaMetadata;
+import com.google.android.gms.cast.RemoteMediaPlayer;
+
+public class ChromecastMediaControllerTest {
+	private final ChromecastMediaController controller = new ChromecastMediaController(new RemoteMediaPlayer());
+
+	@Test
+	public void genericMetadataKeepsTitlesAndWebImages() throws Exception {
+		JSONObject metadata = new JSONObject("{\"metadataType\": 0, \"title\": \"Big Buck Bunny\", \"subtitle\": \"Blender\","
+				+ " \"images\": [{\"url\": \"http://example.com/a.jpg\", \"width\": 480, \"height\": 270},"
+				+ " {\"url\": \"https://example.com/b.jpg\"}, {\"url\": \"data:image/png;base64,AAAA\"}]}");
+
+		MediaInfo info = this.controller.createLoadUrlRequest("http://example.com/video.mp4", "video/mp4", 596, "live", metadata);
+
+		assertEquals("http://example.com/video.mp4", info.getContentId());
+		assertEquals("video/mp4", info.getContentType());
+		assertEquals(MediaInfo.STREAM_TYPE_LIVE, info.getStreamType());
+		assertEquals(596, info.getStreamDuration());
+		assertEquals(MediaMetadata.MEDIA_TYPE_GENERIC, info.getMetadata().getMediaType());
+		assertEquals("Big Buck Bunny", info.getMetadata().getString(MediaMetadata.KEY_TITLE));
+		assertEquals("Blender", info.getMetadata().getString(MediaMetadata.KEY_SUBTITLE));
+		assertEquals(2, info.getMetadata().getImages().size());
+		assertEquals(480, info.getMetadata().getImages().get(0).getWidth());
+	}
+
+	@Test
+	public void nonGenericMetadataIsLeftEmpty() throws Exception {
+		MediaInfo info = this.controller.createLoadUrlRequest("http://example.com/video.mp4", "video/mp4", 0, "other",
+				new JSONObject("{\"metadataType\": 1, \"title\": \"ignored\"}"));
+
+		assertEquals(MediaInfo.STREAM_TYPE_NONE, info.getStreamType());
+		assertEquals(null, info.getMetadata().getString(MediaMetadata.KEY_TITLE));
+	}
+}
@@ -0,0 +1,48 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import android.os.Bundle;
+import android.support.v7.media.MediaRouteSelector;
+import android.support.v7.media.MediaRouter;
+import android.support.v7.media.MediaRouter.RouteInfo;
+
+public class ChromecastMediaRouterCallbackTest {
+	private final MediaRouter router = new MediaRouter();
+	private final ChromecastMediaRouterCallback callback = new ChromecastMediaRouterCallback();
+
+	@Test
+	public void seededRoutesAreKeptLikeAddedOnes() {
+		RouteInfo seeded = FakeCordova.route("Kitchen");
+		RouteInfo phone = new RouteInfo("DEFAULT_ROUTE", "Phone", new Bundle());
+		this.router.addRoute(seeded);
+		this.router.addRoute(phone);
+		this.callback.seed(this.router, new MediaRouteSelector.Builder().build());
+		RouteInfo added = FakeCordova.route("Living Room");
+		this.callback.onRouteAdded(this.router, added);
+
+		assertEquals(2, this.callback.getCastRouteCount());
+		assertEquals(3, this.callback.getRoutes().size());
+		assertTrue(this.callback.isCastReceiver(seeded));
+		assertTrue(this.callback.isCastReceiver(added));
+		assertFalse(this.callback.isCastReceiver(phone));
+	}
+
+	@Test
+	public void aChangedRouteIsClassifiedAgain() {
+		RouteInfo route = FakeCordova.route("Kitchen");
+		this.callback.onRouteAdded(this.router, route);
+		RouteInfo renamed = new RouteInfo(route.getId(), "Phone", route.getExtras());
+		this.callback.onRouteChanged(this.router, renamed);
+
+		assertEquals(0, this.callback.getCastRouteCount());
+		assertFalse(this.callback.isCastReceiver(renamed));
+
+		this.callback.onRouteRemoved(this.router, renamed);
+		assertEquals(0, this.callback.getRoutes().size());
+	}
+}
@@ -0,0 +1,118 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.Activity;
+
+import com.google.android.gms.common.api.FakeGoogleApiClient;
+import com.google.android.gms.common.api.FakeGoogleApiClient.ConnectOutcome;
+
+public class ChromecastReconnectTest {
+	private ChromecastConnectionPool pool;
+	private ChromecastSession session;
+	private FakeGoogleApiClient receiver;
+	/** Whether each session update said the session is alive */
+	private final List<Boolean> updates = new ArrayList<Boolean>();
+
+	@Before
+	public void setUp() throws Exception {
+		this.pool = new ChromecastConnectionPool(new Activity(), new ChromecastMetrics(), new ChromecastTrace());
+		this.session = new ChromecastSession(FakeCordova.route("Reconnect"), new FakeCordova(), this.pool, null,
+				new ChromecastOnSessionUpdatedListener() {
+					@Override
+					public void onSessionUpdated(ChromecastSession session, boolean isAlive, ChromecastJsonValue properties, boolean isDelta) {
+						synchronized (ChromecastReconnectTest.this.updates) {
+							ChromecastReconnectTest.this.updates.add(isAlive);
+							ChromecastReconnectTest.this.updates.notifyAll();
+						}
+					}
+
+					@Override
+					public void onMessage(ChromecastSession session, String namespace, String message) {
+					}
+				});
+		ChromecastReconnectPolicy policy = new ChromecastReconnectPolicy();
+		policy.configure(new JSONObject("{\"initialDelayMs\": 100, \"maxAttempts\": 1}"));
+		this.session.setReconnectPolicy(policy);
+		this.receiver = (FakeGoogleApiClient) this.pool.lease(null, "device-Reconnect", "Reconnect").getClient();
+
+		final CountDownLatch launched = new CountDownLatch(1);
+		this.session.launch("CC1AD845", new ChromecastSessionCallback() {
+			@Override
+			void onSuccess(Object object) {
+				launched.countDown();
+			}
+
+			@Override
+			void onError(String reason) {
+			}
+		});
+		assertTrue(launched.await(5, TimeUnit.SECONDS));
+	}
+
+	@After
+	public void tearDown() {
+		this.session.release();
+		this.pool.clear();
+	}
+
+	/**
+	 * @return the updates since the launch, once there are count of them or the wait timed out
+	 */
+	private List<Boolean> awaitUpdates(int count, long timeoutMs) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeoutMs;
+		synchronized (this.updates) {
+			while (this.updates.size() < count && System.currentTimeMillis() < deadline) {
+				this.updates.wait(Math.max(1, deadline - System.currentTimeMillis()));
+			}
+			return new ArrayList<Boolean>(this.updates);
+		}
+	}
+
+	private void loseTheReceiverAndAwaitTheLastAttempt() throws InterruptedException {
+		synchronized (this.updates) {
+			this.updates.clear();
+		}
+		this.receiver.setConnectOutcome(ConnectOutcome.HANG);
+		this.receiver.suspend();
+		long deadline = System.currentTimeMillis() + 2000;
+		while (this.receiver.getConnectCount() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(5);
+		}
+		assertEquals(2, this.receiver.getConnectCount());
+	}
+
+	@Test
+	public void theLastAttemptGetsTimeToConnect() throws Exception {
+		this.loseTheReceiverAndAwaitTheLastAttempt();
+		this.receiver.finishHangingConnect();
+
+		List<Boolean> updates = this.awaitUpdates(1, 2000);
+		assertEquals(1, updates.size());
+		assertTrue(updates.get(0));
+		assertTrue(this.session.isConnected());
+	}
+
+	@Test
+	public void aConnectionAfterGivingUpIsIgnored() throws Exception {
+		this.loseTheReceiverAndAwaitTheLastAttempt();
+		List<Boolean> updates = this.awaitUpdates(1, 2000);
+		assertEquals(1, updates.size());
+		assertTrue(!updates.get(0));
+
+		this.receiver.finishHangingConnect();
+		assertEquals(1, this.awaitUpdates(2, 300).size());
+		assertTrue(!this.session.isConnected());
+	}
+}
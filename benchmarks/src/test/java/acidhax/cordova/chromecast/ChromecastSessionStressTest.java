@@ -0,0 +1,144 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import android.app.Activity;
+import android.support.v7.media.MediaRouter.RouteInfo;
+
+import com.google.android.gms.common.api.FakeGoogleApiClient;
+
+/**
+ * Thousands of commands from several threads at once on one session: each is answered exactly once
+ * and a thread's messages reach the receiver in the order the thread sent them.
+ */
+public class ChromecastSessionStressTest {
+	private static final int THREADS = 8;
+	private static final int COMMANDS = 500;
+
+	private ChromecastConnectionPool pool;
+	private ChromecastSession session;
+	private FakeGoogleApiClient receiver;
+	private final List<String> problems = Collections.synchronizedList(new ArrayList<String>());
+
+	/**
+	 * Counts its answers, a second answer or an error is a problem
+	 */
+	private class CountingCallback extends ChromecastSessionCallback {
+		private final String name;
+		private final CountDownLatch done;
+		private final AtomicInteger answers = new AtomicInteger();
+
+		CountingCallback(String name, CountDownLatch done) {
+			this.name = name;
+			this.done = done;
+		}
+
+		@Override
+		void onSuccess(Object object) {
+			this.answered();
+		}
+
+		@Override
+		void onError(String reason) {
+			ChromecastSessionStressTest.this.problems.add(this.name + " failed: " + reason);
+			this.answered();
+		}
+
+		private void answered() {
+			if (this.answers.incrementAndGet() > 1) {
+				ChromecastSessionStressTest.this.problems.add(this.name + " answered twice");
+			}
+			this.done.countDown();
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		this.pool = new ChromecastConnectionPool(new Activity(), new ChromecastMetrics(), new ChromecastTrace());
+		RouteInfo route = FakeCordova.route("Stress");
+		this.session = new ChromecastSession(route, new FakeCordova(), this.pool, null, null);
+		// A second lease of the same connection, only to reach its client
+		this.receiver = (FakeGoogleApiClient) this.pool.lease(null, "device-Stress", "Stress").getClient();
+
+		CountDownLatch launched = new CountDownLatch(1);
+		this.session.launch("CC1AD845", new CountingCallback("launch", launched));
+		assertTrue(launched.await(5, TimeUnit.SECONDS));
+		assertEquals(Collections.emptyList(), this.problems);
+	}
+
+	@After
+	public void tearDown() {
+		this.session.release();
+		this.pool.clear();
+	}
+
+	@Test
+	public void interleavedCommandsKeepTheirOrder() throws Exception {
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(THREADS * COMMANDS);
+		ArrayList<Thread> threads = new ArrayList<Thread>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			threads.add(new Thread("stress-" + t) {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						for (int i = 0; i < COMMANDS; i++) {
+							String name = thread + ":" + i;
+							ChromecastSessionCallback callback = new CountingCallback(name, done);
+							switch (i % 4) {
+								case 0:
+									ChromecastSessionStressTest.this.session.setVolume((i % 10) / 10.0, callback);
+									break;
+								case 1:
+									ChromecastSessionStressTest.this.session.setMute(i % 3 == 0, callback);
+									break;
+								default:
+									ChromecastSessionStressTest.this.session.sendMessage("urn:x-cast:stress", name, callback);
+							}
+						}
+					} catch (Throwable e) {
+						ChromecastSessionStressTest.this.problems.add(this.getName() + " threw " + e);
+					}
+				}
+			});
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		start.countDown();
+		for (Thread thread : threads) {
+			thread.join(10000);
+		}
+
+		assertTrue(done.getCount() + " commands never answered", done.await(20, TimeUnit.SECONDS));
+		assertEquals(Collections.emptyList(), this.problems);
+
+		int[] next = new int[THREADS];
+		int sent = 0;
+		synchronized (this.receiver) {
+			for (String message : this.receiver.sentMessages) {
+				String[] parts = message.split(":");
+				int thread = Integer.parseInt(parts[0]);
+				int i = Integer.parseInt(parts[1]);
+				assertTrue(message + " out of order", i >= next[thread]);
+				next[thread] = i + 1;
+				sent++;
+			}
+		}
+		assertEquals(THREADS * COMMANDS / 2, sent);
+	}
+}
@@ -0,0 +1,111 @@
+package acidhax.cordova.chromecast;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeMap;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.junit.Test;
+
+import android.net.Uri;
+
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaStatus;
+import com.google.android.gms.common.images.WebImage;
+
+public class ChromecastSnapshotTest {
+	private final CastDevice device = new CastDevice("device-1", "Living Room", "Chromecast");
+
+	private static MediaStatus status(long position, int playerState, int idleReason) throws Exception {
+		MediaInfo info = new MediaInfo.Builder("http://example.com/video.mp4")
+				.setContentType("video/mp4")
+				.setStreamType(MediaInfo.STREAM_TYPE_LIVE)
+				.setStreamDuration(596000)
+				.build();
+		return new MediaStatus(info, 1)
+				.setStreamPosition(position)
+				.setPlaybackRate(1)
+				.setCustomData(new JSONObject("{\"chapter\": 3, \"title\": \"\\u00e9\\\"\\n\"}"))
+				.setPlayerState(playerState, idleReason)
+				.setStreamVolume(0.25, true);
+	}
+
+	private static String stream(ChromecastJsonValue value) {
+		ChromecastJsonWriter writer = new ChromecastJsonWriter(64);
+		value.writeTo(writer);
+		return writer.toString();
+	}
+
+	/**
+	 * The JSON with object keys sorted, this org.json does not keep the order they were put in
+	 * @param json
+	 */
+	private static String canonical(String json) throws Exception {
+		return canonicalValue(new JSONTokener(json).nextValue());
+	}
+
+	private static String canonicalValue(Object value) throws Exception {
+		if (value instanceof JSONObject) {
+			JSONObject object = (JSONObject) value;
+			TreeMap<String, String> fields = new TreeMap<String, String>();
+			Iterator<?> keys = object.keys();
+			while (keys.hasNext()) {
+				String key = (String) keys.next();
+				fields.put(key, canonicalValue(object.get(key)));
+			}
+			return fields.toString();
+		}
+		if (value instanceof JSONArray) {
+			JSONArray array = (JSONArray) value;
+			StringBuilder out = new StringBuilder("[");
+			for (int i = 0; i < array.length(); i++) {
+				out.append(canonicalValue(array.get(i))).append(',');
+			}
+			return out.append(']').toString();
+		}
+		return value instanceof String ? JSONObject.quote((String) value) : String.valueOf(value);
+	}
+
+	@Test
+	public void mediaIsWrittenLikeTheOrgJsonTree() throws Exception {
+		MediaStatus status = status(42500, MediaStatus.PLAYER_STATE_IDLE, MediaStatus.IDLE_REASON_INTERRUPTED);
+
+		assertEquals(canonical(LegacySnapshots.createMediaObject(status, "session-1").toString()),
+				canonical(stream(ChromecastMediaSnapshot.capture(status, "session-1"))));
+		assertEquals(canonical(LegacySnapshots.createMediaObject(null, "session-1").toString()),
+				canonical(stream(ChromecastMediaSnapshot.capture(null, "session-1"))));
+	}
+
+	@Test
+	public void sessionIsWrittenLikeTheOrgJsonTree() throws Exception {
+		MediaStatus status = status(0, MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE);
+		List<WebImage> images = new ArrayList<WebImage>();
+		images.add(new WebImage(Uri.parse("http://example.com/icon.png")));
+		ChromecastSessionSnapshot session = new ChromecastSessionSnapshot(1, "CC1AD845", ChromecastMediaSnapshot.capture(status, "session-1"),
+				images, "session-1", "Default Media Receiver", this.device, 0.5, false);
+
+		String legacy = canonical(LegacySnapshots.createSessionObject("CC1AD845", status, images, "session-1", "Default Media Receiver",
+				this.device, 0.5, false).toString());
+		assertEquals(legacy, canonical(stream(session)));
+		assertEquals(legacy, canonical(session.toJSONObject().toString()));
+	}
+
+	@Test
+	public void patchesHoldTheChangedFieldsAndTheIds() throws Exception {
+		ChromecastSnapshotDelta<ChromecastMediaSnapshot> delta = new ChromecastSnapshotDelta<ChromecastMediaSnapshot>();
+		ChromecastMediaSnapshot first = ChromecastMediaSnapshot.capture(status(1000, MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE), "session-1");
+		ChromecastMediaSnapshot second = ChromecastMediaSnapshot.capture(status(2000, MediaStatus.PLAYER_STATE_PLAYING, MediaStatus.IDLE_REASON_NONE), "session-1");
+
+		assertSame(first, delta.next(first));
+		assertNull(delta.next(first));
+		assertEquals("{\"mediaSessionId\":1,\"sessionId\":\"session-1\",\"currentTime\":2}", stream(delta.next(second)));
+	}
+}
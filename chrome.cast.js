@@ -121,13 +121,15 @@
         * @param {function} 						receiverListener    Function invoked when the availability of a Cast receiver that supports the application in sessionRequest is known or changes.
         * @param {chrome.cast.AutoJoinPolicy} 		autoJoinPolicy      Determines whether the SDK will automatically connect to a running session after initialization.
         * @param {chrome.cast.DefaultActionPolicy} defaultActionPolicy Requests whether the application should be launched on API initialization when the tab is already being cast.
+        * @param {Object} 							opt_options         Plugin specific, not part of the Chrome API. maxMediaUpdatesPerSecond: limit for media updates per session, 0 for none. timeouts: milliseconds before a command fails with TIMEOUT, keyed by action name or "default", 0 to wait forever. discovery: {burstMs, idle, whileConnected, inBackground}, modes being "active", "passive" or "off". receiverCacheTtlMs: how long receivers seen in earlier runs are remembered. preconnect: {enabled, idleMs}, connects ahead to the receiver used last or the only one around. multiSession: true to run sessions on several receivers at once, requestSession then always shows the picker. reconnect: {enabled, initialDelayMs, maxDelayMs, maxAttempts}, how a session rejoins its receiver after losing the connection, on by default. connectionPool: {idleMs}, how long a receiver's connection stays open after its last session ended, for the next one to reuse. trace: {enabled}, records native events for dumpTrace, on by default. log: {level, file, javascript}, native logging to logcat at "debug", "info" (default), "warn", "error" or "off", optionally also to chromecast.log in the app's files directory and to this console. background: {maxMessages, overflow}, while the app is paused session and media updates are replaced by their latest state on resume, and at most maxMessages (100) receiver messages are held, overflow being "dropOldest" (default) or "dropNewest". locks: {enabled, idleGraceMs}, the wake and high performance wifi locks are held while media plays and released idleGraceMs (30000) after it stopped.
         */
-        ApiConfig: function (sessionRequest, sessionListener, receiverListener, autoJoinPolicy, defaultActionPolicy) {
+        ApiConfig: function (sessionRequest, sessionListener, receiverListener, autoJoinPolicy, defaultActionPolicy, opt_options) {
             this.sessionRequest = sessionRequest;
             this.sessionListener = sessionListener;
             this.receiverListener = receiverListener;
             this.autoJoinPolicy = autoJoinPolicy || chrome.cast.AutoJoinPolicy.TAB_AND_ORIGIN_SCOPED;
             this.defaultActionPolicy = defaultActionPolicy || chrome.cast.DefaultActionPolicy.CREATE_SESSION;
+            this.options = opt_options || {};
         },
 
         /**
@@ -457,12 +459,10 @@
     var _sessionListener = null;
 
     var _sessions = {};
-    var _currentMedia = null;
     var _routeListEl = document.createElement('ul');
     _routeListEl.classList.add('route-list');
     var _routeList = {};
     var _routeListHandlers = {};
-    var _routeRefreshInterval = null;
 
     var _receiverAvailable = false;
 
@@ -485,15 +485,122 @@
         _receiverListener = apiConfig.receiverListener;
         _sessionRequest = apiConfig.sessionRequest;
 
-        execute('initialize', _sessionRequest.appId, _autoJoinPolicy, _defaultActionPolicy, function (err) {
+        execute('initialize', _sessionRequest.appId, _autoJoinPolicy, _defaultActionPolicy, apiConfig.options || {}, function (err) {
             if (!err) {
                 successCallback();
+            } else {
+                handleError(err, errorCallback);
+            }
+        });
+    };
+
+    /**
+    * Plugin specific, not part of the Chrome API. Reports how receiver discovery was run: the current mode
+    * and the milliseconds spent in each mode ({mode, timeInMode: {active, passive, off}, switches}).
+    * @param  {function} successCallback
+    * @param  {function} errorCallback
+    */
+    chrome.cast.getDiscoveryStats = function (successCallback, errorCallback) {
+        execute('getDiscoveryStats', function (err, stats) {
+            if (!err) {
+                successCallback && successCallback(stats);
+            } else {
+                handleError(err, errorCallback);
+            }
+        });
+    };
+
+    /**
+    * Plugin specific, not part of the Chrome API. Reports how often the preconnect option saved a connection
+    * and how long sessions took to create with and without one ({enabled, routeId, hits, misses, expired, timeToSession: {preconnected, cold}}).
+    * @param  {function} successCallback
+    * @param  {function} errorCallback
+    */
+    chrome.cast.getPreconnectStats = function (successCallback, errorCallback) {
+        execute('getPreconnectStats', function (err, stats) {
+            if (!err) {
+                successCallback && successCallback(stats);
+            } else {
+                handleError(err, errorCallback);
+            }
+        });
+    };
+
+    /**
+    * Plugin specific, not part of the Chrome API. Reports the pooled receiver connections
+    * ({open, leased, created, reused, evicted, replaced}).
+    * @param  {function} successCallback
+    * @param  {function} errorCallback
+    */
+    chrome.cast.getConnectionStats = function (successCallback, errorCallback) {
+        execute('getConnectionStats', function (err, stats) {
+            if (!err) {
+                successCallback && successCallback(stats);
+            } else {
+                handleError(err, errorCallback);
+            }
+        });
+    };
+
+    /**
+    * Plugin specific, not part of the Chrome API. Reports latency percentiles, in milliseconds, and error counts
+    * since the last reset: {since, latency: {operation: {count, min, mean, p50, p90, p99, p999, max}}, errors: {operation: {reason: count}}}.
+    * Operations are "connect", "dispatch" and the session commands by action name, e.g. "launch", "join", "loadMedia" or "mediaPlay".
+    * @param  {function} successCallback
+    * @param  {function} errorCallback
+    */
+    chrome.cast.getMetrics = function (successCallback, errorCallback) {
+        execute('getMetrics', function (err, metrics) {
+            if (!err) {
+                successCallback && successCallback(metrics);
+            } else {
+                handleError(err, errorCallback);
+            }
+        });
+    };
+
+    /**
+    * Plugin specific, not part of the Chrome API. Starts the metrics reported by getMetrics over.
+    * @param  {function} successCallback
+    * @param  {function} errorCallback
+    */
+    chrome.cast.resetMetrics = function (successCallback, errorCallback) {
+        execute('resetMetrics', function (err) {
+            if (!err) {
+                successCallback && successCallback();
+            } else {
+                handleError(err, errorCallback);
+            }
+        });
+    };
 
-                clearInterval(_routeRefreshInterval);
-                _routeRefreshInterval = setInterval(function () {
-                    execute('emitAllRoutes');
-                }, 15000);
+    /**
+    * Plugin specific, not part of the Chrome API. Reports how long the wake and wifi locks were held
+    * against how long sessions were around ({enabled, held, playing, sessions, acquisitions, heldMs, sessionMs}).
+    * @param  {function} successCallback
+    * @param  {function} errorCallback
+    */
+    chrome.cast.getLockStats = function (successCallback, errorCallback) {
+        execute('getLockStats', function (err, stats) {
+            if (!err) {
+                successCallback && successCallback(stats);
+            } else {
+                handleError(err, errorCallback);
+            }
+        });
+    };
 
+    /**
+    * Plugin specific, not part of the Chrome API. Writes the last native events (receivers found and lost, connections,
+    * commands, receiver updates, bridge calls and event flushes) to a file in the app's files directory,
+    * in Chrome Trace Event JSON that Perfetto opens.
+    * @param  {function} successCallback  Called with the path of the file
+    * @param  {function} errorCallback
+    */
+    chrome.cast.dumpTrace = function (successCallback, errorCallback) {
+        execute('dumpTrace', function (err, path) {
+            if (!err) {
+                successCallback && successCallback(path);
             } else {
                 handleError(err, errorCallback);
             }
@@ -520,21 +627,7 @@
 
         execute('requestSession', function (err, obj) {
             if (!err) {
-                var sessionId = obj.sessionId;
-                var appId = obj.appId;
-                var displayName = obj.displayName;
-                var appImages = obj.appImages || [];
-                var receiver = new chrome.cast.Receiver(obj.receiver.label, obj.receiver.friendlyName, obj.receiver.capabilities || [], obj.volume || null);
-
-                var session = _sessions[sessionId] = new chrome.cast.Session(sessionId, appId, displayName, appImages, receiver);
-
-                if (obj.media && obj.media.sessionId) {
-                    _currentMedia = new chrome.cast.media.Media(sessionId, obj.media.mediaSessionId);
-                    _currentMedia.currentTime = obj.media.currentTime;
-                    _currentMedia.playerState = obj.media.playerState;
-                    _currentMedia.media = obj.media.media;
-                    session.media[0] = _currentMedia;
-                }
+                var session = sessionFromObject(obj);
 
                 successCallback(session);
                 _sessionListener(session); /*Fix - Already has a sessionListener*/
@@ -599,7 +692,7 @@
             return;
         }
 
-        execute('setReceiverVolumeLevel', newLevel, function (err) {
+        execute('setReceiverVolumeLevel', this.sessionId, newLevel, function (err) {
             if (!err) {
                 successCallback && successCallback();
             } else {
@@ -621,7 +714,7 @@
             return;
         }
 
-        execute('setReceiverMuted', muted, function (err) {
+        execute('setReceiverMuted', this.sessionId, muted, function (err) {
             if (!err) {
                 successCallback && successCallback();
             } else {
@@ -630,6 +723,56 @@
         });
     };
 
+    /**
+    * Runs several media and receiver commands with a single call to the native side.
+    * Every command is an array of the command name followed by its arguments, e.g.
+    * [['mediaSeek', 30, 'PLAYBACK_START'], ['setMediaVolume', 0.5], ['mediaPlay']].
+    * Supported commands: mediaPlay, mediaPause, mediaSeek, mediaStop, setMediaVolume, setMediaMuted,
+    * setReceiverVolumeLevel and setReceiverMuted.
+    * @param {Array[]} commands
+    * @param {boolean} continueOnError 	False (the default) to skip the remaining commands after the first failure,
+    *                                  	true to send all of them back to back regardless.
+    * @param {function} successCallback 	Gets one {command, status, error} object per command, status being 'ok', 'error' or 'skipped'.
+    * @param {function} errorCallback   	The possible errors are API_NOT_INITIALIZED and SESSION_ERROR.
+    */
+    chrome.cast.Session.prototype.executeBatch = function (commands, continueOnError, successCallback, errorCallback) {
+        if (chrome.cast.isAvailable === false) {
+            errorCallback(new chrome.cast.Error(chrome.cast.ErrorCode.API_NOT_INITIALIZED), 'The API is not initialized.', {});
+            return;
+        }
+
+        execute('executeBatch', this.sessionId, commands, !!continueOnError, function (err, results) {
+            if (!err) {
+                successCallback && successCallback(results);
+            } else {
+                handleError(err, errorCallback);
+            }
+        });
+    };
+
+    /**
+    * Abandons requests that are still waiting for the receiver, e.g. a seek superseded by a newer one.
+    * Their error callbacks are invoked with CANCEL.
+    * @param {string} opt_action 		Only cancel requests for this native action (e.g. 'mediaSeek'), all when omitted.
+    * @param {function} successCallback 	Gets the number of cancelled requests.
+    * @param {function} errorCallback   	The possible errors are API_NOT_INITIALIZED.
+    */
+    chrome.cast.Session.prototype.cancelPending = function (opt_action, successCallback, errorCallback) {
+        if (chrome.cast.isAvailable === false) {
+            errorCallback(new chrome.cast.Error(chrome.cast.ErrorCode.API_NOT_INITIALIZED), 'The API is not initialized.', {});
+            return;
+        }
+
+        var callback = function (err, cancelled) {
+            if (!err) {
+                successCallback && successCallback(cancelled);
+            } else {
+                handleError(err, errorCallback);
+            }
+        };
+        execute('cancelPending', this.sessionId, opt_action || '', callback);
+    };
+
     /**
     * Stops the running receiver application associated with the session.
     * @param {function} successCallback 
@@ -641,7 +784,7 @@
             return;
         }
 
-        execute('sessionStop', function (err) {
+        execute('sessionStop', this.sessionId, function (err) {
             if (!err) {
                 successCallback && successCallback();
             } else {
@@ -661,7 +804,7 @@
             return;
         }
 
-        execute('sessionLeave', function (err) {
+        execute('sessionLeave', this.sessionId, function (err) {
             if (!err) {
                 successCallback && successCallback();
             } else {
@@ -688,7 +831,7 @@
         if (typeof message === 'object') {
             message = JSON.stringify(message);
         }
-        execute('sendMessage', namespace, message, function (err) {
+        execute('sendMessage', this.sessionId, namespace, message, function (err) {
             if (!err) {
                 successCallback && successCallback();
             } else {
@@ -712,16 +855,16 @@
         var self = this;
 
         var mediaInfo = loadRequest.media;
-        execute('loadMedia', mediaInfo.contentId, mediaInfo.contentType, mediaInfo.duration || 0.0, mediaInfo.streamType, loadRequest.autoplay || false, loadRequest.currentTime || 0, mediaInfo.metadata, function (err, obj) {
+        execute('loadMedia', self.sessionId, mediaInfo.contentId, mediaInfo.contentType, mediaInfo.duration || 0.0, mediaInfo.streamType, loadRequest.autoplay || false, loadRequest.currentTime || 0, mediaInfo.metadata, function (err, obj) {
             if (!err) {
-                _currentMedia = new chrome.cast.media.Media(self.sessionId, obj.mediaSessionId);
-                _currentMedia.media = mediaInfo;
-                _currentMedia.media.duration = obj.media.duration;
-                _currentMedia.currentTime = obj.currentTime /* ??? */
+                var media = self.media[0] = new chrome.cast.media.Media(self.sessionId, obj.mediaSessionId);
+                media.media = mediaInfo;
+                media.media.duration = obj.media.duration;
+                media.currentTime = obj.currentTime /* ??? */
 
                 // TODO: Fill in the rest of the media properties
 
-                successCallback(_currentMedia);
+                successCallback(media);
 
             } else {
                 handleError(err, errorCallback);
@@ -755,7 +898,7 @@
     * @param {function} listener  The listener to add.
     */
     chrome.cast.Session.prototype.addMessageListener = function (namespace, listener) {
-        execute('addMessageListener', namespace);
+        execute('addMessageListener', this.sessionId, namespace);
         this.on('message:' + namespace, listener);
     };
 
@@ -785,11 +928,23 @@
     };
 
 
-    chrome.cast.Session.prototype._update = function (isAlive, obj) {
+    /**
+    * Applies a session object from the native side.
+    * @param {boolean} isAlive
+    * @param {Object}  obj
+    * @param {boolean} isDelta Whether obj only holds the fields that changed since the last update
+    */
+    chrome.cast.Session.prototype._update = function (isAlive, obj, isDelta) {
 
-        this.appId = obj.appId;
-        this.appImages = obj.appImages;
-        this.displayName = obj.displayName;
+        if (!isDelta || 'appId' in obj) {
+            this.appId = obj.appId;
+        }
+        if (!isDelta || 'appImages' in obj) {
+            this.appImages = obj.appImages;
+        }
+        if (!isDelta || 'displayName' in obj) {
+            this.displayName = obj.displayName;
+        }
         if (obj.receiver) {
             if (!this.receiver) {
                 this.receiver = new chrome.cast.Receiver(null, null, null, null);
@@ -855,7 +1010,7 @@
             return;
         }
 
-        execute('mediaPlay', function (err) {
+        execute('mediaPlay', this.sessionId, function (err) {
             if (!err) {
                 successCallback && successCallback();
             } else {
@@ -876,7 +1031,7 @@
             return;
         }
 
-        execute('mediaPause', function (err) {
+        execute('mediaPause', this.sessionId, function (err) {
             if (!err) {
                 successCallback && successCallback();
             } else {
@@ -897,7 +1052,7 @@
             return;
         }
 
-        execute('mediaSeek', seekRequest.currentTime, seekRequest.resumeState || "", function (err) {
+        execute('mediaSeek', this.sessionId, seekRequest.currentTime, seekRequest.resumeState || "", function (err) {
             if (!err) {
                 successCallback && successCallback();
             } else {
@@ -918,7 +1073,7 @@
             return;
         }
 
-        execute('mediaStop', function (err) {
+        execute('mediaStop', this.sessionId, function (err) {
             if (!err) {
                 successCallback && successCallback();
             } else {
@@ -942,13 +1097,15 @@
 
         if (volumeRequest.volume.level !== null) {
             args.push('setMediaVolume');
+            args.push(this.sessionId);
             args.push(volumeRequest.volume.level);
         } else if (volumeRequest.volume.muted !== null) {
             args.push('setMediaMuted');
+            args.push(this.sessionId);
             args.push(volumeRequest.volume.muted);
         }
 
-        if (args.length < 2) {
+        if (args.length < 3) {
             errorCallback(new chrome.cast.Error(chrome.cast.ErrorCode.INVALID_PARAMETER), 'Invalid request.', {});
         } else {
             args.push(function (err) {
@@ -1004,21 +1161,50 @@
         this.removeListener('_mediaUpdated', listener);
     };
 
+    /**
+    * Applies a media object from the native side. Fields missing from obj are left as they are,
+    * which is also how the patches sent for delta updates are applied.
+    * @param {boolean} isAlive
+    * @param {Object}  obj
+    */
     chrome.cast.media.Media.prototype._update = function (isAlive, obj) {
-        this.currentTime = obj.currentTime || this.currentTime;
-        this.idleReason = obj.idleReason || this.idleReason;
-        this.sessionId = obj.sessionId || this.sessionId;
-        this.mediaSessionId = obj.mediaSessionId || this.mediaSessionId;
-        this.playbackRate = obj.playbackRate || this.playbackRate;
-        this.playerState = obj.playerState || this.playerState;
-
-        if (obj.media && obj.media.duration) {
-            this.media.duration = obj.media.duration || this.media.duration;
-            this.media.streamType = obj.media.streamType || this.media.streamType;
+        // Patches leave out what did not change, a field that is present is taken even when 0 or null
+        if ('currentTime' in obj) {
+            this.currentTime = obj.currentTime;
+        }
+        if ('idleReason' in obj) {
+            this.idleReason = obj.idleReason;
+        }
+        if ('sessionId' in obj) {
+            this.sessionId = obj.sessionId;
+        }
+        if ('mediaSessionId' in obj) {
+            this.mediaSessionId = obj.mediaSessionId;
+        }
+        if ('playbackRate' in obj) {
+            this.playbackRate = obj.playbackRate;
+        }
+        if ('playerState' in obj) {
+            this.playerState = obj.playerState;
+        }
+
+        if (obj.media) {
+            if ('duration' in obj.media) {
+                this.media.duration = obj.media.duration;
+            }
+            if ('streamType' in obj.media) {
+                this.media.streamType = obj.media.streamType;
+            }
         }
 
-        this.volume.level = obj.volume.level;
-        this.volume.muted = obj.volume.muted;
+        if (obj.volume) {
+            if ('level' in obj.volume) {
+                this.volume.level = obj.volume.level;
+            }
+            if ('muted' in obj.volume) {
+                this.volume.muted = obj.volume.muted;
+            }
+        }
 
         this._lastUpdatedTime = Date.now();
 
@@ -1029,6 +1215,10 @@
     function createRouteElement(route) {
         var el = document.createElement('li');
         el.classList.add('cast-modal__routes-container__route');
+        if (route.cached) {
+            // Seen in an earlier run, not found by discovery yet
+            el.classList.add('cast-modal__routes-container__route--cached');
+        }
         el.textContent = route.name;
         el.setAttribute('data-routeid', route.id);
         return el;
@@ -1049,13 +1239,7 @@
                     errorCallback(err);
                 }
 
-                var sessionId = obj.sessionId;
-                var appId = obj.appId;
-                var displayName = obj.displayName;
-                var appImages = obj.appImages || [];
-                var receiver = new chrome.cast.Receiver(obj.receiver.label, obj.receiver.friendlyName, obj.receiver.capabilities || [], obj.volume || null);
-
-                var session = _sessions[sessionId] = new chrome.cast.Session(sessionId, appId, displayName, appImages, receiver);
+                var session = sessionFromObject(obj);
 
                 _sessionListener && _sessionListener(session);
 
@@ -1121,6 +1305,23 @@
         }
     };
 
+    var _discoverySettledListeners = [];
+    /**
+    * Plugin specific, not part of the Chrome API. The listener is called once receiver discovery has settled after
+    * initialize, i.e. no new receiver appeared for a while, with {receivers, settled, timeToSettle, timeToFirstReceiver}
+    * (times in milliseconds, timeToFirstReceiver is -1 when no receiver was found).
+    * @param {function} cb
+    */
+    chrome.cast.addDiscoverySettledListener = function (cb) {
+        _discoverySettledListeners.push(cb);
+    };
+
+    chrome.cast.removeDiscoverySettledListener = function (cb) {
+        if (_discoverySettledListeners.indexOf(cb) > -1) {
+            _discoverySettledListeners.splice(_discoverySettledListeners.indexOf(cb), 1);
+        }
+    };
+
     chrome.cast._emitConnecting = function () {
         for (var n = 0; n < _connectingListeners.length; n++) {
             _connectingListeners[n]();
@@ -1128,6 +1329,34 @@
     };
 
     chrome.cast._ = {
+        /**
+        * Entry point for native events. Every event is an array of the handler name followed by its arguments;
+        * the native side collects them and delivers them once per frame over the callback registered by setup.
+        * @param {Array[]|string} events the events, or their JSON encoding
+        */
+        batch: function (events) {
+            if (typeof events === 'string') {
+                events = JSON.parse(events);
+            }
+            for (var i = 0; i < events.length; i++) {
+                var handler = chrome.cast._[events[i][0]];
+                if (!handler) {
+                    continue;
+                }
+                try {
+                    handler.apply(null, events[i].slice(1));
+                } catch (e) {
+                    console.error('Error handling native event ' + events[i][0], e);
+                }
+            }
+        },
+        log: function (lines) {
+            // A batch of [level, message] pairs, sent when the log option forwards native lines
+            for (var i = 0; i < lines.length; i++) {
+                var write = console[lines[i][0]] || console.log;
+                write.call(console, '[Chromecast] ' + lines[i][1]);
+            }
+        },
         receiverUnavailable: function () {
             _receiverListener(chrome.cast.ReceiverAvailability.UNAVAILABLE);
             _receiverAvailable = false;
@@ -1150,55 +1379,80 @@
                 delete _routeList[route.id];
             }
         },
-        sessionUpdated: function (isAlive, session) {
+        discoverySettled: function (stats) {
+            for (var n = 0; n < _discoverySettledListeners.length; n++) {
+                _discoverySettledListeners[n](stats);
+            }
+        },
+        routeChanged: function (route) {
+            var known = _routeList[route.id];
+            if (known) {
+                known.name = route.name;
+                known.cached = route.cached;
+                known.el.textContent = route.name;
+                known.el.classList[route.cached ? 'add' : 'remove']('cast-modal__routes-container__route--cached');
+            } else {
+                chrome.cast._.routeAdded(route);
+            }
+        },
+        /**
+        * Replaces the whole route list, sent after setup and whenever a resync is requested with emitAllRoutes
+        * @param {Object[]} routes
+        */
+        routesReset: function (routes) {
+            var ids = {};
+            for (var i = 0; i < routes.length; i++) {
+                ids[routes[i].id] = true;
+                chrome.cast._.routeChanged(routes[i]);
+            }
+            for (var id in _routeList) {
+                if (!ids[id]) {
+                    chrome.cast._.routeRemoved(_routeList[id]);
+                }
+            }
+        },
+        sessionUpdated: function (isAlive, session, isDelta) {
             if (session && session.sessionId && _sessions[session.sessionId]) {
-                _sessions[session.sessionId]._update(isAlive, session);
+                _sessions[session.sessionId]._update(isAlive, session, isDelta);
+                if (!isAlive) {
+                    delete _sessions[session.sessionId];
+                }
             }
         },
-        mediaUpdated: function (isAlive, media) {
-
-            if (media && media.mediaSessionId !== undefined) {
-                if (_currentMedia) {
-                    _currentMedia._update(isAlive, media);
+        mediaUpdated: function (isAlive, media, isDelta) {
+            var session = media && _sessions[media.sessionId];
+
+            if (session && media.mediaSessionId !== undefined) {
+                if (session.media[0]) {
+                    session.media[0]._update(isAlive, media);
+                } else if (isDelta) {
+                    // A patch for media we never saw in full, ask for the whole thing
+                    execute('requestFullUpdate', media.sessionId);
                 } else {
-                    _currentMedia = new chrome.cast.media.Media(media.sessionId, media.mediaSessionId);
-                    _currentMedia.currentTime = media.currentTime;
-                    _currentMedia.playerState = media.playerState;
-                    _currentMedia.media = media.media;
+                    var current = session.media[0] = new chrome.cast.media.Media(media.sessionId, media.mediaSessionId);
+                    current.currentTime = media.currentTime;
+                    current.playerState = media.playerState;
+                    current.media = media.media;
 
-                    _sessions[media.sessionId].media[0] = _currentMedia;
-                    _sessionListener && _sessionListener(_sessions[media.sessionId]);
+                    _sessionListener && _sessionListener(session);
                 }
             }
         },
         mediaLoaded: function (isAlive, media) {
-            if (_sessions[media.sessionId]) {
+            var session = _sessions[media.sessionId];
+            if (session) {
 
-                if (!_currentMedia) {
-                    _currentMedia = new chrome.cast.media.Media(media.sessionId, media.mediaSessionId);
+                if (!session.media[0]) {
+                    session.media[0] = new chrome.cast.media.Media(media.sessionId, media.mediaSessionId);
                 }
-                _currentMedia._update(isAlive, media);
-                _sessions[media.sessionId].emit('_mediaListener', _currentMedia);
+                session.media[0]._update(isAlive, media);
+                session.emit('_mediaListener', session.media[0]);
             } else {
                 console.log('mediaLoaded --- but there is no session tied to it', media);
             }
         },
         sessionJoined: function (obj) {
-            var sessionId = obj.sessionId;
-            var appId = obj.appId;
-            var displayName = obj.displayName;
-            var appImages = obj.appImages || [];
-            var receiver = new chrome.cast.Receiver(obj.receiver.label, obj.receiver.friendlyName, obj.receiver.capabilities || [], obj.volume || null);
-
-            var session = _sessions[sessionId] = new chrome.cast.Session(sessionId, appId, displayName, appImages, receiver);
-
-            if (obj.media && obj.media.sessionId) {
-                _currentMedia = new chrome.cast.media.Media(sessionId, obj.media.mediaSessionId);
-                _currentMedia.currentTime = obj.media.currentTime;
-                _currentMedia.playerState = obj.media.playerState;
-                _currentMedia.media = obj.media.media;
-                session.media[0] = _currentMedia;
-            }
+            var session = sessionFromObject(obj);
 
             _sessionListener && _sessionListener(session);
         },
@@ -1222,6 +1476,28 @@
         cordova.exec(function (result) { callback && callback(null, result); }, function (err) { callback && callback(err); }, "Chromecast", action, args);
     }
 
+    /**
+    * Gets the Session for a session object from the native side, creating it the first time
+    * @param {Object} obj
+    * @return {chrome.cast.Session}
+    */
+    function sessionFromObject(obj) {
+        var sessionId = obj.sessionId;
+        var session = _sessions[sessionId];
+        if (!session) {
+            var receiver = new chrome.cast.Receiver(obj.receiver.label, obj.receiver.friendlyName, obj.receiver.capabilities || [], obj.volume || null);
+            session = _sessions[sessionId] = new chrome.cast.Session(sessionId, obj.appId, obj.displayName, obj.appImages || [], receiver);
+        }
+
+        if (obj.media && obj.media.sessionId) {
+            var media = session.media[0] = new chrome.cast.media.Media(sessionId, obj.media.mediaSessionId);
+            media.currentTime = obj.media.currentTime;
+            media.playerState = obj.media.playerState;
+            media.media = obj.media.media;
+        }
+        return session;
+    }
+
     function handleError(err, callback) {
         var errorCode = chrome.cast.ErrorCode.UNKNOWN;
         var errorDescription = err;
@@ -1255,9 +1531,10 @@
     }
 
 
-    execute('setup', function (err) {
+    execute('setup', function (err, events) {
         if (!err) {
             chrome.cast.isAvailable = true;
+            chrome.cast._.batch(events || []);
         } else {
             throw new Error('Unable to setup chrome.cast API' + err);
         }
@@ -1,15 +1,10 @@
 package acidhax.cordova.chromecast;
 
-import android.annotation.TargetApi;
-import android.content.Context;
-import android.net.wifi.WifiManager;
-import android.os.Build;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.lang.reflect.Type;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.ArrayList;
 
 import com.google.android.gms.cast.CastMediaControlIntent;
 
@@ -25,7 +20,7 @@ import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.DialogInterface;
 import android.content.SharedPreferences;
-import android.os.PowerManager;
+import android.os.SystemClock;
 import android.support.v7.media.MediaRouter;
 import android.support.v7.media.MediaRouteSelector;
 import android.support.v7.media.MediaRouter.RouteInfo;
@@ -42,97 +37,402 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 	private String appId;
 
 	private boolean autoConnect = false;
+	private double maxMediaUpdatesPerSecond = 0;
+	private JSONObject commandTimeouts = null;
 	private String lastSessionId = null;
 	private String lastAppId = null;
+	/** The receiver the last session was created on, the first pick for a pre-connection */
+	private String lastRouteId = null;
 
 	private SharedPreferences settings;
-	private WifiManager.WifiLock wifiLock;
-	private PowerManager.WakeLock wakeLock;
+	private ChromecastLockManager locks;
 
+	/** The session actions without a session id act on: the one created or joined last */
 	private volatile ChromecastSession currentSession;
+	private final ChromecastSessionRegistry sessions = new ChromecastSessionRegistry();
+	/** Whether requestSession and selectRoute may open a session while another one is running */
+	private boolean multiSession = false;
+
+	private final ChromecastActionRegistry actions = new ChromecastActionRegistry();
+
+	private ChromecastEventChannel events;
+	/** The receivers the javascript side was told about, id to name */
+	private final HashMap<String, String> emittedRoutes = new HashMap<String, String>();
+	/** Receivers from the cache that discovery has not confirmed yet, shown until the first discovery run settles */
+	private final HashMap<String, JSONObject> cachedRoutes = new HashMap<String, JSONObject>();
+	/** selectRoute calls for cached receivers, waiting for discovery to find them */
+	private final HashMap<String, CallbackContext> pendingSelections = new HashMap<String, CallbackContext>();
+	private boolean discoveryRunSettled = false;
+	private ChromecastReceiverCache receiverCache;
+
+	private final ChromecastDiscoveryPolicy discovery = new ChromecastDiscoveryPolicy();
+	private final ChromecastPreconnect preconnect = new ChromecastPreconnect();
+	private final ChromecastReconnectPolicy reconnectPolicy = new ChromecastReconnectPolicy();
+	private ChromecastConnectionPool connectionPool;
+	private final ChromecastMetrics metrics = new ChromecastMetrics();
+	private final ChromecastTrace trace = new ChromecastTrace();
+	private final ChromecastDiscoveryWatch discoveryWatch = new ChromecastDiscoveryWatch(new Runnable() {
+		@Override
+		public void run() {
+			Chromecast.this.onDiscoverySettled();
+		}
+	});
 
-	private void log(String s) {
-		sendJavascript("console.log('" + s + "');");
-	}
+	private ChromecastLog log;
+	/** While the app is paused, alive session and media updates are dropped and sessions send a full update on resume */
+	private boolean paused = false;
+	private boolean updatesConflated = false;
+	private final Object pauseLock = new Object();
 
 
 	public void initialize(final CordovaInterface cordova, CordovaWebView webView) {
 		super.initialize(cordova, webView);
 
+		this.events = new ChromecastEventChannel(webView, this.trace);
+		this.log = new ChromecastLog(this.events, cordova.getActivity().getFilesDir());
+
 		// Restore preferences
 		this.settings = this.cordova.getActivity().getSharedPreferences(SETTINGS_NAME, 0);
 		this.lastSessionId = settings.getString("lastSessionId", "");
 		this.lastAppId = settings.getString("lastAppId", "");
+		this.lastRouteId = settings.getString("lastRouteId", "");
+
+		this.locks = new ChromecastLockManager(cordova.getActivity().getApplicationContext());
+		this.connectionPool = new ChromecastConnectionPool(cordova.getActivity().getApplicationContext(), this.metrics, this.trace);
+		this.receiverCache = new ChromecastReceiverCache(this.settings);
+		cordova.getThreadPool().execute(new Runnable() {
+			@Override
+			public void run() {
+				Chromecast.this.onReceiverCacheLoaded(Chromecast.this.receiverCache.load());
+			}
+		});
+
+		this.registerActions();
+	}
+
+	@Override
+	public void onReset() {
+		super.onReset();
+		// The page that registered the event callback is gone; hold events until it calls setup again
+		this.events.setCallbackContext(null);
+		synchronized (this.emittedRoutes) {
+			this.emittedRoutes.clear();
+			// Their callbacks belong to the old page
+			this.pendingSelections.clear();
+		}
+	}
+
+	@Override
+	public void onPause(boolean multitasking) {
+		super.onPause(multitasking);
+		this.discovery.setForeground(false);
+		this.preconnect.clear();
+		synchronized (this.pauseLock) {
+			this.paused = true;
+		}
+		this.events.pause();
+	}
 
+	@Override
+	public void onResume(boolean multitasking) {
+		super.onResume(multitasking);
+		this.discovery.setForeground(true);
+		boolean conflated;
+		synchronized (this.pauseLock) {
+			this.paused = false;
+			conflated = this.updatesConflated;
+			this.updatesConflated = false;
+		}
+		if (conflated) {
+			// The javascript side missed the deltas, send everything as it is now
+			for (ChromecastSession session : this.sessions.getAll()) {
+				session.requestFullUpdate();
+			}
+		}
+		int dropped = this.events.resume();
+		if (dropped > 0) {
+			this.log.w("Messages dropped while paused: ", dropped);
+		}
+		if (mMediaRouter != null) {
+			this.preconnectLikelyReceiver();
+		}
 	}
 
 	public void onDestroy() {
 		super.onDestroy();
+		this.preconnect.clear();
 
-		if (this.currentSession != null) {
-			this.unlockLocks();
-//    		this.currentSession.kill(new ChromecastSessionCallback() {
-//				void onSuccess(Object object) {	}
-//				void onError(String reason) {}
-//    		});
-		}
+		this.locks.releaseAll();
+		// Closing the connections fails what the sessions still wait on and disconnects them
+		this.connectionPool.clear();
+		this.log.shutdown();
 	}
 
 	@Override
 	public boolean execute(String action, JSONArray args, CallbackContext cbContext) throws JSONException {
+		long startedAt = ChromecastMetrics.now();
 		try {
-			Method[] list = this.getClass().getMethods();
-			Method methodToExecute = null;
-			for (Method method : list) {
-				if (method.getName().equals(action)) {
-					Type[] types = method.getGenericParameterTypes();
-					if (args.length() + 1 == types.length) { // +1 is the cbContext
-						boolean isValid = true;
-						for (int i = 0; i < args.length(); i++) {
-							Class arg = args.get(i).getClass();
-							if (types[i] == arg) {
-								isValid = true;
-							} else {
-								isValid = false;
-								break;
-							}
-						}
-						if (isValid) {
-							methodToExecute = method;
-							break;
-						}
-					}
-				}
-			}
-			if (methodToExecute != null) {
-				Type[] types = methodToExecute.getGenericParameterTypes();
-				Object[] variableArgs = new Object[types.length];
-				for (int i = 0; i < args.length(); i++) {
-					variableArgs[i] = args.get(i);
-				}
-				variableArgs[variableArgs.length-1] = cbContext;
-				Class<?> r = methodToExecute.getReturnType();
-				if (r == boolean.class) {
-					return (Boolean) methodToExecute.invoke(this, variableArgs);
-				} else {
-					methodToExecute.invoke(this, variableArgs);
-					return true;
-				}
+			boolean handled = this.actions.execute(action, args, cbContext);
+			this.trace.complete("bridge", action, startedAt, null);
+			if (handled) {
+				this.metrics.record("dispatch", startedAt);
 			} else {
-				return false;
+				this.metrics.error("dispatch", "invalid_action");
 			}
-		} catch (IllegalAccessException e) {
-			e.printStackTrace();
-			return false;
-		} catch (IllegalArgumentException e) {
-			e.printStackTrace();
-			return false;
-		} catch (InvocationTargetException e) {
+			return handled;
+		} catch (RuntimeException e) {
 			e.printStackTrace();
+			this.metrics.error("dispatch", "exception");
 			return false;
 		}
 	}
 
+	/**
+	 * Builds the dispatch table for execute(). Every action signature the javascript side uses
+	 * gets a prebound handler, including the Integer/Double overloads of loadMedia and setReceiverVolumeLevel.
+	 */
+	private void registerActions() {
+		actions.register("setup", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.setup(cb);
+			}
+		});
+		actions.register("initialize", new ChromecastAction(String.class, String.class, String.class) {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.initialize(args.getString(0), args.getString(1), args.getString(2), cb);
+			}
+		});
+		actions.register("initialize", new ChromecastAction(String.class, String.class, String.class, JSONObject.class) {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.initialize(args.getString(0), args.getString(1), args.getString(2), args.getJSONObject(3), cb);
+			}
+		});
+		actions.register("requestSession", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.requestSession(cb);
+			}
+		});
+		actions.register("selectRoute", new ChromecastAction(String.class) {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.selectRoute(args.getString(0), cb);
+			}
+		});
+		this.registerSessionAction("setReceiverVolumeLevel", new ChromecastSessionAction(Double.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.setReceiverVolumeLevel(session, (Double) args.get(offset), cb);
+			}
+		});
+		this.registerSessionAction("setReceiverVolumeLevel", new ChromecastSessionAction(Integer.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.setReceiverVolumeLevel(session, (Integer) args.get(offset), cb);
+			}
+		});
+		this.registerSessionAction("setReceiverMuted", new ChromecastSessionAction(Boolean.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.setReceiverMuted(session, (Boolean) args.get(offset), cb);
+			}
+		});
+		actions.register("stopSession", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.stopSession(cb);
+			}
+		});
+		this.registerSessionAction("sendMessage", new ChromecastSessionAction(String.class, String.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.sendMessage(session, args.getString(offset), args.getString(offset + 1), cb);
+			}
+		});
+		this.registerSessionAction("addMessageListener", new ChromecastSessionAction(String.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.addMessageListener(session, args.getString(offset), cb);
+			}
+		});
+		this.registerSessionAction("loadMedia", new ChromecastSessionAction(String.class, String.class, Integer.class, String.class, Boolean.class, Double.class, JSONObject.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.loadMedia(session, args.getString(offset), args.getString(offset + 1), (Integer) args.get(offset + 2), args.getString(offset + 3),
+						(Boolean) args.get(offset + 4), (Double) args.get(offset + 5), args.getJSONObject(offset + 6), cb);
+			}
+		});
+		this.registerSessionAction("loadMedia", new ChromecastSessionAction(String.class, String.class, Integer.class, String.class, Boolean.class, Integer.class, JSONObject.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.loadMedia(session, args.getString(offset), args.getString(offset + 1), (Integer) args.get(offset + 2), args.getString(offset + 3),
+						(Boolean) args.get(offset + 4), (Integer) args.get(offset + 5), args.getJSONObject(offset + 6), cb);
+			}
+		});
+		this.registerSessionAction("mediaPlay", new ChromecastSessionAction() {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.mediaPlay(session, cb);
+			}
+		});
+		this.registerSessionAction("mediaPause", new ChromecastSessionAction() {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.mediaPause(session, cb);
+			}
+		});
+		this.registerSessionAction("mediaSeek", new ChromecastSessionAction(Integer.class, String.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.mediaSeek(session, (Integer) args.get(offset), args.getString(offset + 1), cb);
+			}
+		});
+		this.registerSessionAction("setMediaVolume", new ChromecastSessionAction(Double.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.setMediaVolume(session, (Double) args.get(offset), cb);
+			}
+		});
+		this.registerSessionAction("setMediaMuted", new ChromecastSessionAction(Boolean.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.setMediaMuted(session, (Boolean) args.get(offset), cb);
+			}
+		});
+		this.registerSessionAction("mediaStop", new ChromecastSessionAction() {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.mediaStop(session, cb);
+			}
+		});
+		this.registerSessionAction("executeBatch", new ChromecastSessionAction(JSONArray.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.executeBatch(session, args.getJSONArray(offset), false, cb);
+			}
+		});
+		this.registerSessionAction("executeBatch", new ChromecastSessionAction(JSONArray.class, Boolean.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.executeBatch(session, args.getJSONArray(offset), (Boolean) args.get(offset + 1), cb);
+			}
+		});
+		// A lone string is the action name of the first form, so the scoped calls from javascript
+		// always pass the action name after the session id, "" meaning all actions
+		this.registerSessionAction("cancelPending", new ChromecastSessionAction() {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.cancelPending(session, null, cb);
+			}
+		});
+		this.registerSessionAction("cancelPending", new ChromecastSessionAction(String.class) {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				String action = args.getString(offset);
+				return Chromecast.this.cancelPending(session, action.isEmpty() ? null : action, cb);
+			}
+		});
+		this.registerSessionAction("sessionStop", new ChromecastSessionAction() {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.sessionStop(session, cb);
+			}
+		});
+		this.registerSessionAction("sessionLeave", new ChromecastSessionAction() {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.sessionLeave(session, cb);
+			}
+		});
+		this.registerSessionAction("requestFullUpdate", new ChromecastSessionAction() {
+			boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext cb) throws JSONException {
+				return Chromecast.this.requestFullUpdate(session, cb);
+			}
+		});
+		actions.register("getDiscoveryStats", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.getDiscoveryStats(cb);
+			}
+		});
+		actions.register("getPreconnectStats", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.getPreconnectStats(cb);
+			}
+		});
+		actions.register("getConnectionStats", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.getConnectionStats(cb);
+			}
+		});
+		actions.register("getMetrics", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.getMetrics(cb);
+			}
+		});
+		actions.register("resetMetrics", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.resetMetrics(cb);
+			}
+		});
+		actions.register("getLockStats", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.getLockStats(cb);
+			}
+		});
+		actions.register("dumpTrace", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.dumpTrace(cb);
+			}
+		});
+		actions.register("emitAllRoutes", new ChromecastAction() {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return Chromecast.this.emitAllRoutes(cb);
+			}
+		});
+	}
+
+	/**
+	 * Registers an action that works on a session in both of its signatures: as given, for the default session,
+	 * and with the session id as an extra first argument. The session id form is only tried once no
+	 * default session signature of the action matched.
+	 * @param name
+	 * @param action
+	 */
+	private void registerSessionAction(String name, final ChromecastSessionAction action) {
+		actions.register(name, new ChromecastAction(action.argTypes) {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				return action.run(Chromecast.this.currentSession, args, 0, cb);
+			}
+		});
+		actions.registerScoped(name, new ChromecastAction(action.scopedArgTypes()) {
+			boolean run(JSONArray args, CallbackContext cb) throws JSONException {
+				// The action reads its own arguments after the session id, nothing is copied
+				return action.run(Chromecast.this.sessions.get(args.getString(0)), args, 1, cb);
+			}
+		});
+	}
+
+	/**
+	 * Swaps the current session, discovery relaxes while there is one
+	 * @param session
+	 */
+	private void setCurrentSession(ChromecastSession session) {
+		this.currentSession = session;
+		this.discovery.setSessionActive(session != null || !this.sessions.isEmpty());
+	}
+
+	/**
+	 * Forgets a session that ended or failed to start and releases its locks.
+	 * If it was the current session, another running one takes its place.
+	 * @param session
+	 */
+	private void dropSession(ChromecastSession session) {
+		this.sessions.remove(session);
+		session.release();
+		this.locks.remove(session);
+		if (session == this.currentSession) {
+			this.setCurrentSession(this.sessions.any());
+		} else {
+			this.setCurrentSession(this.currentSession);
+		}
+	}
+
+	/**
+	 * Drops a session the app stopped or left, it is not joined again on the next start
+	 * @param session
+	 */
+	private void forgetSession(ChromecastSession session) {
+		if (this.lastSessionId.equals(session.getSessionId())) {
+			this.setLastSessionId("");
+		}
+		this.dropSession(session);
+	}
+
+	private void setLastRouteId(String routeId) {
+		if (!routeId.equals(this.lastRouteId)) {
+			this.lastRouteId = routeId;
+			this.settings.edit().putString("lastRouteId", routeId).apply();
+		}
+	}
+
 	private void setLastSessionId(String sessionId) {
 		this.lastSessionId = sessionId;
 		this.settings.edit().putString("lastSessionId", sessionId).apply();
@@ -142,10 +442,11 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 	/**
 	 * Do everything you need to for "setup" - calling back sets the isAvailable and lets every function on the
 	 * javascript side actually do stuff.
+	 * The callback is kept open afterwards and carries all events for chrome.cast._
 	 * @param  callbackContext
 	 */
 	public boolean setup (CallbackContext callbackContext) {
-		callbackContext.success();
+		this.events.setCallbackContext(callbackContext);
 
 		return true;
 	}
@@ -159,16 +460,56 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 	 * @param  callbackContext
 	 */
 	public boolean initialize (final String appId, String autoJoinPolicy, String defaultActionPolicy, final CallbackContext callbackContext) {
+		return this.initialize(appId, autoJoinPolicy, defaultActionPolicy, new JSONObject(), callbackContext);
+	}
+
+	/**
+	 * Initialize with plugin specific options
+	 * @param  appId
+	 * @param  autoJoinPolicy
+	 * @param  defaultActionPolicy
+	 * @param  options             maxMediaUpdatesPerSecond: upper limit for mediaUpdated events per session, 0 for none
+	 *                             timeouts: milliseconds before a command fails with "timeout", keyed by action name or "default"
+	 *                             discovery: receiver scanning policy, see ChromecastDiscoveryPolicy
+	 *                             receiverCacheTtlMs: how long a receiver that was not seen again stays in the receiver cache
+	 *                             preconnect: {enabled, idleMs}, see ChromecastPreconnect
+	 *                             multiSession: true to allow sessions on several receivers at once
+	 *                             reconnect: {enabled, initialDelayMs, maxDelayMs, maxAttempts}, see ChromecastReconnectPolicy
+	 * @param  callbackContext
+	 */
+	public boolean initialize (final String appId, String autoJoinPolicy, String defaultActionPolicy, JSONObject options, final CallbackContext callbackContext) {
 		final Activity activity = cordova.getActivity();
 		final Chromecast that = this;
 		this.appId = appId;
+		this.maxMediaUpdatesPerSecond = options.optDouble("maxMediaUpdatesPerSecond", 0);
+		this.commandTimeouts = options.optJSONObject("timeouts");
+		this.discovery.configure(options.optJSONObject("discovery"));
+		if (options.has("receiverCacheTtlMs")) {
+			this.receiverCache.setTtl(options.optLong("receiverCacheTtlMs"));
+		}
+		this.preconnect.configure(options.optJSONObject("preconnect"));
+		this.multiSession = options.optBoolean("multiSession", false);
+		this.reconnectPolicy.configure(options.optJSONObject("reconnect"));
+		this.connectionPool.configure(options.optJSONObject("connectionPool"));
+		this.trace.configure(options.optJSONObject("trace"));
+		this.log.configure(options.optJSONObject("log"));
+		this.events.configureBackground(options.optJSONObject("background"));
+		this.locks.configure(options.optJSONObject("locks"));
+		if (this.currentSession != null) {
+			this.configureSession(this.currentSession);
+		}
+		for (ChromecastSession session : this.sessions.getAll()) {
+			this.configureSession(session);
+		}
 
-		log("initialize " + autoJoinPolicy + " " + appId + " " + this.lastAppId);
+		if (this.log.isLoggable(ChromecastLog.DEBUG)) {
+			this.log.d("initialize " + autoJoinPolicy + " " + appId + " ", this.lastAppId);
+		}
 		if (autoJoinPolicy.equals("origin_scoped") && appId.equals(this.lastAppId)) {
-			log("lastAppId " + lastAppId);
+			this.log.d("lastAppId ", lastAppId);
 			autoConnect = true;
 		} else if (autoJoinPolicy.equals("origin_scoped")) {
-			log("setting lastAppId " + lastAppId);
+			this.log.d("setting lastAppId ", appId);
 			this.settings.edit().putString("lastAppId", appId).apply();
 		}
 
@@ -179,21 +520,16 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 						.addControlCategory(CastMediaControlIntent.categoryForCast(appId))
 						.build();
 				mMediaRouterCallback.registerCallbacks(that);
-				mMediaRouter.addCallback(mMediaRouteSelector, mMediaRouterCallback, MediaRouter.CALLBACK_FLAG_PERFORM_ACTIVE_SCAN);
+				discovery.attach(mMediaRouter, mMediaRouteSelector, mMediaRouterCallback);
+				mMediaRouterCallback.seed(mMediaRouter, mMediaRouteSelector);
 				callbackContext.success();
-				/* Setting a timeout if 500 ms helps to make sure cast devices are discovered */
-				new Thread() {
-					@Override
-					public void run() {
-						try {
-							this.sleep(500);
-						} catch (InterruptedException e) {
-							e.printStackTrace();
-						}
-						Chromecast.this.checkReceiverAvailable();
-						Chromecast.this.emitAllRoutes(null);
-					}
-				}.start();
+				// Receivers are reported as they arrive, "unavailable" waits for discovery to settle
+				synchronized (Chromecast.this.emittedRoutes) {
+					Chromecast.this.discoveryRunSettled = false;
+				}
+				Chromecast.this.discoveryWatch.start(mMediaRouterCallback.getCastRouteCount());
+				Chromecast.this.emitAllRoutes(null);
+				Chromecast.this.checkReceiverAvailable();
 			}
 		});
 
@@ -207,38 +543,27 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 	 * @param  callbackContext
 	 */
 	public boolean requestSession (final CallbackContext callbackContext) {
-		if (this.currentSession != null) {
+		if (!this.multiSession && this.currentSession != null) {
 			callbackContext.success(this.currentSession.createSessionObject());
 			return true;
 		}
 
 		this.setLastSessionId("");
+		this.discovery.burst();
 
 		final Activity activity = cordova.getActivity();
 		activity.runOnUiThread(new Runnable() {
 			public void run() {
-				mMediaRouter = MediaRouter.getInstance(activity.getApplicationContext());
-				final List<RouteInfo> routeList = mMediaRouter.getRoutes();
+				final List<RouteInfo> routeList = mMediaRouterCallback.getCastRoutes();
 
 				AlertDialog.Builder builder = new AlertDialog.Builder(activity);
 				builder.setTitle("Choose a Chromecast");
-				//CharSequence[] seq = new CharSequence[routeList.size() -1];
-				ArrayList<String> seq_tmp1 = new ArrayList<String>();
-
-				final ArrayList<Integer> seq_tmp_cnt_final = new ArrayList<Integer>();
 
-				for (int n = 1; n < routeList.size(); n++) {
-					RouteInfo route = routeList.get(n);
-					if (!route.getName().equals("Phone") && route.getId().indexOf("Cast") > -1) {
-						seq_tmp1.add(route.getName());
-						seq_tmp_cnt_final.add(n);
-						//seq[n-1] = route.getName();
-					}
+				CharSequence[] seq = new CharSequence[routeList.size()];
+				for (int n = 0; n < routeList.size(); n++) {
+					seq[n] = routeList.get(n).getName();
 				}
 
-				CharSequence[] seq;
-				seq = seq_tmp1.toArray(new CharSequence[seq_tmp1.size()]);
-
 				builder.setNegativeButton("cancel", new DialogInterface.OnClickListener() {
 					@Override
 					public void onClick(DialogInterface dialog, int which) {
@@ -250,10 +575,8 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 				builder.setItems(seq, new DialogInterface.OnClickListener() {
 					@Override
 					public void onClick(DialogInterface dialog, int which) {
-						which = seq_tmp_cnt_final.get(which);
 						RouteInfo selectedRoute = routeList.get(which);
-						//RouteInfo selectedRoute = routeList.get(which + 1);
-						Chromecast.this.createSession(selectedRoute, callbackContext);
+						Chromecast.this.openSession(selectedRoute, callbackContext);
 					}
 				});
 
@@ -273,76 +596,103 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 	 * @return
 	 */
 	public boolean selectRoute (final String routeId, final CallbackContext callbackContext) {
-		if (this.currentSession != null) {
+		if (!this.multiSession && this.currentSession != null) {
 			callbackContext.success(this.currentSession.createSessionObject());
 			return true;
 		}
 
 		this.setLastSessionId("");
 
-		final Activity activity = cordova.getActivity();
-		activity.runOnUiThread(new Runnable() {
-			public void run() {
-				mMediaRouter = MediaRouter.getInstance(activity.getApplicationContext());
-				final List<RouteInfo> routeList = mMediaRouter.getRoutes();
-
-				for (RouteInfo route : routeList) {
-					if (route.getId().equals(routeId)) {
-						Chromecast.this.createSession(route, callbackContext);
-						return;
-					}
-				}
-
-				callbackContext.error("No route found");
-
+		RouteInfo route = mMediaRouterCallback.getRoute(routeId);
+		if (route != null) {
+			this.openSession(route, callbackContext);
+			return true;
+		}
+		synchronized (this.emittedRoutes) {
+			if (this.cachedRoutes.containsKey(routeId)) {
+				// A receiver from the cache, connect once discovery finds it
+				this.pendingSelections.put(routeId, callbackContext);
+				this.discovery.burst();
+				return true;
 			}
-		});
+		}
+		callbackContext.error("No route found");
 
 		return true;
 	}
-	private boolean lockLocks(){
-		Context context = cordova.getActivity().getApplicationContext();
+	/**
+	 * Creates a ChromecastSession for a route, configured with the options passed to initialize
+	 * @param routeInfo
+	 * @return
+	 */
+	private ChromecastSession buildSession(RouteInfo routeInfo) {
+		ChromecastSession session = new ChromecastSession(routeInfo, this.cordova, this.connectionPool, this, this);
+		this.configureSession(session);
+		return session;
+	}
 
-		if(wakeLock == null) {
-			PowerManager powerManager = (PowerManager)context.getSystemService(Context.POWER_SERVICE);
-			wakeLock = powerManager.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, "cast-server-cpu");
-		}
-		if(wakeLock != null) {
-			wakeLock.acquire();
+	private void configureSession(ChromecastSession session) {
+		session.setMaxMediaUpdateRate(this.maxMediaUpdatesPerSecond);
+		session.setCommandTimeouts(this.commandTimeouts);
+		session.setReconnectPolicy(this.reconnectPolicy);
+		session.setMetrics(this.metrics);
+		session.setLog(this.log);
+		session.setTrace(this.trace);
+		session.setLockManager(this.locks);
+	}
 
+	/**
+	 * Pre-connects to the receiver the user most likely picks next: the one the last session was on,
+	 * or else the only receiver around. Only when the preconnect option is enabled and there is no session.
+	 */
+	private void preconnectLikelyReceiver() {
+		if (!this.preconnect.isEnabled() || this.currentSession != null) {
+			return;
 		}
-
-		if(wifiLock == null) {
-			WifiManager wifiManager = (WifiManager) context.getSystemService(Context.WIFI_SERVICE);
-			wifiLock = wifiManager.createWifiLock(WifiManager.WIFI_MODE_FULL_HIGH_PERF , "MyWifiLock");
+		RouteInfo route = mMediaRouterCallback.getRoute(this.lastRouteId);
+		if (route == null || !mMediaRouterCallback.isCastReceiver(route)) {
+			List<RouteInfo> routes = mMediaRouterCallback.getCastRoutes();
+			route = routes.size() == 1 ? routes.get(0) : null;
 		}
-		if(wifiLock != null) {
-			wifiLock.acquire();
+		if (route != null && !route.getId().equals(this.preconnect.getRouteId())) {
+			this.preconnect.hold(route.getId(), this.buildSession(route));
 		}
-		return true;
 	}
-	private boolean unlockLocks(){
-		if(this.wakeLock != null) {
-			this.wakeLock.release();
-			this.wakeLock = null;
-		}
-		if(this.wifiLock != null) {
-			this.wifiLock.release();
-			this.wifiLock = null;
+
+	/**
+	 * Succeeds with the session already running on the receiver, creates one otherwise
+	 * @param routeInfo
+	 * @param callbackContext
+	 */
+	private void openSession(RouteInfo routeInfo, CallbackContext callbackContext) {
+		ChromecastSession running = this.sessions.getForRoute(routeInfo.getId());
+		if (running != null) {
+			callbackContext.success(running.createSessionObject());
+		} else {
+			this.createSession(routeInfo, callbackContext);
 		}
-		return true;
 	}
+
 	/**
 	 * Helper for the creating of a session! The user-selected RouteInfo needs to be passed to a new ChromecastSession
 	 * @param routeInfo
 	 * @param callbackContext
 	 */
-	private void createSession(RouteInfo routeInfo, final CallbackContext callbackContext) {
+	private void createSession(final RouteInfo routeInfo, final CallbackContext callbackContext) {
+		final long startedAt = SystemClock.elapsedRealtime();
+		ChromecastSession session = this.preconnect.take(routeInfo.getId());
+		if (session != null) {
+			this.configureSession(session);
+		} else {
+			session = this.buildSession(routeInfo);
+		}
+		// Also true when the pool still had the receiver's connection open
+		final boolean preconnected = session.isPreconnected();
 
-		this.currentSession = new ChromecastSession(routeInfo, this.cordova, this, this);
-		//this.lockLocks();
+		final ChromecastSession launching = session;
+		this.setCurrentSession(launching);
 		// Launch the app.
-		this.currentSession.launch(this.appId, new ChromecastSessionCallback() {
+		launching.launch(this.appId, new ChromecastSessionCallback() {
 
 			@Override
 			void onSuccess(Object object) {
@@ -350,27 +700,34 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 				if (object == null) {
 					onError("unknown");
 				} else {
-					if (session == Chromecast.this.currentSession) {
-						Chromecast.this.setLastSessionId(Chromecast.this.currentSession.getSessionId());
+					// Without multiSession, a session that was replaced while launching is ended and its caller told so
+					if (session != Chromecast.this.currentSession && !Chromecast.this.multiSession) {
+						Chromecast.this.discardReplacedSession(session);
+						if (callbackContext != null) {
+							callbackContext.error("cancel");
+						}
+					} else {
+						Chromecast.this.sessions.put(session);
+						Chromecast.this.setLastSessionId(session.getSessionId());
+						Chromecast.this.setLastRouteId(routeInfo.getId());
+						Chromecast.this.preconnect.sessionCreated(preconnected, SystemClock.elapsedRealtime() - startedAt);
 
 						if (callbackContext != null) {
 							callbackContext.success(session.createSessionObject());
 						} else {
-							sendJavascript("chrome.cast._.sessionJoined(" + Chromecast.this.currentSession.createSessionObject().toString() + ");");
+							events.emit("sessionJoined", session.captureSession());
 						}
-
 					}
 
 
 				}
-				Chromecast.this.lockLocks();
 
 			}
 
 			@Override
 			void onError(String reason) {
 				if (reason != null) {
-					Chromecast.this.log("createSession onError " + reason);
+					Chromecast.this.log.w("createSession onError ", reason);
 					if (callbackContext != null) {
 						callbackContext.error(reason);
 					}
@@ -379,32 +736,57 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 						callbackContext.error("unknown");
 					}
 				}
-				Chromecast.this.unlockLocks();
+				Chromecast.this.dropSession(launching);
 			}
 
 		});
 	}
 
+	/**
+	 * Ends a session that finished launching after another one replaced it. Its app is stopped,
+	 * unless the replacement is on the same receiver and may be using it.
+	 * @param session
+	 */
+	private void discardReplacedSession(ChromecastSession session) {
+		ChromecastSession replacement = this.currentSession;
+		if (replacement == null || !replacement.getRouteId().equals(session.getRouteId())) {
+			session.kill(new ChromecastSessionCallback() {
+				@Override
+				void onSuccess(Object object) {
+				}
+
+				@Override
+				void onError(String reason) {
+				}
+			});
+		}
+		this.dropSession(session);
+	}
+
 	private void joinSession(RouteInfo routeInfo) {
-		ChromecastSession sessionJoinAttempt = new ChromecastSession(routeInfo, this.cordova, this, this);
+		final ChromecastSession sessionJoinAttempt = this.buildSession(routeInfo);
 		sessionJoinAttempt.join(this.appId, this.lastSessionId, new ChromecastSessionCallback() {
 
 			@Override
 			void onSuccess(Object object) {
 				if (Chromecast.this.currentSession == null) {
 					try {
-						Chromecast.this.currentSession = (ChromecastSession) object;
+						Chromecast.this.sessions.put((ChromecastSession) object);
+						Chromecast.this.setCurrentSession((ChromecastSession) object);
 						Chromecast.this.setLastSessionId(Chromecast.this.currentSession.getSessionId());
-						sendJavascript("chrome.cast._.sessionJoined(" + Chromecast.this.currentSession.createSessionObject().toString() + ");");
+						events.emit("sessionJoined", Chromecast.this.currentSession.captureSession());
 					} catch (Exception e) {
-						log("wut.... " + e.getMessage() + e.getStackTrace());
+						Chromecast.this.log.e("Could not adopt the joined session", e);
 					}
+				} else {
+					sessionJoinAttempt.release();
 				}
 			}
 
 			@Override
 			void onError(String reason) {
-				log("sessionJoinAttempt error " +reason);
+				Chromecast.this.log.d("sessionJoinAttempt error ", reason);
+				sessionJoinAttempt.release();
 			}
 
 		});
@@ -412,29 +794,31 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Set the volume level on the receiver - this is a Chromecast volume, not a Media volume
+	 * @param session
 	 * @param  newLevel
 	 */
-	public boolean setReceiverVolumeLevel (Double newLevel, CallbackContext callbackContext) {
-		if (this.currentSession != null) {
-			this.currentSession.setVolume(newLevel, genericCallback(callbackContext));
+	public boolean setReceiverVolumeLevel (ChromecastSession session, Double newLevel, CallbackContext callbackContext) {
+		if (session != null) {
+			session.setVolume(newLevel, genericCallback(callbackContext));
 		} else {
 			callbackContext.error("session_error");
 		}
 		return true;
 	}
 
-	public boolean setReceiverVolumeLevel (Integer newLevel, CallbackContext callbackContext) {
-		return this.setReceiverVolumeLevel(newLevel.doubleValue(), callbackContext);
+	public boolean setReceiverVolumeLevel (ChromecastSession session, Integer newLevel, CallbackContext callbackContext) {
+		return this.setReceiverVolumeLevel(session, newLevel.doubleValue(), callbackContext);
 	}
 
 	/**
 	 * Sets the muted boolean on the receiver - this is a Chromecast mute, not a Media mute
+	 * @param session
 	 * @param  muted
 	 * @param  callbackContext
 	 */
-	public boolean setReceiverMuted (Boolean muted, CallbackContext callbackContext) {
-		if (this.currentSession != null) {
-			this.currentSession.setMute(muted, genericCallback(callbackContext));
+	public boolean setReceiverMuted (ChromecastSession session, Boolean muted, CallbackContext callbackContext) {
+		if (session != null) {
+			session.setMute(muted, genericCallback(callbackContext));
 		} else {
 			callbackContext.error("session_error");
 		}
@@ -452,13 +836,14 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Send a custom message to the receiver - we don't need this just yet... it was just simple to implement on the js side
+	 * @param session
 	 * @param  namespace
 	 * @param  message
 	 * @param  callbackContext
 	 */
-	public boolean sendMessage (String namespace, String message, final CallbackContext callbackContext) {
-		if (this.currentSession != null) {
-			this.currentSession.sendMessage(namespace, message, new ChromecastSessionCallback() {
+	public boolean sendMessage (ChromecastSession session, String namespace, String message, final CallbackContext callbackContext) {
+		if (session != null) {
+			session.sendMessage(namespace, message, new ChromecastSessionCallback() {
 
 				@Override
 				void onSuccess(Object object) {
@@ -477,13 +862,14 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Adds a listener to a specific namespace
+	 * @param session
 	 * @param namespace
 	 * @param callbackContext
 	 * @return
 	 */
-	public boolean addMessageListener(String namespace, CallbackContext callbackContext) {
-		if (this.currentSession != null) {
-			this.currentSession.addMessageListener(namespace);
+	public boolean addMessageListener(ChromecastSession session, String namespace, CallbackContext callbackContext) {
+		if (session != null) {
+			session.addMessageListener(namespace);
 			callbackContext.success();
 		}
 		return true;
@@ -491,6 +877,7 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Loads some media on the Chromecast using the media APIs
+	 * @param session
 	 * @param  contentId               The URL of the media item
 	 * @param  contentType             MIME type of the content
 	 * @param  duration                Duration of the content
@@ -499,10 +886,10 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 	 * @param  loadRequest.currentTime Where to begin playing from
 	 * @param  callbackContext
 	 */
-	public boolean loadMedia (String contentId, String contentType, Integer duration, String streamType, Boolean autoPlay, Double currentTime, JSONObject metadata, final CallbackContext callbackContext) {
+	public boolean loadMedia (ChromecastSession session, String contentId, String contentType, Integer duration, String streamType, Boolean autoPlay, Double currentTime, JSONObject metadata, final CallbackContext callbackContext) {
 
-		if (this.currentSession != null) {
-			return this.currentSession.loadMedia(contentId, contentType, duration, streamType, autoPlay, currentTime, metadata,
+		if (session != null) {
+			return session.loadMedia(contentId, contentType, duration, streamType, autoPlay, currentTime, metadata,
 					new ChromecastSessionCallback() {
 
 						@Override
@@ -525,18 +912,19 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 			return false;
 		}
 	}
-	public boolean loadMedia (String contentId, String contentType, Integer duration, String streamType, Boolean autoPlay, Integer currentTime, JSONObject metadata, final CallbackContext callbackContext) {
-		return this.loadMedia (contentId, contentType, duration, streamType, autoPlay, new Double(currentTime.doubleValue()), metadata, callbackContext);
+	public boolean loadMedia (ChromecastSession session, String contentId, String contentType, Integer duration, String streamType, Boolean autoPlay, Integer currentTime, JSONObject metadata, final CallbackContext callbackContext) {
+		return this.loadMedia (session, contentId, contentType, duration, streamType, autoPlay, new Double(currentTime.doubleValue()), metadata, callbackContext);
 	}
 
 	/**
 	 * Play on the current media in the current session
+	 * @param session
 	 * @param callbackContext
 	 * @return
 	 */
-	public boolean mediaPlay(CallbackContext callbackContext) {
-		if (currentSession != null) {
-			currentSession.mediaPlay(genericCallback(callbackContext));
+	public boolean mediaPlay(ChromecastSession session, CallbackContext callbackContext) {
+		if (session != null) {
+			session.mediaPlay(genericCallback(callbackContext));
 		} else {
 			callbackContext.error("session_error");
 		}
@@ -545,12 +933,13 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Pause on the current media in the current session
+	 * @param session
 	 * @param callbackContext
 	 * @return
 	 */
-	public boolean mediaPause(CallbackContext callbackContext) {
-		if (currentSession != null) {
-			currentSession.mediaPause(genericCallback(callbackContext));
+	public boolean mediaPause(ChromecastSession session, CallbackContext callbackContext) {
+		if (session != null) {
+			session.mediaPause(genericCallback(callbackContext));
 		} else {
 			callbackContext.error("session_error");
 		}
@@ -560,14 +949,15 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Seeks the current media in the current session
+	 * @param session
 	 * @param seekTime
 	 * @param resumeState
 	 * @param callbackContext
 	 * @return
 	 */
-	public boolean mediaSeek(Integer seekTime, String resumeState, CallbackContext callbackContext) {
-		if (currentSession != null) {
-			currentSession.mediaSeek(seekTime.longValue() * 1000, resumeState, genericCallback(callbackContext));
+	public boolean mediaSeek(ChromecastSession session, Integer seekTime, String resumeState, CallbackContext callbackContext) {
+		if (session != null) {
+			session.mediaSeek(seekTime.longValue() * 1000, resumeState, genericCallback(callbackContext));
 		} else {
 			callbackContext.error("session_error");
 		}
@@ -577,13 +967,14 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Set the volume on the media
+	 * @param session
 	 * @param level
 	 * @param callbackContext
 	 * @return
 	 */
-	public boolean setMediaVolume(Double level, CallbackContext callbackContext) {
-		if (currentSession != null) {
-			currentSession.mediaSetVolume(level, genericCallback(callbackContext));
+	public boolean setMediaVolume(ChromecastSession session, Double level, CallbackContext callbackContext) {
+		if (session != null) {
+			session.mediaSetVolume(level, genericCallback(callbackContext));
 		} else {
 			callbackContext.error("session_error");
 		}
@@ -593,13 +984,14 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Set the muted on the media
+	 * @param session
 	 * @param muted
 	 * @param callbackContext
 	 * @return
 	 */
-	public boolean setMediaMuted(Boolean muted, CallbackContext callbackContext) {
-		if (currentSession != null) {
-			currentSession.mediaSetMuted(muted, genericCallback(callbackContext));
+	public boolean setMediaMuted(ChromecastSession session, Boolean muted, CallbackContext callbackContext) {
+		if (session != null) {
+			session.mediaSetMuted(muted, genericCallback(callbackContext));
 		} else {
 			callbackContext.error("session_error");
 		}
@@ -609,12 +1001,13 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Stops the current media!
+	 * @param session
 	 * @param callbackContext
 	 * @return
 	 */
-	public boolean mediaStop(CallbackContext callbackContext) {
-		if (currentSession != null) {
-			currentSession.mediaStop(genericCallback(callbackContext));
+	public boolean mediaStop(ChromecastSession session, CallbackContext callbackContext) {
+		if (session != null) {
+			session.mediaStop(genericCallback(callbackContext));
 		} else {
 			callbackContext.error("session_error");
 		}
@@ -622,17 +1015,61 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 		return true;
 	}
 
+	/**
+	 * Runs several media and receiver commands in one call
+	 * @param session
+	 * @param commands an array of [name, args...] arrays, see ChromecastCommandBatch
+	 * @param continueOnError false to skip the remaining commands after the first failure
+	 * @param callbackContext gets an array with the status of every command
+	 * @return
+	 */
+	public boolean executeBatch(ChromecastSession session, JSONArray commands, Boolean continueOnError, final CallbackContext callbackContext) {
+		if (session != null) {
+			session.executeBatch(commands, continueOnError, new ChromecastSessionCallback() {
+				@Override
+				void onSuccess(Object object) {
+					callbackContext.success((JSONArray) object);
+				}
+
+				@Override
+				void onError(String reason) {
+					callbackContext.error(reason);
+				}
+			});
+		} else {
+			callbackContext.error("session_error");
+		}
+
+		return true;
+	}
+
+	/**
+	 * Abandons commands that are still waiting for the receiver. Their callbacks fail with "cancel".
+	 * @param session
+	 * @param action only cancel this action (e.g. "mediaSeek"), null for all of them
+	 * @param callbackContext gets the number of cancelled commands
+	 * @return
+	 */
+	public boolean cancelPending(ChromecastSession session, String action, CallbackContext callbackContext) {
+		if (session != null) {
+			callbackContext.success(session.cancelPending(action));
+		} else {
+			callbackContext.success(0);
+		}
+
+		return true;
+	}
+
 	/**
 	 * Stops the session
+	 * @param session
 	 * @param callbackContext
 	 * @return
 	 */
-	public boolean sessionStop (CallbackContext callbackContext) {
-		if (this.currentSession != null) {
-			this.currentSession.kill(genericCallback(callbackContext));
-			this.currentSession = null;
-			this.setLastSessionId("");
-			this.unlockLocks();
+	public boolean sessionStop (ChromecastSession session, CallbackContext callbackContext) {
+		if (session != null) {
+			session.kill(genericCallback(callbackContext));
+			this.forgetSession(session);
 		} else {
 			callbackContext.success();
 		}
@@ -642,37 +1079,144 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 
 	/**
 	 * Stops the session
+	 * @param session
 	 * @param callbackContext
 	 * @return
 	 */
-	public boolean sessionLeave (CallbackContext callbackContext) {
-		if (this.currentSession != null) {
-			this.currentSession.leave(genericCallback(callbackContext));
-			this.currentSession = null;
-			this.setLastSessionId("");
-
+	public boolean sessionLeave (ChromecastSession session, CallbackContext callbackContext) {
+		if (session != null) {
+			session.leave(genericCallback(callbackContext));
+			this.forgetSession(session);
 		} else {
 			callbackContext.success();
 		}
-		this.unlockLocks();
 		return true;
 	}
 
-	public boolean emitAllRoutes(CallbackContext callbackContext) {
-		final Activity activity = cordova.getActivity();
+	/**
+	 * Makes the current session send its full session and media objects with the next updates
+	 * @param session
+	 * @param callbackContext
+	 * @return
+	 */
+	public boolean requestFullUpdate(ChromecastSession session, CallbackContext callbackContext) {
+		if (session != null) {
+			session.requestFullUpdate();
+			callbackContext.success();
+		} else {
+			callbackContext.error("session_error");
+		}
+		return true;
+	}
 
-		activity.runOnUiThread(new Runnable() {
-			public void run() {
-				mMediaRouter = MediaRouter.getInstance(activity.getApplicationContext());
-				List<RouteInfo> routeList = mMediaRouter.getRoutes();
+	/**
+	 * Reports the current discovery mode and the time spent in each mode
+	 * @param callbackContext
+	 * @return
+	 */
+	public boolean getDiscoveryStats(CallbackContext callbackContext) {
+		JSONObject stats = this.discovery.getStats();
+		try {
+			stats.put("lastRun", this.discoveryWatch.getStats());
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		callbackContext.success(stats);
+		return true;
+	}
 
-				for (RouteInfo route : routeList) {
-					if (!route.getName().equals("Phone") && route.getId().indexOf("Cast") > -1) {
-						sendJavascript("chrome.cast._.routeAdded(" + routeToJSON(route) + ")");
-					}
+	/**
+	 * How often a pre-connection was used and how long sessions took to create with and without one
+	 * @param callbackContext
+	 * @return
+	 */
+	public boolean getPreconnectStats(CallbackContext callbackContext) {
+		callbackContext.success(this.preconnect.getStats());
+		return true;
+	}
+
+	/**
+	 * How many receiver connections are open and how often sessions could reuse one
+	 * @param callbackContext
+	 * @return
+	 */
+	public boolean getConnectionStats(CallbackContext callbackContext) {
+		callbackContext.success(this.connectionPool.getStats());
+		return true;
+	}
+
+	/**
+	 * Latency percentiles and error counts of connecting, dispatching and the session commands
+	 * @param callbackContext
+	 * @return
+	 */
+	public boolean getMetrics(CallbackContext callbackContext) {
+		callbackContext.success(this.metrics.toJSON());
+		return true;
+	}
+
+	/**
+	 * Starts the metrics over
+	 * @param callbackContext
+	 * @return
+	 */
+	public boolean resetMetrics(CallbackContext callbackContext) {
+		this.metrics.reset();
+		callbackContext.success();
+		return true;
+	}
+
+	/**
+	 * How long the wake and wifi locks were held compared to how long sessions were around
+	 * @param callbackContext
+	 * @return
+	 */
+	public boolean getLockStats(CallbackContext callbackContext) {
+		callbackContext.success(this.locks.getStats());
+		return true;
+	}
+
+	/**
+	 * Writes the native event trace to the app's files directory as Chrome Trace Event JSON
+	 * @param callbackContext succeeds with the path of the file
+	 * @return
+	 */
+	public boolean dumpTrace(final CallbackContext callbackContext) {
+		final File directory = cordova.getActivity().getFilesDir();
+		cordova.getThreadPool().execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					callbackContext.success(Chromecast.this.trace.dump(directory).getAbsolutePath());
+				} catch (IOException e) {
+					e.printStackTrace();
+					callbackContext.error("trace_error");
 				}
 			}
 		});
+		return true;
+	}
+
+	/**
+	 * Sends the full list of receivers, replacing whatever the javascript side has.
+	 * Route events only carry changes, this resyncs after setup or on demand.
+	 * @param callbackContext
+	 * @return
+	 */
+	public boolean emitAllRoutes(CallbackContext callbackContext) {
+		JSONArray routes = new JSONArray();
+		synchronized (this.emittedRoutes) {
+			this.emittedRoutes.clear();
+			for (RouteInfo route : mMediaRouterCallback.getCastRoutes()) {
+				this.emittedRoutes.put(route.getId(), route.getName());
+				routes.put(routeToJSON(route));
+			}
+			for (JSONObject cached : this.cachedRoutes.values()) {
+				this.emittedRoutes.put(cached.optString("id"), cached.optString("name"));
+				routes.put(cached);
+			}
+		}
+		events.emit("routesReset", routes);
 
 		if (callbackContext != null) {
 			callbackContext.success();
@@ -685,27 +1229,87 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 	 * Checks to see how many receivers are available - emits the receiver status down to Javascript
 	 */
 	private void checkReceiverAvailable() {
-		final Activity activity = cordova.getActivity();
+		boolean available = mMediaRouterCallback.getCastRouteCount() > 0;
+		synchronized (this.emittedRoutes) {
+			available = available || !this.cachedRoutes.isEmpty();
+		}
+		if (available || (this.currentSession != null && this.currentSession.isConnected())) {
+			events.emit("receiverAvailable");
+		} else if (this.discoveryWatch.isSettled()) {
+			events.emit("receiverUnavailable");
+		}
+	}
 
-		activity.runOnUiThread(new Runnable() {
-			public void run() {
-				mMediaRouter = MediaRouter.getInstance(activity.getApplicationContext());
-				List<RouteInfo> routeList = mMediaRouter.getRoutes();
-				boolean available = false;
+	/**
+	 * Discovery found everything it is likely to find: settles the receiver availability
+	 * and tells the javascript side how long it took
+	 */
+	private void onDiscoverySettled() {
+		// Cached receivers discovery did not find are most likely gone
+		ArrayList<JSONObject> gone = new ArrayList<JSONObject>();
+		ArrayList<CallbackContext> unresolved = new ArrayList<CallbackContext>();
+		synchronized (this.emittedRoutes) {
+			this.discoveryRunSettled = true;
+			for (JSONObject cached : this.cachedRoutes.values()) {
+				this.emittedRoutes.remove(cached.optString("id"));
+				gone.add(cached);
+			}
+			this.cachedRoutes.clear();
+			unresolved.addAll(this.pendingSelections.values());
+			this.pendingSelections.clear();
+		}
+		for (JSONObject cached : gone) {
+			events.emit("routeRemoved", cached);
+		}
+		for (CallbackContext callbackContext : unresolved) {
+			callbackContext.error("No route found");
+		}
 
-				for (RouteInfo route: routeList) {
-					if (!route.getName().equals("Phone") && route.getId().indexOf("Cast") > -1) {
-						available = true;
-						break;
-					}
+		this.checkReceiverAvailable();
+		JSONObject stats = this.discoveryWatch.getStats();
+		try {
+			stats.put("receivers", mMediaRouterCallback.getCastRouteCount());
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		events.emit("discoverySettled", stats);
+	}
+
+	/**
+	 * Shows the cached receivers that discovery has not found (yet). Runs on a background thread.
+	 * @param receivers
+	 */
+	private void onReceiverCacheLoaded(List<JSONObject> receivers) {
+		ArrayList<JSONObject> added = new ArrayList<JSONObject>();
+		synchronized (this.emittedRoutes) {
+			if (this.discoveryRunSettled) {
+				return;
+			}
+			for (JSONObject receiver : receivers) {
+				String id = receiver.optString("id");
+				if (mMediaRouterCallback.getRoute(id) != null || this.emittedRoutes.containsKey(id)) {
+					continue;
 				}
-				if (available || (Chromecast.this.currentSession != null && Chromecast.this.currentSession.isConnected())) {
-					sendJavascript("chrome.cast._.receiverAvailable()");
-				} else {
-					sendJavascript("chrome.cast._.receiverUnavailable()");
+				JSONObject route = new JSONObject();
+				try {
+					route.put("name", receiver.optString("name"));
+					route.put("id", id);
+					route.put("cached", true);
+				} catch (JSONException e) {
+					e.printStackTrace();
+					continue;
 				}
+				this.cachedRoutes.put(id, route);
+				this.emittedRoutes.put(id, route.optString("name"));
+				added.add(route);
 			}
-		});
+		}
+		for (JSONObject route : added) {
+			events.emit("routeAdded", route);
+		}
+		if (!added.isEmpty() && mMediaRouter != null) {
+			this.checkReceiverAvailable();
+		}
 	}
 
 	/**
@@ -735,16 +1339,28 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 	 * @param route
 	 */
 	protected void onRouteAdded(MediaRouter router, final RouteInfo route) {
+		this.trace.instant("discovery", "routeAdded", route.getName());
 		if (this.autoConnect && this.currentSession == null && !route.getName().equals("Phone")) {
-			log("Attempting to join rouonte " + route.getName());
+			this.log.d("Attempting to join route ", route.getName());
 			this.joinSession(route);
-		} else {
-			log("For some reason, not attempting to join route " + route.getName() + ", " + this.currentSession + ", " + this.autoConnect);
+		} else if (this.log.isLoggable(ChromecastLog.DEBUG)) {
+			this.log.d("Not attempting to join route " + route.getName() + ", " + this.currentSession + ", ", this.autoConnect);
 		}
-		if (!route.getName().equals("Phone") && route.getId().indexOf("Cast") > -1) {
-			sendJavascript("chrome.cast._.routeAdded(" + routeToJSON(route) + ")");
+		if (mMediaRouterCallback.isCastReceiver(route)) {
+			this.discoveryWatch.receiverAdded();
+			this.receiverCache.record(route);
 		}
+		this.emitRouteDelta(route);
 		this.checkReceiverAvailable();
+		this.preconnectLikelyReceiver();
+
+		CallbackContext pendingSelection;
+		synchronized (this.emittedRoutes) {
+			pendingSelection = this.pendingSelections.remove(route.getId());
+		}
+		if (pendingSelection != null) {
+			this.selectRoute(route.getId(), pendingSelection);
+		}
 	}
 
 	/**
@@ -753,10 +1369,66 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 	 * @param route
 	 */
 	protected void onRouteRemoved(MediaRouter router, RouteInfo route) {
+		this.trace.instant("discovery", "routeRemoved", route.getName());
 		this.checkReceiverAvailable();
-		if (!route.getName().equals("Phone") && route.getId().indexOf("Cast") > -1) {
-			sendJavascript("chrome.cast._.routeRemoved(" + routeToJSON(route) + ")");
+		boolean wasEmitted;
+		synchronized (this.emittedRoutes) {
+			wasEmitted = this.emittedRoutes.remove(route.getId()) != null;
+			this.cachedRoutes.remove(route.getId());
+		}
+		if (route.getId().equals(this.preconnect.getRouteId())) {
+			this.preconnect.clear();
+		}
+		if (wasEmitted) {
+			events.emit("routeRemoved", routeToJSON(route));
+		}
+	}
+
+	/**
+	 * Called when a route's name, description or other properties change
+	 * @param router
+	 * @param route
+	 */
+	protected void onRouteChanged(MediaRouter router, RouteInfo route) {
+		if (mMediaRouterCallback.isCastReceiver(route)) {
+			this.receiverCache.record(route);
+		}
+		if (this.emitRouteDelta(route)) {
+			this.checkReceiverAvailable();
+		}
+	}
+
+	/**
+	 * Tells the javascript side about a route it does not know yet, a receiver whose name changed,
+	 * a cached receiver that turned out to be live, or a route that stopped being a receiver.
+	 * Nothing is sent when its copy is already current.
+	 * @param route
+	 * @return whether anything was sent
+	 */
+	private boolean emitRouteDelta(RouteInfo route) {
+		String event = null;
+		synchronized (this.emittedRoutes) {
+			String id = route.getId();
+			String emittedName = this.emittedRoutes.get(id);
+			boolean wasCached = this.cachedRoutes.remove(id) != null;
+			if (!mMediaRouterCallback.isCastReceiver(route)) {
+				if (emittedName != null) {
+					this.emittedRoutes.remove(id);
+					event = "routeRemoved";
+				}
+			} else if (emittedName == null) {
+				this.emittedRoutes.put(id, route.getName());
+				event = "routeAdded";
+			} else if (wasCached || !emittedName.equals(route.getName())) {
+				this.emittedRoutes.put(id, route.getName());
+				event = "routeChanged";
+			}
+		}
+		if (event == null) {
+			return false;
 		}
+		events.emit(event, routeToJSON(route));
+		return true;
 	}
 
 	/**
@@ -793,52 +1465,51 @@ public class Chromecast extends CordovaPlugin implements ChromecastOnMediaUpdate
 		return obj;
 	}
 
-	@Override
-	public void onMediaUpdated(boolean isAlive, JSONObject media) {
-		if (isAlive) {
-			sendJavascript("chrome.cast._.mediaUpdated(true, " + media.toString() +");");
-		} else {
-			sendJavascript("chrome.cast._.mediaUpdated(false, " + media.toString() +");");
+	/**
+	 * Drops an update while the app is paused, the session sends its full state on resume instead.
+	 * Updates about a session ending always go through.
+	 * @param isAlive
+	 * @return whether the update is to be dropped
+	 */
+	private boolean conflateUpdate(boolean isAlive) {
+		synchronized (this.pauseLock) {
+			if (isAlive && this.paused) {
+				this.updatesConflated = true;
+				return true;
+			}
+			return false;
 		}
 	}
 
 	@Override
-	public void onSessionUpdated(boolean isAlive, JSONObject session) {
-		if (isAlive) {
-			sendJavascript("chrome.cast._.sessionUpdated(true, " + session.toString() + ");");
-		} else {
-			log("SESSION DESTROYYYY");
-			sendJavascript("chrome.cast._.sessionUpdated(false, " + session.toString() + ");");
-			this.currentSession = null;
+	public void onMediaUpdated(boolean isAlive, ChromecastJsonValue media, boolean isDelta) {
+		if (this.conflateUpdate(isAlive)) {
+			return;
 		}
+		events.emit("mediaUpdated", isAlive, media, isDelta);
 	}
 
 	@Override
-	public void onMediaLoaded(JSONObject media) {
-		sendJavascript("chrome.cast._.mediaLoaded(true, " + media.toString() +");");
+	public void onSessionUpdated(ChromecastSession session, boolean isAlive, ChromecastJsonValue properties, boolean isDelta) {
+		if (this.conflateUpdate(isAlive)) {
+			return;
+		}
+		events.emit("sessionUpdated", isAlive, properties, isDelta);
+		if (!isAlive) {
+			this.log.i("Session ended ", session.getSessionId());
+			this.dropSession(session);
+			this.preconnectLikelyReceiver();
+		}
 	}
 
 	@Override
-	public void onMessage(ChromecastSession session, String namespace, String message) {
-		sendJavascript("chrome.cast._.onMessage('" + session.getSessionId() +"', '" + namespace + "', '" + message  + "')");
+	public void onMediaLoaded(ChromecastJsonValue media) {
+		events.emit("mediaLoaded", true, media);
 	}
 
-	//Change all @deprecated this.webView.sendJavascript(String) to this local function sendJavascript(String)
-	@TargetApi(Build.VERSION_CODES.KITKAT)
-	private void sendJavascript(final String javascript) {
-
-		webView.getView().post(new Runnable() {
-			@Override
-			public void run() {
-				// See: https://github.com/GoogleChrome/chromium-webview-samples/blob/master/jsinterface-example/app/src/main/java/jsinterfacesample/android/chrome/google/com/jsinterface_example/MainFragment.java
-				if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
-					webView.sendJavascript(javascript);
-				} else {
-					webView.loadUrl("javascript:" + javascript);
-				}
-			}
-		});
+	@Override
+	public void onMessage(ChromecastSession session, String namespace, String message) {
+		events.emitBounded("onMessage", session.getSessionId(), namespace, message);
 	}
 
 }
-
@@ -0,0 +1,45 @@
+package acidhax.cordova.chromecast;
+
+import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * A prebound handler for one signature of a plugin action.
+ * The argument types are matched exactly against the classes of the values in the args array,
+ * the same way the reflective dispatch in Chromecast.execute used to match method parameters.
+ */
+abstract class ChromecastAction {
+	private final Class<?>[] argTypes;
+
+	ChromecastAction(Class<?>... argTypes) {
+		this.argTypes = argTypes;
+	}
+
+	/**
+	 * Checks whether the given args fit this signature
+	 * @param args
+	 * @return
+	 * @throws JSONException
+	 */
+	boolean matches(JSONArray args) throws JSONException {
+		if (args.length() != this.argTypes.length) {
+			return false;
+		}
+		for (int i = 0; i < this.argTypes.length; i++) {
+			if (args.get(i).getClass() != this.argTypes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Runs the action. Only called with args that matched this signature.
+	 * @param args
+	 * @param callbackContext
+	 * @return
+	 * @throws JSONException
+	 */
+	abstract boolean run(JSONArray args, CallbackContext callbackContext) throws JSONException;
+}
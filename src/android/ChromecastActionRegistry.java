@@ -0,0 +1,90 @@
+package acidhax.cordova.chromecast;
+
+import java.util.HashMap;
+
+import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * Maps action names to their prebound handlers, so execute() does not have to
+ * scan the plugin's methods and invoke them through reflection on every call.
+ * Filled once when the plugin is initialized and only read afterwards.
+ */
+class ChromecastActionRegistry {
+	private final HashMap<String, ChromecastAction[]> actions = new HashMap<String, ChromecastAction[]>();
+	/** The forms taking a session id first, only tried when no unscoped overload matches */
+	private final HashMap<String, ChromecastAction[]> scoped = new HashMap<String, ChromecastAction[]>();
+
+	/**
+	 * Registers a handler for an action. Overloads (e.g. Integer and Double variants)
+	 * are registered under the same name and tried in registration order.
+	 * @param name
+	 * @param action
+	 */
+	void register(String name, ChromecastAction action) {
+		add(this.actions, name, action);
+	}
+
+	/**
+	 * Registers the session id taking form of an action. It loses to every unscoped overload,
+	 * so e.g. a scoped no-argument form never takes a call meant for a one string overload.
+	 * @param name
+	 * @param action
+	 */
+	void registerScoped(String name, ChromecastAction action) {
+		add(this.scoped, name, action);
+	}
+
+	private static void add(HashMap<String, ChromecastAction[]> actions, String name, ChromecastAction action) {
+		ChromecastAction[] existing = actions.get(name);
+		if (existing == null) {
+			actions.put(name, new ChromecastAction[] { action });
+		} else {
+			ChromecastAction[] overloads = new ChromecastAction[existing.length + 1];
+			System.arraycopy(existing, 0, overloads, 0, existing.length);
+			overloads[existing.length] = action;
+			actions.put(name, overloads);
+		}
+	}
+
+	/**
+	 * Finds the handler whose signature fits the args
+	 * @param name
+	 * @param args
+	 * @return the handler or null if the action is unknown or no signature matches
+	 * @throws JSONException
+	 */
+	ChromecastAction find(String name, JSONArray args) throws JSONException {
+		ChromecastAction action = match(this.actions.get(name), args);
+		return action != null ? action : match(this.scoped.get(name), args);
+	}
+
+	private static ChromecastAction match(ChromecastAction[] overloads, JSONArray args) throws JSONException {
+		if (overloads == null) {
+			return null;
+		}
+		for (ChromecastAction action : overloads) {
+			if (action.matches(args)) {
+				return action;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Runs the matching handler
+	 * @param name
+	 * @param args
+	 * @param callbackContext
+	 * @return false if there is no handler for the action and args
+	 * @throws JSONException
+	 */
+	boolean execute(String name, JSONArray args, CallbackContext callbackContext) throws JSONException {
+		ChromecastAction action = this.find(name, args);
+		if (action == null) {
+			return false;
+		}
+		return action.run(args, callbackContext);
+	}
+}
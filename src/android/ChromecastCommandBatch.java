@@ -0,0 +1,160 @@
+package acidhax.cordova.chromecast;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Runs an ordered list of media and receiver commands against a session in one go,
+ * without a trip over the cordova bridge between them.
+ * Every command is an array of its name followed by its arguments, e.g. ["mediaSeek", 10, "PLAYBACK_START"].
+ * Supported commands: mediaPlay, mediaPause, mediaSeek, mediaStop, setMediaVolume, setMediaMuted,
+ * setReceiverVolumeLevel and setReceiverMuted.
+ *
+ * In fail-fast mode each command is sent once the previous one succeeded, and the rest are skipped
+ * after the first failure. When continuing on errors the commands are pipelined: all of them are sent
+ * back to back, in order, and the results are collected as they come in.
+ *
+ * The callback always succeeds with a JSONArray holding one {"command", "status", "error"} object per command,
+ * status being "ok", "error" or "skipped".
+ */
+class ChromecastCommandBatch {
+	private final ChromecastSession session;
+	private final JSONArray commands;
+	private final boolean continueOnError;
+	private final ChromecastSessionCallback callback;
+
+	private final JSONObject[] results;
+	private int pending;
+
+	/**
+	 * @param session
+	 * @param commands
+	 * @param continueOnError false to stop at the first failing command
+	 * @param callback
+	 */
+	ChromecastCommandBatch(ChromecastSession session, JSONArray commands, boolean continueOnError, ChromecastSessionCallback callback) {
+		this.session = session;
+		this.commands = commands;
+		this.continueOnError = continueOnError;
+		this.callback = callback;
+		this.results = new JSONObject[commands.length()];
+		this.pending = commands.length();
+	}
+
+	void start() {
+		if (this.results.length == 0) {
+			this.callback.onSuccess(new JSONArray());
+		} else if (this.continueOnError) {
+			for (int i = 0; i < this.results.length; i++) {
+				this.send(i);
+			}
+		} else {
+			this.send(0);
+		}
+	}
+
+	private void send(final int index) {
+		ChromecastSessionCallback done = new ChromecastSessionCallback() {
+			@Override
+			void onSuccess(Object object) {
+				ChromecastCommandBatch.this.completed(index, null);
+			}
+
+			@Override
+			void onError(String reason) {
+				ChromecastCommandBatch.this.completed(index, reason != null ? reason : "session_error");
+			}
+		};
+
+		try {
+			JSONArray command = this.commands.getJSONArray(index);
+			if (!this.dispatch(command.getString(0), command, done)) {
+				done.onError("invalid_parameter");
+			}
+		} catch (JSONException e) {
+			done.onError("invalid_parameter");
+		} catch (RuntimeException e) {
+			// The Cast APIs throw IllegalStateException when the client is not connected
+			e.printStackTrace();
+			done.onError("session_error");
+		}
+	}
+
+	/**
+	 * Maps a command onto the session
+	 * @param name
+	 * @param command the command array, arguments start at index 1
+	 * @param done
+	 * @return false if the command is unknown
+	 * @throws JSONException
+	 */
+	private boolean dispatch(String name, JSONArray command, ChromecastSessionCallback done) throws JSONException {
+		ChromecastSession session = this.session;
+		if (name.equals("mediaPlay")) {
+			session.mediaPlay(done);
+		} else if (name.equals("mediaPause")) {
+			session.mediaPause(done);
+		} else if (name.equals("mediaSeek")) {
+			session.mediaSeek(command.getLong(1) * 1000, command.optString(2, ""), done);
+		} else if (name.equals("mediaStop")) {
+			session.mediaStop(done);
+		} else if (name.equals("setMediaVolume")) {
+			session.mediaSetVolume(command.getDouble(1), done);
+		} else if (name.equals("setMediaMuted")) {
+			session.mediaSetMuted(command.getBoolean(1), done);
+		} else if (name.equals("setReceiverVolumeLevel")) {
+			session.setVolume(command.getDouble(1), done);
+		} else if (name.equals("setReceiverMuted")) {
+			session.setMute(command.getBoolean(1), done);
+		} else {
+			return false;
+		}
+		return true;
+	}
+
+	private void completed(int index, String error) {
+		boolean finished;
+		int next = -1;
+		synchronized (this) {
+			if (this.results[index] != null) {
+				return;
+			}
+			this.results[index] = this.result(index, error == null ? "ok" : "error", error);
+			this.pending--;
+
+			if (!this.continueOnError && error != null) {
+				for (int i = index + 1; i < this.results.length; i++) {
+					this.results[i] = this.result(i, "skipped", null);
+					this.pending--;
+				}
+			} else if (!this.continueOnError && index + 1 < this.results.length) {
+				next = index + 1;
+			}
+			finished = this.pending == 0;
+		}
+
+		if (next != -1) {
+			this.send(next);
+		} else if (finished) {
+			JSONArray out = new JSONArray();
+			for (JSONObject result : this.results) {
+				out.put(result);
+			}
+			this.callback.onSuccess(out);
+		}
+	}
+
+	private JSONObject result(int index, String status, String error) {
+		JSONObject result = new JSONObject();
+		try {
+			JSONArray command = this.commands.optJSONArray(index);
+			result.put("command", command != null ? command.optString(0, null) : null);
+			result.put("status", status);
+			result.put("error", error);
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		return result;
+	}
+}
@@ -0,0 +1,74 @@
+package acidhax.cordova.chromecast;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+
+/**
+ * A single background thread owned by a pooled ChromecastConnection and shared by the sessions leasing it.
+ * Every Cast API call of those sessions is posted here, and the connection's GoogleApiClient delivers its
+ * callbacks and results here as well, so commands on a receiver run one at a time in the order they were
+ * issued and neither the bridge thread nor the UI thread waits on Cast work.
+ */
+class ChromecastCommandExecutor {
+	private final HandlerThread thread;
+	private final Handler handler;
+
+	/**
+	 * @param name used to name the thread
+	 */
+	ChromecastCommandExecutor(String name) {
+		this.thread = new HandlerThread("Chromecast-" + name);
+		this.thread.start();
+		this.handler = new Handler(this.thread.getLooper());
+	}
+
+	Handler getHandler() {
+		return this.handler;
+	}
+
+	/**
+	 * @return whether the caller is already running on this executor
+	 */
+	boolean isCurrentThread() {
+		return Looper.myLooper() == this.thread.getLooper();
+	}
+
+	/**
+	 * Queues a command behind the ones already posted
+	 * @param command
+	 * @return false if the executor was shut down
+	 */
+	boolean execute(Runnable command) {
+		return this.handler.post(command);
+	}
+
+	/**
+	 * Runs a command after a delay
+	 * @param command
+	 * @param delayMillis
+	 * @return false if the executor was shut down
+	 */
+	boolean executeDelayed(Runnable command, long delayMillis) {
+		return this.handler.postDelayed(command, delayMillis);
+	}
+
+	/**
+	 * Stops the thread once the commands already queued have run
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR2)
+	void shutdown() {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+			this.thread.quitSafely();
+		} else {
+			this.handler.post(new Runnable() {
+				@Override
+				public void run() {
+					ChromecastCommandExecutor.this.thread.quit();
+				}
+			});
+		}
+	}
+}
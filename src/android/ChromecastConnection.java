@@ -0,0 +1,235 @@
+package acidhax.cordova.chromecast;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.google.android.gms.cast.Cast;
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.api.GoogleApiClient;
+
+import android.content.Context;
+import android.os.Bundle;
+
+/**
+ * A GoogleApiClient connected to one receiver, together with the thread its callbacks and results arrive on.
+ * Leased from the ChromecastConnectionPool by the sessions on that receiver, which run their commands on
+ * its executor. Connection callbacks go to the attached sessions that asked to connect, not to pre-connections.
+ * The receiver runs one app at a time, so its Cast callbacks and channel messages go to the session that
+ * launched or joined it last, the owner. The connection is the only message callback registered with the client,
+ * sessions listen through it instead of overwriting each other's callbacks.
+ */
+class ChromecastConnection extends Cast.Listener
+		implements GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener, Cast.MessageReceivedCallback {
+	private final String key;
+	private final ChromecastMetrics metrics;
+	private final ChromecastTrace trace;
+	private final ChromecastCommandExecutor executor;
+	private final GoogleApiClient client;
+	private final CopyOnWriteArrayList<ChromecastSession> sessions = new CopyOnWriteArrayList<ChromecastSession>();
+	private volatile ChromecastSession owner = null;
+	/** The namespaces registered with the client, only touched on the executor */
+	private final HashSet<String> namespaces = new HashSet<String>();
+
+	/** Guarded by the pool */
+	int leases = 0;
+	Runnable evictor = null;
+	private volatile boolean failed = false;
+	/** When connect() started the attempt in flight, 0 if there is none */
+	private volatile long connectStartedAt = 0;
+
+	/**
+	 * @param context
+	 * @param metrics records how long connecting took
+	 * @param trace
+	 * @param device
+	 * @param key the pool key
+	 * @param name used to name the thread
+	 */
+	ChromecastConnection(Context context, ChromecastMetrics metrics, ChromecastTrace trace, CastDevice device, String key, String name) {
+		this.key = key;
+		this.metrics = metrics;
+		this.trace = trace;
+		this.executor = new ChromecastCommandExecutor(name);
+		this.client = new GoogleApiClient.Builder(context)
+			.addApi(Cast.API, Cast.CastOptions.builder(device, this).build())
+			.addConnectionCallbacks(this)
+			.addOnConnectionFailedListener(this)
+			.setHandler(this.executor.getHandler())
+			.build();
+	}
+
+	String getKey() {
+		return this.key;
+	}
+
+	ChromecastCommandExecutor getExecutor() {
+		return this.executor;
+	}
+
+	GoogleApiClient getClient() {
+		return this.client;
+	}
+
+	/**
+	 * Starts connecting unless the client is connected or connecting already
+	 */
+	void connect() {
+		if (!this.client.isConnected() && !this.client.isConnecting()) {
+			this.failed = false;
+			this.connectStartedAt = ChromecastMetrics.now();
+			this.client.connect();
+		}
+	}
+
+	/**
+	 * @return false if the last connection attempt failed, the connection should not be handed out again
+	 */
+	boolean isHealthy() {
+		return !this.failed;
+	}
+
+	void attach(ChromecastSession session) {
+		this.sessions.addIfAbsent(session);
+	}
+
+	/**
+	 * Stops passing callbacks to the session. If it owned the receiver, a connected session left on it takes over.
+	 * Once no session is left, the message callbacks are unregistered.
+	 * @param session
+	 */
+	void detach(ChromecastSession session) {
+		this.sessions.remove(session);
+		if (this.owner == session) {
+			this.owner = null;
+			for (ChromecastSession other : this.sessions) {
+				if (other.isConnected()) {
+					this.owner = other;
+				}
+			}
+		}
+		if (this.sessions.isEmpty()) {
+			this.stopListening();
+		}
+	}
+
+	/**
+	 * Makes the session the one the receiver's app callbacks and messages go to, once it launched or joined the app.
+	 * @param session
+	 */
+	void own(ChromecastSession session) {
+		this.owner = session;
+	}
+
+	/**
+	 * Registers for the messages of a namespace, they are passed on to the owner. Also registers again
+	 * after the client reconnected. Runs on the executor.
+	 * @param namespace
+	 * @throws IOException
+	 */
+	void listen(String namespace) throws IOException {
+		Cast.CastApi.setMessageReceivedCallbacks(this.client, namespace, this);
+		this.namespaces.add(namespace);
+	}
+
+	private void stopListening() {
+		if (this.client.isConnected()) {
+			for (String namespace : this.namespaces) {
+				try {
+					Cast.CastApi.removeMessageReceivedCallbacks(this.client, namespace);
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		this.namespaces.clear();
+	}
+
+	/**
+	 * Fails the commands the attached sessions are still waiting on, then disconnects and stops the thread
+	 * once the commands already queued have run. Deadlines do not fire after that.
+	 */
+	void close() {
+		this.executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				for (ChromecastSession session : ChromecastConnection.this.sessions) {
+					session.connectionClosed();
+				}
+				ChromecastConnection.this.client.disconnect();
+			}
+		});
+		this.executor.shutdown();
+	}
+
+	@Override
+	public void onConnected(Bundle connectionHint) {
+		this.failed = false;
+		if (this.connectStartedAt != 0) {
+			this.metrics.record("connect", this.connectStartedAt);
+			this.trace.complete("connection", "connect", this.connectStartedAt, this.key);
+			this.connectStartedAt = 0;
+		}
+		for (ChromecastSession session : this.sessions) {
+			if (session.isConnectRequested()) {
+				session.onConnected(connectionHint);
+			}
+		}
+	}
+
+	@Override
+	public void onConnectionSuspended(int cause) {
+		this.trace.instant("connection", "connectionSuspended", this.key);
+		for (ChromecastSession session : this.sessions) {
+			if (session.isConnectRequested()) {
+				session.onConnectionSuspended(cause);
+			}
+		}
+	}
+
+	@Override
+	public void onConnectionFailed(ConnectionResult result) {
+		this.failed = true;
+		this.connectStartedAt = 0;
+		this.metrics.error("connect", "channel_error");
+		this.trace.instant("connection", "connectFailed", this.key);
+		for (ChromecastSession session : this.sessions) {
+			if (session.isConnectRequested()) {
+				session.onConnectionFailed(result);
+			}
+		}
+	}
+
+	@Override
+	public void onApplicationStatusChanged() {
+		ChromecastSession owner = this.owner;
+		if (owner != null) {
+			owner.onApplicationStatusChanged();
+		}
+	}
+
+	@Override
+	public void onVolumeChanged() {
+		ChromecastSession owner = this.owner;
+		if (owner != null) {
+			owner.onVolumeChanged();
+		}
+	}
+
+	@Override
+	public void onApplicationDisconnected(int errorCode) {
+		ChromecastSession owner = this.owner;
+		if (owner != null) {
+			owner.onApplicationDisconnected(errorCode);
+		}
+	}
+
+	@Override
+	public void onMessageReceived(CastDevice castDevice, String namespace, String message) {
+		ChromecastSession owner = this.owner;
+		if (owner != null) {
+			owner.onChannelMessage(castDevice, namespace, message);
+		}
+	}
+}
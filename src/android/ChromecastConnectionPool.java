@@ -0,0 +1,156 @@
+package acidhax.cordova.chromecast;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.google.android.gms.cast.CastDevice;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Keeps one connection per receiver, keyed by CastDevice id, and lends it to the sessions on that receiver.
+ * Connections are reference counted: once the last session released one, it stays open for idleMs
+ * (javascript "connectionPool" option, {"idleMs": 30000}) so the next session on the receiver, e.g. after
+ * switching apps or an auto join attempt, does not pay the connection setup again. A connection whose last
+ * attempt failed is replaced instead of being handed out.
+ */
+class ChromecastConnectionPool {
+	static final long DEFAULT_IDLE_MILLIS = 30000;
+
+	private final Context context;
+	private final ChromecastMetrics metrics;
+	private final ChromecastTrace trace;
+	private final Handler handler = new Handler(Looper.getMainLooper());
+	private final HashMap<String, ChromecastConnection> connections = new HashMap<String, ChromecastConnection>();
+	private long idleMillis = DEFAULT_IDLE_MILLIS;
+
+	private int created = 0;
+	private int reused = 0;
+	private int evicted = 0;
+	private int replaced = 0;
+
+	/**
+	 * @param context the application context
+	 * @param metrics
+	 * @param trace
+	 */
+	ChromecastConnectionPool(Context context, ChromecastMetrics metrics, ChromecastTrace trace) {
+		this.context = context;
+		this.metrics = metrics;
+		this.trace = trace;
+	}
+
+	/**
+	 * Applies the javascript supplied options
+	 * @param options may be null
+	 */
+	synchronized void configure(JSONObject options) {
+		if (options == null) {
+			return;
+		}
+		this.idleMillis = Math.max(0, options.optLong("idleMs", this.idleMillis));
+	}
+
+	/**
+	 * Lends the connection to a receiver, opening a new one if there is none or it is broken.
+	 * The connection is not connected yet when it is new.
+	 * @param device
+	 * @param key identifies the receiver, the CastDevice id
+	 * @param name used to name the connection's thread
+	 * @return
+	 */
+	synchronized ChromecastConnection lease(CastDevice device, String key, String name) {
+		ChromecastConnection connection = this.connections.get(key);
+		if (connection != null && !connection.isHealthy() && connection.leases == 0) {
+			this.remove(connection);
+			this.replaced++;
+			connection = null;
+		}
+		if (connection == null) {
+			connection = new ChromecastConnection(this.context, this.metrics, this.trace, device, key, name);
+			this.connections.put(key, connection);
+			this.created++;
+		} else {
+			this.reused++;
+		}
+		if (connection.evictor != null) {
+			this.handler.removeCallbacks(connection.evictor);
+			connection.evictor = null;
+		}
+		connection.leases++;
+		return connection;
+	}
+
+	/**
+	 * Hands a connection back. The session stops getting its callbacks.
+	 * @param connection
+	 * @param session
+	 */
+	synchronized void release(final ChromecastConnection connection, ChromecastSession session) {
+		connection.detach(session);
+		if (--connection.leases > 0 || this.connections.get(connection.getKey()) != connection) {
+			return;
+		}
+		connection.evictor = new Runnable() {
+			@Override
+			public void run() {
+				ChromecastConnectionPool.this.evict(connection);
+			}
+		};
+		this.handler.postDelayed(connection.evictor, this.idleMillis);
+	}
+
+	private synchronized void evict(ChromecastConnection connection) {
+		if (connection.leases == 0 && this.connections.get(connection.getKey()) == connection) {
+			this.remove(connection);
+			this.evicted++;
+		}
+	}
+
+	private void remove(ChromecastConnection connection) {
+		this.connections.remove(connection.getKey());
+		if (connection.evictor != null) {
+			this.handler.removeCallbacks(connection.evictor);
+			connection.evictor = null;
+		}
+		connection.close();
+	}
+
+	/**
+	 * Closes every connection, leased or not
+	 */
+	synchronized void clear() {
+		for (ChromecastConnection connection : new ArrayList<ChromecastConnection>(this.connections.values())) {
+			this.remove(connection);
+		}
+	}
+
+	/**
+	 * @return {open, leased, created, reused, evicted, replaced}
+	 */
+	synchronized JSONObject getStats() {
+		JSONObject stats = new JSONObject();
+		int leased = 0;
+		for (ChromecastConnection connection : this.connections.values()) {
+			if (connection.leases > 0) {
+				leased++;
+			}
+		}
+		try {
+			stats.put("open", this.connections.size());
+			stats.put("leased", leased);
+			stats.put("created", this.created);
+			stats.put("reused", this.reused);
+			stats.put("evicted", this.evicted);
+			stats.put("replaced", this.replaced);
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		return stats;
+	}
+}
@@ -0,0 +1,205 @@
+package acidhax.cordova.chromecast;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.v7.media.MediaRouteSelector;
+import android.support.v7.media.MediaRouter;
+
+/**
+ * Decides how hard the MediaRouter looks for receivers and re-registers the route callback when that changes.
+ * <ul>
+ * <li>active: active scan, used in short bursts after initialize, resume and requestSession</li>
+ * <li>passive: discovery without active scanning</li>
+ * <li>off: no discovery requested, the callback only hears about routes others discover</li>
+ * </ul>
+ * The mode follows the app lifecycle and session state, as configured by the javascript "discovery" option:
+ * {"burstMs": 15000, "idle": "passive", "whileConnected": "passive", "inBackground": "off"}.
+ * The time spent in each mode is kept for getDiscoveryStats.
+ * All router calls happen on the main thread.
+ */
+class ChromecastDiscoveryPolicy implements Runnable {
+	enum Mode {
+		ACTIVE, PASSIVE, OFF;
+
+		int flags() {
+			switch (this) {
+				case ACTIVE:
+					return MediaRouter.CALLBACK_FLAG_REQUEST_DISCOVERY | MediaRouter.CALLBACK_FLAG_PERFORM_ACTIVE_SCAN;
+				case PASSIVE:
+					return MediaRouter.CALLBACK_FLAG_REQUEST_DISCOVERY;
+			}
+			return 0;
+		}
+
+		String key() {
+			return this.name().toLowerCase();
+		}
+
+		static Mode parse(String mode, Mode fallback) {
+			for (Mode m : values()) {
+				if (m.key().equals(mode)) {
+					return m;
+				}
+			}
+			return fallback;
+		}
+	}
+
+	private final Handler handler = new Handler(Looper.getMainLooper());
+
+	private MediaRouter router = null;
+	private MediaRouteSelector selector = null;
+	private MediaRouter.Callback callback = null;
+
+	private long burstMillis = 15000;
+	private Mode idle = Mode.PASSIVE;
+	private Mode whileConnected = Mode.PASSIVE;
+	private Mode inBackground = Mode.OFF;
+
+	private boolean foreground = true;
+	private boolean sessionActive = false;
+	private long burstUntil = 0;
+
+	private Mode mode = null;
+	private boolean registered = false;
+	private long modeSince = 0;
+	private final long[] timeInMode = new long[Mode.values().length];
+	private int switches = 0;
+
+	/**
+	 * Applies the javascript supplied policy
+	 * @param options may be null
+	 */
+	synchronized void configure(JSONObject options) {
+		if (options == null) {
+			return;
+		}
+		this.burstMillis = options.optLong("burstMs", this.burstMillis);
+		this.idle = Mode.parse(options.optString("idle"), this.idle);
+		this.whileConnected = Mode.parse(options.optString("whileConnected"), this.whileConnected);
+		this.inBackground = Mode.parse(options.optString("inBackground"), this.inBackground);
+		this.schedule();
+	}
+
+	/**
+	 * Starts managing the callback's registration, beginning with an active burst. Must be called on the main thread.
+	 * @param router
+	 * @param selector
+	 * @param callback
+	 */
+	void attach(MediaRouter router, MediaRouteSelector selector, MediaRouter.Callback callback) {
+		synchronized (this) {
+			this.router = router;
+			this.selector = selector;
+			this.callback = callback;
+			this.registered = false;
+			this.burstUntil = SystemClock.elapsedRealtime() + this.burstMillis;
+		}
+		this.run();
+	}
+
+	/**
+	 * Scans actively for a while, e.g. because the user is about to pick a receiver
+	 */
+	synchronized void burst() {
+		this.burstUntil = SystemClock.elapsedRealtime() + this.burstMillis;
+		this.schedule();
+	}
+
+	synchronized void setForeground(boolean foreground) {
+		this.foreground = foreground;
+		if (foreground) {
+			this.burstUntil = SystemClock.elapsedRealtime() + this.burstMillis;
+		}
+		this.schedule();
+	}
+
+	synchronized void setSessionActive(boolean sessionActive) {
+		if (this.sessionActive != sessionActive) {
+			this.sessionActive = sessionActive;
+			this.schedule();
+		}
+	}
+
+	private void schedule() {
+		this.handler.removeCallbacks(this);
+		this.handler.post(this);
+	}
+
+	/**
+	 * Re-evaluates the mode and re-registers the callback if it changed. Runs on the main thread.
+	 */
+	@Override
+	public void run() {
+		Mode next;
+		MediaRouter router;
+		long burstLeft;
+		synchronized (this) {
+			router = this.router;
+			if (router == null) {
+				return;
+			}
+			long now = SystemClock.elapsedRealtime();
+			burstLeft = this.burstUntil - now;
+
+			if (!this.foreground) {
+				next = this.inBackground;
+			} else if (this.sessionActive) {
+				next = this.whileConnected;
+			} else if (burstLeft > 0) {
+				next = Mode.ACTIVE;
+			} else {
+				next = this.idle;
+			}
+
+			if (next != this.mode) {
+				if (this.mode != null) {
+					this.timeInMode[this.mode.ordinal()] += now - this.modeSince;
+					this.switches++;
+				}
+				this.mode = next;
+				this.modeSince = now;
+			} else if (this.registered) {
+				next = null;
+			}
+			this.registered = true;
+		}
+
+		if (next != null) {
+			// Adding a callback that is already registered only updates its selector and flags
+			router.addCallback(this.selector, this.callback, next.flags());
+		}
+		if (burstLeft > 0) {
+			this.handler.removeCallbacks(this);
+			this.handler.postDelayed(this, burstLeft);
+		}
+	}
+
+	/**
+	 * @return the current mode, the milliseconds spent in each mode and how often the mode changed
+	 */
+	synchronized JSONObject getStats() {
+		JSONObject stats = new JSONObject();
+		JSONObject times = new JSONObject();
+		try {
+			long now = SystemClock.elapsedRealtime();
+			for (Mode m : Mode.values()) {
+				long time = this.timeInMode[m.ordinal()];
+				if (m == this.mode) {
+					time += now - this.modeSince;
+				}
+				times.put(m.key(), time);
+			}
+			stats.put("mode", this.mode != null ? this.mode.key() : null);
+			stats.put("timeInMode", times);
+			stats.put("switches", this.switches);
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		return stats;
+	}
+}
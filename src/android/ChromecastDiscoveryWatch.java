@@ -0,0 +1,118 @@
+package acidhax.cordova.chromecast;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+/**
+ * Watches receivers arrive after discovery starts and decides when discovery has settled:
+ * once no new receiver showed up for a quiet window, or after MAX_SETTLE_MILLIS at the latest.
+ * Until the first receiver arrived there is no quiet window, only MAX_SETTLE_MILLIS.
+ * The quiet window adapts to the network, it is twice the longest gap seen between arrivals so far,
+ * kept between MIN_QUIET_MILLIS and MAX_QUIET_MILLIS.
+ * Also measures the time it took for the first receiver to appear.
+ */
+class ChromecastDiscoveryWatch implements Runnable {
+	static final long MIN_QUIET_MILLIS = 300;
+	static final long MAX_QUIET_MILLIS = 3000;
+	static final long MAX_SETTLE_MILLIS = 10000;
+
+	private final Handler handler = new Handler(Looper.getMainLooper());
+	private final Runnable onSettled;
+
+	private long startedAt = 0;
+	private long settledAt = 0;
+	private long lastArrival = 0;
+	private long longestGap = 0;
+	private long timeToFirstReceiver = -1;
+	private int arrivals = 0;
+	private boolean settled = true;
+
+	/**
+	 * @param onSettled run on the main thread when discovery settles
+	 */
+	ChromecastDiscoveryWatch(Runnable onSettled) {
+		this.onSettled = onSettled;
+	}
+
+	/**
+	 * Starts watching a new discovery run
+	 * @param knownReceivers receivers that were already known when discovery started
+	 */
+	synchronized void start(int knownReceivers) {
+		long now = SystemClock.elapsedRealtime();
+		this.startedAt = now;
+		this.lastArrival = now;
+		this.longestGap = 0;
+		this.arrivals = knownReceivers;
+		this.timeToFirstReceiver = knownReceivers > 0 ? 0 : -1;
+		this.settled = false;
+		this.reschedule(now);
+	}
+
+	/**
+	 * Records the arrival of a receiver
+	 */
+	synchronized void receiverAdded() {
+		if (this.settled) {
+			return;
+		}
+		long now = SystemClock.elapsedRealtime();
+		if (this.arrivals == 0) {
+			this.timeToFirstReceiver = now - this.startedAt;
+		} else {
+			this.longestGap = Math.max(this.longestGap, now - this.lastArrival);
+		}
+		this.arrivals++;
+		this.lastArrival = now;
+		this.reschedule(now);
+	}
+
+	synchronized boolean isSettled() {
+		return this.settled;
+	}
+
+	private long quietWindow() {
+		return Math.min(MAX_QUIET_MILLIS, Math.max(MIN_QUIET_MILLIS, this.longestGap * 2));
+	}
+
+	private void reschedule(long now) {
+		long settleAt = this.startedAt + MAX_SETTLE_MILLIS;
+		if (this.arrivals > 0) {
+			settleAt = Math.min(this.lastArrival + this.quietWindow(), settleAt);
+		}
+		this.handler.removeCallbacks(this);
+		this.handler.postDelayed(this, Math.max(0, settleAt - now));
+	}
+
+	@Override
+	public void run() {
+		synchronized (this) {
+			if (this.settled) {
+				return;
+			}
+			this.settled = true;
+			this.settledAt = SystemClock.elapsedRealtime();
+		}
+		this.onSettled.run();
+	}
+
+	/**
+	 * @return {settled, timeToSettle, timeToFirstReceiver} of the last discovery run, times in milliseconds,
+	 * timeToFirstReceiver being -1 when none was found
+	 */
+	synchronized JSONObject getStats() {
+		JSONObject stats = new JSONObject();
+		try {
+			stats.put("settled", this.settled);
+			stats.put("timeToSettle", (this.settled ? this.settledAt : SystemClock.elapsedRealtime()) - this.startedAt);
+			stats.put("timeToFirstReceiver", this.timeToFirstReceiver);
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		return stats;
+	}
+}
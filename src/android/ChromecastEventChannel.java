@@ -0,0 +1,228 @@
+package acidhax.cordova.chromecast;
+
+import java.util.ArrayList;
+
+import org.apache.cordova.CallbackContext;
+import org.apache.cordova.CordovaWebView;
+import org.apache.cordova.PluginResult;
+import org.json.JSONObject;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+
+/**
+ * Delivers the events headed for chrome.cast._ over the long-lived callback registered by "setup".
+ * Events are collected and sent once per frame as a single PluginResult holding an array of events,
+ * each event being an array of the handler name followed by its arguments.
+ * The batch is streamed into one reused buffer, snapshots write themselves straight into it.
+ * Events emitted before "setup" was called are held until the callback is available.
+ * While the app is paused nothing is flushed. Events emitted through emitBounded, the receiver messages,
+ * are then capped at maxBounded, the overflow dropping either the oldest or the newest of them.
+ * Everything held is sent in one batch on resume.
+ */
+class ChromecastEventChannel implements Runnable {
+	private final CordovaWebView webView;
+	private final ChromecastTrace trace;
+	private final ChromecastJsonWriter writer = new ChromecastJsonWriter(4096);
+
+	private CallbackContext callbackContext = null;
+	private ArrayList<Object[]> pending = new ArrayList<Object[]>();
+	private ArrayList<Object[]> spare = new ArrayList<Object[]>();
+	private boolean flushScheduled = false;
+	/** Set by setup until its first result went out, resume sends it even when nothing is pending */
+	private boolean firstResultOwed = false;
+
+	private boolean paused = false;
+	private int maxBounded = 100;
+	private boolean dropOldest = true;
+	private int bounded = 0;
+	private int dropped = 0;
+
+	/**
+	 * @param webView
+	 * @param trace where flushes are traced
+	 */
+	ChromecastEventChannel(CordovaWebView webView, ChromecastTrace trace) {
+		this.webView = webView;
+		this.trace = trace;
+	}
+
+	/**
+	 * Sets the callback the events are sent to and delivers anything held so far on the next frame,
+	 * like every other flush on the UI thread.
+	 * That first result is sent even when empty, it is what tells the javascript side that setup succeeded.
+	 * @param callbackContext the keep-alive callback from "setup", or null to hold events again
+	 */
+	void setCallbackContext(CallbackContext callbackContext) {
+		synchronized (this) {
+			this.callbackContext = callbackContext;
+			if (callbackContext == null) {
+				return;
+			}
+			this.firstResultOwed = true;
+			if (this.flushScheduled || this.paused) {
+				return;
+			}
+			this.flushScheduled = true;
+		}
+		this.scheduleFlush();
+	}
+
+	/**
+	 * Applies the javascript supplied options
+	 * @param options may be null, {"maxMessages": 100, "overflow": "dropOldest"}, overflow may also be "dropNewest"
+	 */
+	synchronized void configureBackground(JSONObject options) {
+		if (options == null) {
+			return;
+		}
+		this.maxBounded = Math.max(0, options.optInt("maxMessages", this.maxBounded));
+		this.dropOldest = !"dropNewest".equals(options.optString("overflow", this.dropOldest ? "dropOldest" : "dropNewest"));
+	}
+
+	/**
+	 * Holds the events until resume
+	 */
+	synchronized void pause() {
+		this.paused = true;
+	}
+
+	/**
+	 * Sends everything held while paused
+	 * @return how many bounded events were dropped while paused
+	 */
+	int resume() {
+		int dropped;
+		synchronized (this) {
+			this.paused = false;
+			this.bounded = 0;
+			dropped = this.dropped;
+			this.dropped = 0;
+			if (this.flushScheduled || this.callbackContext == null || (this.pending.isEmpty() && !this.firstResultOwed)) {
+				return dropped;
+			}
+			this.flushScheduled = true;
+		}
+		this.scheduleFlush();
+		return dropped;
+	}
+
+	/**
+	 * Queues an event for the next flush
+	 * @param name the chrome.cast._ handler to call
+	 * @param args the handler arguments: strings, numbers, booleans, org.json values or ChromecastJsonValues
+	 */
+	void emit(String name, Object... args) {
+		this.enqueue(false, name, args);
+	}
+
+	/**
+	 * Queues an event that is capped while the app is paused
+	 * @param name the chrome.cast._ handler to call
+	 * @param args the handler arguments
+	 */
+	void emitBounded(String name, Object... args) {
+		this.enqueue(true, name, args);
+	}
+
+	private void enqueue(boolean isBounded, String name, Object[] args) {
+		Object[] event = new Object[args.length + 1];
+		event[0] = name;
+		System.arraycopy(args, 0, event, 1, args.length);
+
+		synchronized (this) {
+			if (this.paused && isBounded && !this.makeRoom(name)) {
+				this.dropped++;
+				return;
+			}
+			this.pending.add(event);
+			if (this.flushScheduled || this.callbackContext == null || this.paused) {
+				return;
+			}
+			this.flushScheduled = true;
+		}
+		this.scheduleFlush();
+	}
+
+	/**
+	 * Counts a bounded event about to be held, dropping the oldest one held when over the cap and configured so
+	 * @param name
+	 * @return false if the new event is to be dropped
+	 */
+	private boolean makeRoom(String name) {
+		if (this.bounded < this.maxBounded) {
+			this.bounded++;
+			return true;
+		}
+		if (!this.dropOldest || this.maxBounded == 0) {
+			return false;
+		}
+		for (int i = 0, size = this.pending.size(); i < size; i++) {
+			if (name.equals(this.pending.get(i)[0])) {
+				this.pending.remove(i);
+				this.dropped++;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+	private void scheduleFlush() {
+		if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+			this.webView.getView().postOnAnimation(this);
+		} else {
+			this.webView.getView().post(this);
+		}
+	}
+
+	/**
+	 * Flushes everything queued since the last frame. Runs on the UI thread.
+	 */
+	@Override
+	public void run() {
+		long startedAt = ChromecastMetrics.now();
+		CallbackContext target;
+		ArrayList<Object[]> batch;
+		synchronized (this) {
+			target = this.callbackContext;
+			if (target == null || !this.flushScheduled) {
+				return;
+			}
+			this.flushScheduled = false;
+			if (this.paused) {
+				// resume schedules the flush again
+				return;
+			}
+			this.firstResultOwed = false;
+			batch = this.pending;
+			this.pending = this.spare;
+			this.spare = batch;
+		}
+
+		String payload;
+		synchronized (this.writer) {
+			ChromecastJsonWriter writer = this.writer.reset();
+			writer.beginArray();
+			for (int i = 0, size = batch.size(); i < size; i++) {
+				Object[] event = batch.get(i);
+				writer.beginArray();
+				for (Object value : event) {
+					writer.value(value);
+				}
+				writer.endArray();
+			}
+			writer.endArray();
+			payload = writer.toString();
+		}
+		int events = batch.size();
+		batch.clear();
+
+		// Sent as a string: the bridge hands JSON results to javascript through JSON.parse anyway,
+		// chrome.cast.js does the same with this one
+		PluginResult result = new PluginResult(PluginResult.Status.OK, payload);
+		result.setKeepCallback(true);
+		target.sendPluginResult(result);
+		this.trace.complete("bridge", "flush", startedAt, events + " events, " + payload.length() + " chars");
+	}
+}
@@ -0,0 +1,108 @@
+package acidhax.cordova.chromecast;
+
+import java.util.Arrays;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * A latency histogram of fixed size, in the manner of HdrHistogram: values are counted in buckets whose width
+ * doubles with every power of two, each power of two being split into SUB_BUCKETS linear sub-buckets.
+ * Values are microseconds, recorded exactly below 32 and within about 6% above, up to MAX_VALUE.
+ * Percentiles report the highest value of the bucket they fall in.
+ */
+class ChromecastHistogram {
+	private static final int SUB_BUCKET_BITS = 4;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/** Values from 0 to 2 * SUB_BUCKETS - 1 each have a bucket of their own */
+	private static final int EXACT = 2 * SUB_BUCKETS;
+	private static final int MAX_SHIFT = 32;
+	/** About 38 hours, larger values are counted as this */
+	static final long MAX_VALUE = (1L << (MAX_SHIFT + SUB_BUCKET_BITS + 1)) - 1;
+
+	private final long[] counts = new long[EXACT + MAX_SHIFT * SUB_BUCKETS];
+	private long count = 0;
+	private long total = 0;
+	private long min = Long.MAX_VALUE;
+	private long max = 0;
+
+	private static int indexOf(long value) {
+		if (value < EXACT) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return EXACT + (shift - 1) * SUB_BUCKETS + (int) (value >> shift) - SUB_BUCKETS;
+	}
+
+	private static long highestValueAt(int index) {
+		if (index < EXACT) {
+			return index;
+		}
+		int shift = (index - EXACT) / SUB_BUCKETS + 1;
+		long sub = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+		return ((sub + 1) << shift) - 1;
+	}
+
+	/**
+	 * @param micros
+	 */
+	synchronized void record(long micros) {
+		long value = Math.min(MAX_VALUE, Math.max(0, micros));
+		this.counts[indexOf(value)]++;
+		this.count++;
+		this.total += value;
+		this.min = Math.min(this.min, value);
+		this.max = Math.max(this.max, value);
+	}
+
+	synchronized long getCount() {
+		return this.count;
+	}
+
+	/**
+	 * @param percentile 0 to 100
+	 * @return in microseconds, 0 when nothing was recorded
+	 */
+	synchronized long valueAt(double percentile) {
+		if (this.count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+		long seen = 0;
+		for (int i = 0; i < this.counts.length; i++) {
+			seen += this.counts[i];
+			if (seen >= rank) {
+				return Math.min(this.max, highestValueAt(i));
+			}
+		}
+		return this.max;
+	}
+
+	synchronized void reset() {
+		Arrays.fill(this.counts, 0);
+		this.count = 0;
+		this.total = 0;
+		this.min = Long.MAX_VALUE;
+		this.max = 0;
+	}
+
+	/**
+	 * @return {count, min, mean, p50, p90, p99, p999, max} in milliseconds
+	 */
+	synchronized JSONObject toJSON() throws JSONException {
+		JSONObject json = new JSONObject();
+		json.put("count", this.count);
+		json.put("min", millis(this.count > 0 ? this.min : 0));
+		json.put("mean", this.count > 0 ? millis(this.total / this.count) : 0);
+		json.put("p50", millis(this.valueAt(50)));
+		json.put("p90", millis(this.valueAt(90)));
+		json.put("p99", millis(this.valueAt(99)));
+		json.put("p999", millis(this.valueAt(99.9)));
+		json.put("max", millis(this.max));
+		return json;
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+}
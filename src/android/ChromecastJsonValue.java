@@ -0,0 +1,8 @@
+package acidhax.cordova.chromecast;
+
+/**
+ * Something that can stream itself as JSON, without building an org.json tree first.
+ */
+interface ChromecastJsonValue {
+	void writeTo(ChromecastJsonWriter writer);
+}
@@ -0,0 +1,209 @@
+package acidhax.cordova.chromecast;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Streams JSON into a reusable buffer. The output is the same as org.json's toString() for the same
+ * content and key order (including the escaping of '/' and the formatting of whole doubles as longs),
+ * so snapshots written with it look exactly like the JSONObjects they replace.
+ * Not thread safe, callers that share a writer have to synchronize on it.
+ */
+class ChromecastJsonWriter {
+	private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+	private final int initialCapacity;
+	private final StringBuilder out;
+	private boolean needsComma = false;
+
+	ChromecastJsonWriter(int initialCapacity) {
+		this.initialCapacity = initialCapacity;
+		this.out = new StringBuilder(initialCapacity);
+	}
+
+	/**
+	 * Empties the buffer so it can be reused. Buffers that grew unusually large are shrunk back.
+	 * @return
+	 */
+	ChromecastJsonWriter reset() {
+		this.out.setLength(0);
+		if (this.out.capacity() > MAX_RETAINED_CAPACITY) {
+			this.out.trimToSize();
+			this.out.ensureCapacity(this.initialCapacity);
+		}
+		this.needsComma = false;
+		return this;
+	}
+
+	ChromecastJsonWriter beginObject() {
+		this.separate();
+		this.out.append('{');
+		this.needsComma = false;
+		return this;
+	}
+
+	ChromecastJsonWriter endObject() {
+		this.out.append('}');
+		this.needsComma = true;
+		return this;
+	}
+
+	ChromecastJsonWriter beginArray() {
+		this.separate();
+		this.out.append('[');
+		this.needsComma = false;
+		return this;
+	}
+
+	ChromecastJsonWriter endArray() {
+		this.out.append(']');
+		this.needsComma = true;
+		return this;
+	}
+
+	ChromecastJsonWriter key(String name) {
+		this.separate();
+		this.string(name);
+		this.out.append(':');
+		this.needsComma = false;
+		return this;
+	}
+
+	ChromecastJsonWriter nullValue() {
+		this.separate();
+		this.out.append("null");
+		this.needsComma = true;
+		return this;
+	}
+
+	ChromecastJsonWriter value(String value) {
+		if (value == null) {
+			return this.nullValue();
+		}
+		this.separate();
+		this.string(value);
+		this.needsComma = true;
+		return this;
+	}
+
+	ChromecastJsonWriter value(boolean value) {
+		this.separate();
+		this.out.append(value);
+		this.needsComma = true;
+		return this;
+	}
+
+	ChromecastJsonWriter value(long value) {
+		this.separate();
+		this.out.append(value);
+		this.needsComma = true;
+		return this;
+	}
+
+	/**
+	 * Writes a double the way org.json does: whole numbers without a fraction, "-0" for negative zero.
+	 * NaN and infinities, which org.json refuses, are written as null.
+	 * @param value
+	 * @return
+	 */
+	ChromecastJsonWriter value(double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			return this.nullValue();
+		}
+		this.separate();
+		if (value == 0 && Double.doubleToRawLongBits(value) != 0) {
+			this.out.append("-0");
+		} else if (value == (double) (long) value) {
+			this.out.append((long) value);
+		} else {
+			this.out.append(value);
+		}
+		this.needsComma = true;
+		return this;
+	}
+
+	/**
+	 * Writes any value that can end up in an event: strings, booleans, numbers,
+	 * org.json objects and arrays, and ChromecastJsonValues.
+	 * @param value
+	 * @return
+	 */
+	ChromecastJsonWriter value(Object value) {
+		if (value == null || value == JSONObject.NULL) {
+			return this.nullValue();
+		} else if (value instanceof ChromecastJsonValue) {
+			((ChromecastJsonValue) value).writeTo(this);
+			return this;
+		} else if (value instanceof String) {
+			return this.value((String) value);
+		} else if (value instanceof Boolean) {
+			return this.value(((Boolean) value).booleanValue());
+		} else if (value instanceof Double || value instanceof Float) {
+			return this.value(((Number) value).doubleValue());
+		} else if (value instanceof Number) {
+			return this.value(((Number) value).longValue());
+		} else if (value instanceof JSONObject || value instanceof JSONArray) {
+			return this.raw(value.toString());
+		}
+		return this.value(value.toString());
+	}
+
+	/**
+	 * Appends already encoded JSON
+	 * @param json
+	 * @return
+	 */
+	ChromecastJsonWriter raw(String json) {
+		this.separate();
+		this.out.append(json);
+		this.needsComma = true;
+		return this;
+	}
+
+	int length() {
+		return this.out.length();
+	}
+
+	@Override
+	public String toString() {
+		return this.out.toString();
+	}
+
+	private void separate() {
+		if (this.needsComma) {
+			this.out.append(',');
+		}
+	}
+
+	private void string(String value) {
+		StringBuilder out = this.out;
+		out.append('"');
+		for (int i = 0, length = value.length(); i < length; i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"':
+				case '\\':
+				case '/':
+					out.append('\\').append(c); break;
+				case '\t':
+					out.append("\\t"); break;
+				case '\b':
+					out.append("\\b"); break;
+				case '\n':
+					out.append("\\n"); break;
+				case '\r':
+					out.append("\\r"); break;
+				case '\f':
+					out.append("\\f"); break;
+				default:
+					if (c <= 0x1F) {
+						out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+					} else {
+						out.append(c);
+					}
+			}
+		}
+		out.append('"');
+	}
+}
@@ -0,0 +1,193 @@
+package acidhax.cordova.chromecast;
+
+import java.util.HashMap;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import android.content.Context;
+import android.net.wifi.WifiManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.PowerManager;
+import android.os.SystemClock;
+
+/**
+ * Holds the partial wake lock and the high performance wifi lock while media plays on any session.
+ * Sessions report their player state; the locks are taken when the first session starts PLAYING or BUFFERING
+ * and let go once no session did for the idle grace period, so short pauses and track changes keep them.
+ * The locks are not reference counted, each is acquired and released at most once per holding period.
+ * Configured by the javascript "locks" option: {"enabled": true, "idleGraceMs": 30000}.
+ * Keeps how long the locks were held against how long sessions were around, for getLockStats.
+ */
+class ChromecastLockManager implements Runnable {
+	static final long DEFAULT_IDLE_GRACE_MILLIS = 30000;
+
+	private final Context context;
+	private final Handler handler = new Handler(Looper.getMainLooper());
+	/** The sessions that reported a player state, whether each is playing */
+	private final HashMap<ChromecastSession, Boolean> sessions = new HashMap<ChromecastSession, Boolean>();
+	private int playing = 0;
+
+	private boolean enabled = true;
+	private long idleGraceMillis = DEFAULT_IDLE_GRACE_MILLIS;
+
+	private PowerManager.WakeLock wakeLock = null;
+	private WifiManager.WifiLock wifiLock = null;
+	private boolean held = false;
+	private boolean releaseScheduled = false;
+
+	private int acquisitions = 0;
+	private long heldSince = 0;
+	private long heldMillis = 0;
+	private long sessionsSince = 0;
+	private long sessionMillis = 0;
+
+	/**
+	 * @param context the application context
+	 */
+	ChromecastLockManager(Context context) {
+		this.context = context;
+	}
+
+	/**
+	 * Applies the javascript supplied options
+	 * @param options may be null
+	 */
+	synchronized void configure(JSONObject options) {
+		if (options == null) {
+			return;
+		}
+		this.enabled = options.optBoolean("enabled", this.enabled);
+		this.idleGraceMillis = Math.max(0, options.optLong("idleGraceMs", this.idleGraceMillis));
+		this.update();
+	}
+
+	/**
+	 * Records a session's player state
+	 * @param session
+	 * @param isPlaying whether it is PLAYING or BUFFERING
+	 */
+	synchronized void setPlaying(ChromecastSession session, boolean isPlaying) {
+		Boolean was = this.sessions.put(session, isPlaying);
+		if (was == null && this.sessions.size() == 1) {
+			this.sessionsSince = SystemClock.elapsedRealtime();
+		}
+		if (was == null || was != isPlaying) {
+			this.playing += isPlaying ? 1 : (was != null ? -1 : 0);
+			this.update();
+		}
+	}
+
+	/**
+	 * Forgets a session that ended
+	 * @param session
+	 */
+	synchronized void remove(ChromecastSession session) {
+		Boolean was = this.sessions.remove(session);
+		if (was == null) {
+			return;
+		}
+		if (this.sessions.isEmpty()) {
+			this.sessionMillis += SystemClock.elapsedRealtime() - this.sessionsSince;
+		}
+		if (was) {
+			this.playing--;
+			this.update();
+		}
+	}
+
+	/**
+	 * Lets go of the locks right away and forgets all sessions
+	 */
+	synchronized void releaseAll() {
+		if (!this.sessions.isEmpty()) {
+			this.sessionMillis += SystemClock.elapsedRealtime() - this.sessionsSince;
+		}
+		this.sessions.clear();
+		this.playing = 0;
+		this.handler.removeCallbacks(this);
+		this.releaseScheduled = false;
+		this.release();
+	}
+
+	private void update() {
+		if (this.enabled && this.playing > 0) {
+			if (this.releaseScheduled) {
+				this.handler.removeCallbacks(this);
+				this.releaseScheduled = false;
+			}
+			this.acquire();
+		} else if (this.held && !this.enabled) {
+			this.handler.removeCallbacks(this);
+			this.releaseScheduled = false;
+			this.release();
+		} else if (this.held && !this.releaseScheduled) {
+			this.releaseScheduled = true;
+			this.handler.postDelayed(this, this.idleGraceMillis);
+		}
+	}
+
+	/**
+	 * The grace period passed without playback. Runs on the main thread.
+	 */
+	@Override
+	public synchronized void run() {
+		this.releaseScheduled = false;
+		if (this.playing == 0) {
+			this.release();
+		}
+	}
+
+	private void acquire() {
+		if (this.held) {
+			return;
+		}
+		if (this.wakeLock == null) {
+			PowerManager powerManager = (PowerManager) this.context.getSystemService(Context.POWER_SERVICE);
+			this.wakeLock = powerManager.newWakeLock(PowerManager.PARTIAL_WAKE_LOCK, "cast-server-cpu");
+			this.wakeLock.setReferenceCounted(false);
+		}
+		if (this.wifiLock == null) {
+			WifiManager wifiManager = (WifiManager) this.context.getSystemService(Context.WIFI_SERVICE);
+			this.wifiLock = wifiManager.createWifiLock(WifiManager.WIFI_MODE_FULL_HIGH_PERF, "cast-server-wifi");
+			this.wifiLock.setReferenceCounted(false);
+		}
+		this.wakeLock.acquire();
+		this.wifiLock.acquire();
+		this.held = true;
+		this.acquisitions++;
+		this.heldSince = SystemClock.elapsedRealtime();
+	}
+
+	private void release() {
+		if (!this.held) {
+			return;
+		}
+		this.wakeLock.release();
+		this.wifiLock.release();
+		this.held = false;
+		this.heldMillis += SystemClock.elapsedRealtime() - this.heldSince;
+	}
+
+	/**
+	 * @return {enabled, held, playing, sessions, acquisitions, heldMs, sessionMs}, heldMs being how long the locks
+	 * were held in total and sessionMs how long there was at least one session to hold them for
+	 */
+	synchronized JSONObject getStats() {
+		JSONObject stats = new JSONObject();
+		long now = SystemClock.elapsedRealtime();
+		try {
+			stats.put("enabled", this.enabled);
+			stats.put("held", this.held);
+			stats.put("playing", this.playing);
+			stats.put("sessions", this.sessions.size());
+			stats.put("acquisitions", this.acquisitions);
+			stats.put("heldMs", this.heldMillis + (this.held ? now - this.heldSince : 0));
+			stats.put("sessionMs", this.sessionMillis + (this.sessions.isEmpty() ? 0 : now - this.sessionsSince));
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		return stats;
+	}
+}
@@ -0,0 +1,245 @@
+package acidhax.cordova.chromecast;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import android.util.Log;
+
+/**
+ * The plugin's leveled logger. Callers only queue the line, a background thread writes it to logcat,
+ * to a rotating file in the app's files directory if enabled, and to the javascript console if enabled,
+ * in one "log" event per batch. Lines below the level are dropped before anything is built,
+ * pass the variable part as detail instead of concatenating at the call site.
+ * When the queue is full, lines are dropped and counted.
+ * Configured by the javascript "log" option: {"level": "info", "file": false, "javascript": false},
+ * levels being "debug", "info", "warn", "error" or "off".
+ */
+class ChromecastLog implements Runnable {
+	static final String TAG = "Chromecast";
+	static final int DEBUG = 0;
+	static final int INFO = 1;
+	static final int WARN = 2;
+	static final int ERROR = 3;
+	static final int OFF = 4;
+
+	static final int CAPACITY = 512;
+	static final String FILE_NAME = "chromecast.log";
+	/** The file is moved to chromecast.log.1 once it grows past this */
+	static final long MAX_FILE_BYTES = 256 * 1024;
+
+	private static final String[] LEVELS = { "debug", "info", "warn", "error", "off" };
+	private static final int[] PRIORITIES = { Log.DEBUG, Log.INFO, Log.WARN, Log.ERROR };
+
+	private static class Line {
+		final long time = System.currentTimeMillis();
+		final int level;
+		final String message;
+		final Throwable error;
+
+		Line(int level, String message, Throwable error) {
+			this.level = level;
+			this.message = message;
+			this.error = error;
+		}
+	}
+
+	private final ArrayBlockingQueue<Line> queue = new ArrayBlockingQueue<Line>(CAPACITY);
+	private final AtomicInteger dropped = new AtomicInteger();
+	private final ChromecastEventChannel events;
+	private final File directory;
+	private final Thread thread;
+
+	private volatile int level = INFO;
+	private volatile boolean toFile = false;
+	private volatile boolean toJavascript = false;
+
+	/** Only used on the logging thread */
+	private Writer file = null;
+	private long fileBytes = 0;
+	private final SimpleDateFormat timeFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS", Locale.US);
+
+	/**
+	 * @param events where lines are forwarded to javascript
+	 * @param directory where the log file goes
+	 */
+	ChromecastLog(ChromecastEventChannel events, File directory) {
+		this.events = events;
+		this.directory = directory;
+		this.thread = new Thread(this, "ChromecastLog");
+		this.thread.setDaemon(true);
+		this.thread.start();
+	}
+
+	/**
+	 * Applies the javascript supplied options
+	 * @param options may be null
+	 */
+	void configure(JSONObject options) {
+		if (options == null) {
+			return;
+		}
+		String level = options.optString("level", LEVELS[this.level]);
+		for (int i = 0; i < LEVELS.length; i++) {
+			if (LEVELS[i].equals(level)) {
+				this.level = i;
+			}
+		}
+		this.toFile = options.optBoolean("file", this.toFile);
+		this.toJavascript = options.optBoolean("javascript", this.toJavascript);
+	}
+
+	/**
+	 * @param level
+	 * @return whether lines of the level are written, check it before building expensive messages
+	 */
+	boolean isLoggable(int level) {
+		return level >= this.level;
+	}
+
+	void d(String message) {
+		this.log(DEBUG, message, null, null);
+	}
+
+	void d(String message, Object detail) {
+		this.log(DEBUG, message, detail, null);
+	}
+
+	void i(String message) {
+		this.log(INFO, message, null, null);
+	}
+
+	void i(String message, Object detail) {
+		this.log(INFO, message, detail, null);
+	}
+
+	void w(String message, Object detail) {
+		this.log(WARN, message, detail, null);
+	}
+
+	void e(String message, Throwable error) {
+		this.log(ERROR, message, null, error);
+	}
+
+	private void log(int level, String message, Object detail, Throwable error) {
+		if (level < this.level) {
+			return;
+		}
+		Line line = new Line(level, detail != null ? message + detail : message, error);
+		if (!this.queue.offer(line)) {
+			this.dropped.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Stops the logging thread, lines still queued are lost
+	 */
+	void shutdown() {
+		this.thread.interrupt();
+	}
+
+	/**
+	 * Writes the queued lines in batches. Runs on the logging thread.
+	 */
+	@Override
+	public void run() {
+		ArrayList<Line> batch = new ArrayList<Line>();
+		try {
+			while (true) {
+				batch.add(this.queue.take());
+				this.queue.drainTo(batch, 63);
+				this.write(batch);
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			// shutdown
+		} finally {
+			this.closeFile();
+		}
+	}
+
+	private void write(ArrayList<Line> batch) {
+		int dropped = this.dropped.getAndSet(0);
+		if (dropped > 0) {
+			batch.add(0, new Line(WARN, dropped + " log lines dropped, the queue was full", null));
+		}
+		boolean toFile = this.toFile;
+		JSONArray forwarded = this.toJavascript ? new JSONArray() : null;
+		for (int i = 0, size = batch.size(); i < size; i++) {
+			Line line = batch.get(i);
+			String text = line.error != null ? line.message + "\n" + Log.getStackTraceString(line.error) : line.message;
+			Log.println(PRIORITIES[line.level], TAG, text);
+			if (toFile) {
+				this.writeFile(line, text);
+			}
+			if (forwarded != null) {
+				JSONArray entry = new JSONArray();
+				entry.put(LEVELS[line.level]);
+				entry.put(text);
+				forwarded.put(entry);
+			}
+		}
+		if (toFile) {
+			this.flushFile();
+		} else {
+			this.closeFile();
+		}
+		if (forwarded != null) {
+			this.events.emit("log", forwarded);
+		}
+	}
+
+	private void writeFile(Line line, String text) {
+		try {
+			if (this.file == null) {
+				File current = new File(this.directory, FILE_NAME);
+				this.fileBytes = current.length();
+				this.file = new FileWriter(current, true);
+			}
+			String entry = this.timeFormat.format(new Date(line.time)) + " " + LEVELS[line.level].toUpperCase(Locale.US) + " " + text + "\n";
+			this.file.write(entry);
+			this.fileBytes += entry.length();
+			if (this.fileBytes > MAX_FILE_BYTES) {
+				this.closeFile();
+				File previous = new File(this.directory, FILE_NAME + ".1");
+				previous.delete();
+				new File(this.directory, FILE_NAME).renameTo(previous);
+			}
+		} catch (IOException e) {
+			Log.e(TAG, "Could not write the log file", e);
+			this.closeFile();
+			this.toFile = false;
+		}
+	}
+
+	private void flushFile() {
+		if (this.file != null) {
+			try {
+				this.file.flush();
+			} catch (IOException e) {
+				Log.e(TAG, "Could not write the log file", e);
+			}
+		}
+	}
+
+	private void closeFile() {
+		if (this.file != null) {
+			try {
+				this.file.close();
+			} catch (IOException e) {
+				Log.e(TAG, "Could not close the log file", e);
+			}
+			this.file = null;
+		}
+	}
+}
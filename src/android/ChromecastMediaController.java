@@ -64,22 +64,25 @@ public class ChromecastMediaController {
         return mediaInfo;
     }
 
-    public void play(GoogleApiClient apiClient, ChromecastSessionCallback callback) {
+    public PendingResult<MediaChannelResult> play(GoogleApiClient apiClient, ChromecastSessionCallback callback) {
         PendingResult<MediaChannelResult> res = this.remote.play(apiClient);
         res.setResultCallback(this.createMediaCallback(callback));
+        return res;
     }
 
-    public void pause(GoogleApiClient apiClient, ChromecastSessionCallback callback) {
+    public PendingResult<MediaChannelResult> pause(GoogleApiClient apiClient, ChromecastSessionCallback callback) {
         PendingResult<MediaChannelResult> res = this.remote.pause(apiClient);
         res.setResultCallback(this.createMediaCallback(callback));
+        return res;
     }
 
-    public void stop(GoogleApiClient apiClient, ChromecastSessionCallback callback) {
+    public PendingResult<MediaChannelResult> stop(GoogleApiClient apiClient, ChromecastSessionCallback callback) {
         PendingResult<MediaChannelResult> res = this.remote.stop(apiClient);
         res.setResultCallback(this.createMediaCallback(callback));
+        return res;
     }
 
-    public void seek(long seekPosition, String resumeState, GoogleApiClient apiClient, final ChromecastSessionCallback callback) {
+    public PendingResult<MediaChannelResult> seek(long seekPosition, String resumeState, GoogleApiClient apiClient, final ChromecastSessionCallback callback) {
         PendingResult<MediaChannelResult> res = null;
         if (resumeState != null && !resumeState.equals("")) {
             if (resumeState.equals("PLAYBACK_PAUSE")) {
@@ -96,16 +99,19 @@ public class ChromecastMediaController {
         }
 
         res.setResultCallback(this.createMediaCallback(callback));
+        return res;
     }
 
-    public void setVolume(double volume, GoogleApiClient apiClient, final ChromecastSessionCallback callback) {
+    public PendingResult<MediaChannelResult> setVolume(double volume, GoogleApiClient apiClient, final ChromecastSessionCallback callback) {
         PendingResult<MediaChannelResult> res = this.remote.setStreamVolume(apiClient, volume);
         res.setResultCallback(this.createMediaCallback(callback));
+        return res;
     }
 
-    public void setMuted(boolean muted, GoogleApiClient apiClient, final ChromecastSessionCallback callback) {
+    public PendingResult<MediaChannelResult> setMuted(boolean muted, GoogleApiClient apiClient, final ChromecastSessionCallback callback) {
         PendingResult<MediaChannelResult> res = this.remote.setStreamMute(apiClient, muted);
         res.setResultCallback(this.createMediaCallback(callback));
+        return res;
     }
 
     private ResultCallback<RemoteMediaPlayer.MediaChannelResult> createMediaCallback(final ChromecastSessionCallback callback) {
@@ -2,12 +2,34 @@ package acidhax.cordova.chromecast;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
+import android.support.v7.media.MediaRouteSelector;
 import android.support.v7.media.MediaRouter;
 import android.support.v7.media.MediaRouter.RouteInfo;
 
+/**
+ * Receives the MediaRouter route events and keeps the known routes indexed by id.
+ * Whether a route is a usable Cast receiver is decided once, when it is added, and the receivers
+ * are kept in an immutable list that is replaced on every change, so lookups and listings are
+ * constant time and can be done from any thread without locking. Only updates are synchronized.
+ */
 public class ChromecastMediaRouterCallback extends MediaRouter.Callback {
-	private volatile ArrayList<RouteInfo> routes = new ArrayList<RouteInfo>();
+	/** A known route and whether it was classified as a Cast receiver when it arrived */
+	private static final class Entry {
+		final RouteInfo route;
+		final boolean isCast;
+
+		Entry(RouteInfo route) {
+			this.route = route;
+			this.isCast = isCastRoute(route);
+		}
+	}
+
+	private final ConcurrentHashMap<String, Entry> routes = new ConcurrentHashMap<String, Entry>();
+	private volatile List<RouteInfo> castRoutes = Collections.emptyList();
 	
 	private Chromecast callback = null;
 	
@@ -15,26 +37,115 @@ public class ChromecastMediaRouterCallback extends MediaRouter.Callback {
 		this.callback = instance;
 	}
 
-	public synchronized RouteInfo getRoute(String id) {
-		for (RouteInfo i : this.routes) {
-			if (i.getId().equals(id)) {
-				return i;
+	/**
+	 * Whether a route is a Cast receiver the user can pick, rather than the phone itself or another kind of route
+	 * @param route
+	 * @return
+	 */
+	public static boolean isCastRoute(RouteInfo route) {
+		return !route.getName().equals("Phone") && route.getId().indexOf("Cast") > -1;
+	}
+
+	/**
+	 * Adds the routes the router already knows about, which it does not report to callbacks.
+	 * They go through onRouteAdded like the routes found later. Must be called on the UI thread.
+	 * @param router
+	 * @param selector
+	 */
+	public void seed(MediaRouter router, MediaRouteSelector selector) {
+		for (RouteInfo route : router.getRoutes()) {
+			if (route.matchesSelector(selector)) {
+				this.onRouteAdded(router, route);
 			}
 		}
-		return null;
 	}
 
-	public synchronized RouteInfo getRoute(int index) {
-		return routes.get(index);
+	/**
+	 * @param id
+	 * @return the route or null if it is not known
+	 */
+	public RouteInfo getRoute(String id) {
+		Entry entry = id != null ? this.routes.get(id) : null;
+		return entry != null ? entry.route : null;
 	}
 
-	public synchronized Collection<RouteInfo> getRoutes() {
-		return routes;
+	/**
+	 * @return all known routes, an unmodifiable snapshot
+	 */
+	public Collection<RouteInfo> getRoutes() {
+		ArrayList<RouteInfo> routes = new ArrayList<RouteInfo>(this.routes.size());
+		for (Entry entry : this.routes.values()) {
+			routes.add(entry.route);
+		}
+		return Collections.unmodifiableList(routes);
+	}
+
+	/**
+	 * @param route
+	 * @return whether the route is a Cast receiver, as classified when it was added
+	 */
+	public boolean isCastReceiver(RouteInfo route) {
+		Entry entry = this.routes.get(route.getId());
+		return entry != null && entry.route == route ? entry.isCast : isCastRoute(route);
+	}
+
+	/**
+	 * @return the known Cast receivers, an unmodifiable snapshot
+	 */
+	public List<RouteInfo> getCastRoutes() {
+		return this.castRoutes;
+	}
+
+	public int getCastRouteCount() {
+		return this.castRoutes.size();
+	}
+
+	/**
+	 * Adds or replaces a route. A changed route can also stop or start being a Cast receiver.
+	 * @param route
+	 */
+	private synchronized void put(RouteInfo route) {
+		String id = route.getId();
+		Entry entry = new Entry(route);
+		Entry previous = this.routes.put(id, entry);
+		boolean isCast = entry.isCast;
+		if (!isCast && (previous == null || !previous.isCast)) {
+			return;
+		}
+		ArrayList<RouteInfo> castRoutes = new ArrayList<RouteInfo>(this.castRoutes.size() + 1);
+		boolean replaced = false;
+		for (RouteInfo existing : this.castRoutes) {
+			if (!existing.getId().equals(id)) {
+				castRoutes.add(existing);
+			} else if (isCast) {
+				castRoutes.add(route);
+				replaced = true;
+			}
+		}
+		if (isCast && !replaced) {
+			castRoutes.add(route);
+		}
+		this.castRoutes = Collections.unmodifiableList(castRoutes);
+	}
+
+	private synchronized void remove(RouteInfo route) {
+		String id = route.getId();
+		Entry removed = this.routes.remove(id);
+		if (removed == null || !removed.isCast) {
+			return;
+		}
+		ArrayList<RouteInfo> castRoutes = new ArrayList<RouteInfo>(this.castRoutes.size());
+		for (RouteInfo existing : this.castRoutes) {
+			if (!existing.getId().equals(id)) {
+				castRoutes.add(existing);
+			}
+		}
+		this.castRoutes = Collections.unmodifiableList(castRoutes);
 	}
 
 	@Override
-	public synchronized void onRouteAdded(MediaRouter router, RouteInfo route) {
-		routes.add(route);
+	public void onRouteAdded(MediaRouter router, RouteInfo route) {
+		this.put(route);
 		if (this.callback != null) {
 			this.callback.onRouteAdded(router, route);
 		}
@@ -42,12 +153,20 @@ public class ChromecastMediaRouterCallback extends MediaRouter.Callback {
 	
 	@Override
 	public void onRouteRemoved(MediaRouter router, RouteInfo route) {
-		routes.remove(route);
+		this.remove(route);
 		if (this.callback != null) {
 			this.callback.onRouteRemoved(router, route);
 		}
 	}
 	
+	@Override
+	public void onRouteChanged(MediaRouter router, RouteInfo route) {
+		this.put(route);
+		if (this.callback != null) {
+			this.callback.onRouteChanged(router, route);
+		}
+	}
+	
 	@Override
 	public void onRouteSelected(MediaRouter router, RouteInfo info) {
 		if (this.callback != null) {
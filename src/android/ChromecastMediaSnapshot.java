@@ -0,0 +1,202 @@
+package acidhax.cordova.chromecast;
+
+import org.json.JSONObject;
+
+import com.google.android.gms.cast.MediaInfo;
+import com.google.android.gms.cast.MediaStatus;
+
+/**
+ * Immutable capture of a session's media status, in the shape chrome.cast.media.Media._update expects
+ */
+final class ChromecastMediaSnapshot extends ChromecastSnapshot<ChromecastMediaSnapshot> {
+	static final int MEDIA = 1;
+	static final int MEDIA_SESSION_ID = 1 << 1;
+	static final int SESSION_ID = 1 << 2;
+	static final int CURRENT_TIME = 1 << 3;
+	static final int PLAYBACK_RATE = 1 << 4;
+	static final int CUSTOM_DATA = 1 << 5;
+	static final int PLAYER_STATE = 1 << 6;
+	static final int IDLE_REASON = 1 << 7;
+	static final int VOLUME = 1 << 8;
+
+	private static final int ID_FIELDS = MEDIA_SESSION_ID | SESSION_ID;
+
+	/** What is sent while there is no media status at all */
+	static final ChromecastMediaSnapshot EMPTY = new ChromecastMediaSnapshot();
+
+	private final boolean hasStatus;
+	private final String sessionId;
+	private final double currentTime;
+	private final double playbackRate;
+	private final JSONObject customData;
+	private final String playerState;
+	private final String idleReason;
+	private final double volumeLevel;
+	private final boolean muted;
+	private final boolean hasMediaInfo;
+	private final double duration;
+	private final String streamType;
+
+	private ChromecastMediaSnapshot() {
+		this.hasStatus = false;
+		this.sessionId = null;
+		this.currentTime = 0;
+		this.playbackRate = 0;
+		this.customData = null;
+		this.playerState = null;
+		this.idleReason = null;
+		this.volumeLevel = 0;
+		this.muted = false;
+		this.hasMediaInfo = false;
+		this.duration = 0;
+		this.streamType = null;
+	}
+
+	private ChromecastMediaSnapshot(MediaStatus mediaStatus, String sessionId) {
+		this.hasStatus = true;
+		this.sessionId = sessionId;
+		this.currentTime = mediaStatus.getStreamPosition() / 1000.0;
+		this.playbackRate = mediaStatus.getPlaybackRate();
+		this.customData = mediaStatus.getCustomData();
+		this.playerState = playerStateName(mediaStatus.getPlayerState());
+		this.idleReason = idleReasonName(mediaStatus.getIdleReason());
+		this.volumeLevel = mediaStatus.getStreamVolume();
+		this.muted = mediaStatus.isMute();
+
+		MediaInfo mediaInfo = mediaStatus.getMediaInfo();
+		this.hasMediaInfo = mediaInfo != null;
+		this.duration = mediaInfo != null ? mediaInfo.getStreamDuration() / 1000.0 : 0;
+		this.streamType = mediaInfo != null ? streamTypeName(mediaInfo.getStreamType()) : null;
+	}
+
+	/**
+	 * @param mediaStatus may be null
+	 * @param sessionId
+	 * @return
+	 */
+	static ChromecastMediaSnapshot capture(MediaStatus mediaStatus, String sessionId) {
+		return mediaStatus == null ? EMPTY : new ChromecastMediaSnapshot(mediaStatus, sessionId);
+	}
+
+	@Override
+	int changedFields(ChromecastMediaSnapshot previous) {
+		if (!this.hasStatus || !previous.hasStatus) {
+			return this.hasStatus == previous.hasStatus ? 0 : ALL_FIELDS;
+		}
+		int changed = 0;
+		if (this.hasMediaInfo != previous.hasMediaInfo || this.duration != previous.duration
+				|| !same(this.streamType, previous.streamType)) {
+			changed |= MEDIA;
+		}
+		if (!same(this.sessionId, previous.sessionId)) {
+			changed |= SESSION_ID;
+		}
+		if (this.currentTime != previous.currentTime) {
+			changed |= CURRENT_TIME;
+		}
+		if (this.playbackRate != previous.playbackRate) {
+			changed |= PLAYBACK_RATE;
+		}
+		if (!same(this.customData, previous.customData)) {
+			changed |= CUSTOM_DATA;
+		}
+		if (!same(this.playerState, previous.playerState)) {
+			changed |= PLAYER_STATE;
+		}
+		if (!same(this.idleReason, previous.idleReason)) {
+			changed |= IDLE_REASON;
+		}
+		if (this.volumeLevel != previous.volumeLevel || this.muted != previous.muted) {
+			changed |= VOLUME;
+		}
+		return changed;
+	}
+
+	@Override
+	void writeTo(ChromecastJsonWriter writer, int fields, boolean isPatch) {
+		writer.beginObject();
+		if (!this.hasStatus) {
+			writer.endObject();
+			return;
+		}
+		int nullable = isPatch ? fields : 0;
+		if (isPatch) {
+			fields |= ID_FIELDS;
+		}
+
+		if ((fields & MEDIA) != 0) {
+			writer.key("media").beginObject();
+			if (this.hasMediaInfo) {
+				writer.key("duration").value(this.duration);
+				if (this.streamType != null) {
+					writer.key("streamType").value(this.streamType);
+				}
+			}
+			writer.endObject();
+		}
+		if ((fields & MEDIA_SESSION_ID) != 0) {
+			writer.key("mediaSessionId").value(1);
+		}
+		writeOptional(writer, "sessionId", this.sessionId, (fields & SESSION_ID) != 0, (nullable & SESSION_ID) != 0);
+		if ((fields & CURRENT_TIME) != 0) {
+			writer.key("currentTime").value(this.currentTime);
+		}
+		if ((fields & PLAYBACK_RATE) != 0) {
+			writer.key("playbackRate").value(this.playbackRate);
+		}
+		writeOptional(writer, "customData", this.customData, (fields & CUSTOM_DATA) != 0, (nullable & CUSTOM_DATA) != 0);
+		writeOptional(writer, "playerState", this.playerState, (fields & PLAYER_STATE) != 0, (nullable & PLAYER_STATE) != 0);
+		writeOptional(writer, "idleReason", this.idleReason, (fields & IDLE_REASON) != 0, (nullable & IDLE_REASON) != 0);
+		if ((fields & VOLUME) != 0) {
+			writer.key("volume").beginObject()
+				.key("level").value(this.volumeLevel)
+				.key("muted").value(this.muted)
+				.endObject();
+		}
+		writer.endObject();
+	}
+
+	private static String playerStateName(int playerState) {
+		switch(playerState) {
+			case MediaStatus.PLAYER_STATE_BUFFERING:
+				return "BUFFERING";
+			case MediaStatus.PLAYER_STATE_IDLE:
+				return "IDLE";
+			case MediaStatus.PLAYER_STATE_PAUSED:
+				return "PAUSED";
+			case MediaStatus.PLAYER_STATE_PLAYING:
+				return "PLAYING";
+			case MediaStatus.PLAYER_STATE_UNKNOWN:
+				return "UNKNOWN";
+		}
+		return null;
+	}
+
+	private static String idleReasonName(int idleReason) {
+		switch(idleReason) {
+			case MediaStatus.IDLE_REASON_CANCELED:
+				return "canceled";
+			case MediaStatus.IDLE_REASON_ERROR:
+				return "error";
+			case MediaStatus.IDLE_REASON_FINISHED:
+				return "finished";
+			case MediaStatus.IDLE_REASON_INTERRUPTED:
+				return "iterrupted";
+			case MediaStatus.IDLE_REASON_NONE:
+				return "none";
+		}
+		return null;
+	}
+
+	private static String streamTypeName(int streamType) {
+		switch(streamType) {
+			case MediaInfo.STREAM_TYPE_BUFFERED:
+				return "buffered";
+			case MediaInfo.STREAM_TYPE_LIVE:
+				return "live";
+			case MediaInfo.STREAM_TYPE_NONE:
+				return "other";
+		}
+		return null;
+	}
+}
@@ -0,0 +1,100 @@
+package acidhax.cordova.chromecast;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import android.os.SystemClock;
+
+/**
+ * Latencies and error counts of the plugin's operations, for getMetrics. Latencies are kept per operation in a
+ * ChromecastHistogram: "connect" from connecting to a receiver until onConnected, "dispatch" for execute, and
+ * the session commands by action name, e.g. "launch", "join", "loadMedia" or "mediaPlay", from the call until
+ * the receiver answered. Failures are counted per operation and reason instead of being recorded as latency.
+ * Shared by all sessions and connections.
+ */
+class ChromecastMetrics {
+	private final HashMap<String, ChromecastHistogram> latencies = new HashMap<String, ChromecastHistogram>();
+	private final HashMap<String, HashMap<String, Integer>> errors = new HashMap<String, HashMap<String, Integer>>();
+	private long since = SystemClock.elapsedRealtime();
+
+	/**
+	 * @return a timestamp to pass to record
+	 */
+	static long now() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records how long an operation took
+	 * @param operation
+	 * @param startedAt from now()
+	 */
+	void record(String operation, long startedAt) {
+		ChromecastHistogram histogram;
+		synchronized (this) {
+			histogram = this.latencies.get(operation);
+			if (histogram == null) {
+				histogram = new ChromecastHistogram();
+				this.latencies.put(operation, histogram);
+			}
+		}
+		histogram.record((System.nanoTime() - startedAt) / 1000);
+	}
+
+	/**
+	 * Counts a failed operation
+	 * @param operation
+	 * @param reason
+	 */
+	synchronized void error(String operation, String reason) {
+		HashMap<String, Integer> reasons = this.errors.get(operation);
+		if (reasons == null) {
+			reasons = new HashMap<String, Integer>();
+			this.errors.put(operation, reasons);
+		}
+		String key = reason != null ? reason : "unknown";
+		Integer count = reasons.get(key);
+		reasons.put(key, count != null ? count + 1 : 1);
+	}
+
+	synchronized void reset() {
+		for (ChromecastHistogram histogram : this.latencies.values()) {
+			histogram.reset();
+		}
+		this.errors.clear();
+		this.since = SystemClock.elapsedRealtime();
+	}
+
+	/**
+	 * @return {since, latency: {operation: {count, min, mean, p50, p90, p99, p999, max}}, errors: {operation: {reason: count}}},
+	 * times in milliseconds, since being how long ago the metrics were reset
+	 */
+	synchronized JSONObject toJSON() {
+		JSONObject json = new JSONObject();
+		JSONObject latency = new JSONObject();
+		JSONObject failures = new JSONObject();
+		try {
+			for (Map.Entry<String, ChromecastHistogram> entry : this.latencies.entrySet()) {
+				if (entry.getValue().getCount() > 0) {
+					latency.put(entry.getKey(), entry.getValue().toJSON());
+				}
+			}
+			for (Map.Entry<String, HashMap<String, Integer>> entry : this.errors.entrySet()) {
+				JSONObject reasons = new JSONObject();
+				for (Map.Entry<String, Integer> reason : entry.getValue().entrySet()) {
+					reasons.put(reason.getKey(), reason.getValue());
+				}
+				failures.put(entry.getKey(), reasons);
+			}
+			json.put("since", SystemClock.elapsedRealtime() - this.since);
+			json.put("latency", latency);
+			json.put("errors", failures);
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		return json;
+	}
+}
@@ -1,8 +1,6 @@
 package acidhax.cordova.chromecast;
 
-import org.json.JSONObject;
-
 public interface ChromecastOnMediaUpdatedListener {
-	void onMediaLoaded(JSONObject media);
-	void onMediaUpdated(boolean isAlive, JSONObject media);
+	void onMediaLoaded(ChromecastJsonValue media);
+	void onMediaUpdated(boolean isAlive, ChromecastJsonValue media, boolean isDelta);
 }
\ No newline at end of file
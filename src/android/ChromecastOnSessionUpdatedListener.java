@@ -1,8 +1,6 @@
 package acidhax.cordova.chromecast;
 
-import org.json.JSONObject;
-
 public interface ChromecastOnSessionUpdatedListener {
-	void onSessionUpdated(boolean isAlive, JSONObject properties);
+	void onSessionUpdated(ChromecastSession session, boolean isAlive, ChromecastJsonValue properties, boolean isDelta);
 	void onMessage(ChromecastSession session, String namespace, String message);
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+package acidhax.cordova.chromecast;
+
+import com.google.android.gms.common.api.PendingResult;
+
+/**
+ * A command in flight. Wraps the caller's callback so that it completes exactly once:
+ * with the command's own result, with "timeout" when the deadline passes first,
+ * or with "cancel" when the command is abandoned. Timing out or cancelling also
+ * cancels the PendingResult the command is waiting on.
+ */
+class ChromecastPendingCommand extends ChromecastSessionCallback implements Runnable {
+	private final ChromecastPendingCommands owner;
+	private final String action;
+	private final ChromecastSessionCallback callback;
+	private final long startedAt = ChromecastMetrics.now();
+
+	private PendingResult<?> result = null;
+	private boolean done = false;
+
+	ChromecastPendingCommand(ChromecastPendingCommands owner, String action, ChromecastSessionCallback callback) {
+		this.owner = owner;
+		this.action = action;
+		this.callback = callback;
+	}
+
+	String getAction() {
+		return this.action;
+	}
+
+	long getStartedAt() {
+		return this.startedAt;
+	}
+
+	synchronized boolean isDone() {
+		return this.done;
+	}
+
+	/**
+	 * Remembers the result the command waits on, so it can be cancelled
+	 * @param result
+	 */
+	void track(PendingResult<?> result) {
+		boolean cancel;
+		synchronized (this) {
+			this.result = result;
+			cancel = this.done;
+		}
+		if (cancel && result != null) {
+			result.cancel();
+		}
+	}
+
+	@Override
+	void onSuccess(Object object) {
+		if (this.finish(false, null)) {
+			this.callback.onSuccess(object);
+		}
+	}
+
+	@Override
+	void onError(String reason) {
+		String error = reason != null ? reason : "unknown";
+		if (this.finish(false, error)) {
+			this.callback.onError(error);
+		}
+	}
+
+	/**
+	 * The deadline passed
+	 */
+	@Override
+	public void run() {
+		if (this.finish(true, "timeout")) {
+			this.callback.onError("timeout");
+		}
+	}
+
+	/**
+	 * Abandons the command
+	 * @return false if it had already completed
+	 */
+	boolean cancel() {
+		return this.fail("cancel");
+	}
+
+	/**
+	 * Abandons the command with the given error
+	 * @param reason
+	 * @return false if it had already completed
+	 */
+	boolean fail(String reason) {
+		if (this.finish(true, reason)) {
+			this.callback.onError(reason);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @param cancelResult
+	 * @param error the reason the command failed, null if it succeeded
+	 * @return false if it had already completed
+	 */
+	private boolean finish(boolean cancelResult, String error) {
+		PendingResult<?> result;
+		synchronized (this) {
+			if (this.done) {
+				return false;
+			}
+			this.done = true;
+			result = this.result;
+		}
+		this.owner.finished(this, error);
+		if (cancelResult && result != null) {
+			result.cancel();
+		}
+		return true;
+	}
+}
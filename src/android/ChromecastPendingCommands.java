@@ -0,0 +1,147 @@
+package acidhax.cordova.chromecast;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+
+import org.json.JSONObject;
+
+import android.os.Handler;
+
+/**
+ * Tracks the commands a session is waiting on and enforces their deadlines.
+ * Deadlines are set per action name, e.g. {"default": 10000, "loadMedia": 30000}, in milliseconds;
+ * 0 means the action never times out.
+ */
+class ChromecastPendingCommands {
+	static final String DEFAULT_TIMEOUT = "default";
+
+	private final Handler handler;
+	private final HashMap<String, Long> timeouts = new HashMap<String, Long>();
+	private final ArrayList<ChromecastPendingCommand> active = new ArrayList<ChromecastPendingCommand>();
+	private volatile ChromecastMetrics metrics = null;
+	private volatile ChromecastTrace trace = null;
+
+	/**
+	 * @param handler the thread deadlines fire on
+	 */
+	ChromecastPendingCommands(Handler handler) {
+		this.handler = handler;
+		this.timeouts.put(DEFAULT_TIMEOUT, 10000L);
+		this.timeouts.put("launch", 30000L);
+		this.timeouts.put("join", 30000L);
+		this.timeouts.put("loadMedia", 30000L);
+	}
+
+	/**
+	 * Overrides deadlines, keyed by action name or "default"
+	 * @param timeouts
+	 */
+	synchronized void setTimeouts(JSONObject timeouts) {
+		if (timeouts == null) {
+			return;
+		}
+		Iterator<String> keys = timeouts.keys();
+		while (keys.hasNext()) {
+			String action = keys.next();
+			this.timeouts.put(action, timeouts.optLong(action, 0));
+		}
+	}
+
+	/**
+	 * @param metrics where finished commands record their latency or failure, null for nowhere
+	 */
+	void setMetrics(ChromecastMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * @param trace where finished commands are traced, null for nowhere
+	 */
+	void setTrace(ChromecastTrace trace) {
+		this.trace = trace;
+	}
+
+	private synchronized long timeoutFor(String action) {
+		Long timeout = this.timeouts.get(action);
+		if (timeout == null) {
+			timeout = this.timeouts.get(DEFAULT_TIMEOUT);
+		}
+		return timeout != null ? timeout : 0;
+	}
+
+	/**
+	 * Starts tracking a command and arms its deadline
+	 * @param action
+	 * @param callback
+	 * @return the callback to hand to the Cast call instead of the original one
+	 */
+	ChromecastPendingCommand start(String action, ChromecastSessionCallback callback) {
+		ChromecastPendingCommand command = new ChromecastPendingCommand(this, action, callback);
+		synchronized (this) {
+			this.active.add(command);
+		}
+		long timeout = this.timeoutFor(action);
+		if (timeout > 0) {
+			this.handler.postDelayed(command, timeout);
+		}
+		return command;
+	}
+
+	/**
+	 * Cancels the commands still in flight. Their callbacks fail with "cancel".
+	 * @param action only cancel commands for this action, null for all of them
+	 * @return how many commands were cancelled
+	 */
+	int cancel(String action) {
+		return this.fail(action, "cancel");
+	}
+
+	/**
+	 * Abandons the commands still in flight, e.g. when the connection they wait on goes away
+	 * @param action only fail commands for this action, null for all of them
+	 * @param reason the error their callbacks fail with
+	 * @return how many commands failed
+	 */
+	int fail(String action, String reason) {
+		ArrayList<ChromecastPendingCommand> matching = new ArrayList<ChromecastPendingCommand>();
+		synchronized (this) {
+			for (ChromecastPendingCommand command : this.active) {
+				if (action == null || action.equals(command.getAction())) {
+					matching.add(command);
+				}
+			}
+		}
+		int failed = 0;
+		for (ChromecastPendingCommand command : matching) {
+			if (command.fail(reason)) {
+				failed++;
+			}
+		}
+		return failed;
+	}
+
+	/**
+	 * @param command
+	 * @param error the reason it failed, null if it succeeded
+	 */
+	void finished(ChromecastPendingCommand command, String error) {
+		synchronized (this) {
+			this.active.remove(command);
+		}
+		this.handler.removeCallbacks(command);
+		ChromecastTrace trace = this.trace;
+		if (trace != null) {
+			trace.complete("command", command.getAction(), command.getStartedAt(), error);
+		}
+		ChromecastMetrics metrics = this.metrics;
+		if (metrics == null) {
+			return;
+		}
+		if (error == null) {
+			metrics.record(command.getAction(), command.getStartedAt());
+		} else {
+			metrics.error(command.getAction(), error);
+		}
+	}
+}
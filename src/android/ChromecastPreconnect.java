@@ -0,0 +1,159 @@
+package acidhax.cordova.chromecast;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * Holds at most one session that is connected to a receiver before the user picks it, so creating a session
+ * on that receiver can go straight to launching the app. Opt-in through the javascript "preconnect" option:
+ * {"enabled": true, "idleMs": 60000}. A pre-connection that is not used within idleMs is closed.
+ * Also keeps the time it took to create sessions, with and without a pre-connection, for getPreconnectStats.
+ */
+class ChromecastPreconnect implements Runnable {
+	static final long DEFAULT_IDLE_MILLIS = 60000;
+
+	private final Handler handler = new Handler(Looper.getMainLooper());
+
+	private boolean enabled = false;
+	private long idleMillis = DEFAULT_IDLE_MILLIS;
+
+	private String routeId = null;
+	private ChromecastSession session = null;
+
+	private int hits = 0;
+	private int misses = 0;
+	private int expired = 0;
+	private final long[] sessions = new long[2];
+	private final long[] totalMillis = new long[2];
+	private final long[] lastMillis = { -1, -1 };
+
+	/**
+	 * Applies the javascript supplied options
+	 * @param options may be null
+	 */
+	synchronized void configure(JSONObject options) {
+		if (options == null) {
+			return;
+		}
+		this.enabled = options.optBoolean("enabled", this.enabled);
+		this.idleMillis = options.optLong("idleMs", this.idleMillis);
+		if (!this.enabled) {
+			this.clear();
+		}
+	}
+
+	synchronized boolean isEnabled() {
+		return this.enabled;
+	}
+
+	/**
+	 * @return the route of the held session, null if there is none
+	 */
+	synchronized String getRouteId() {
+		return this.routeId;
+	}
+
+	/**
+	 * Pre-connects a session, replacing the one held so far
+	 * @param routeId
+	 * @param session a session that was not launched or joined
+	 */
+	synchronized void hold(String routeId, ChromecastSession session) {
+		this.clear();
+		this.routeId = routeId;
+		this.session = session;
+		session.preconnect();
+		this.handler.postDelayed(this, this.idleMillis);
+	}
+
+	/**
+	 * Hands over the held session if it belongs to the route, the held session is closed otherwise
+	 * @param routeId
+	 * @return the session, null if none was pre-connected for the route
+	 */
+	synchronized ChromecastSession take(String routeId) {
+		if (!this.enabled) {
+			return null;
+		}
+		ChromecastSession taken = null;
+		if (this.session != null && routeId.equals(this.routeId)) {
+			taken = this.session;
+			this.session = null;
+			this.routeId = null;
+			this.handler.removeCallbacks(this);
+			this.hits++;
+		} else {
+			this.misses++;
+			this.clear();
+		}
+		return taken;
+	}
+
+	/**
+	 * Closes the held session, if any
+	 */
+	synchronized void clear() {
+		this.handler.removeCallbacks(this);
+		if (this.session != null) {
+			this.session.release();
+		}
+		this.session = null;
+		this.routeId = null;
+	}
+
+	/**
+	 * Records how long it took from picking a receiver to having a session
+	 * @param preconnected whether the session was connected beforehand, by a pre-connection or a pooled connection
+	 * @param millis
+	 */
+	synchronized void sessionCreated(boolean preconnected, long millis) {
+		int i = preconnected ? 1 : 0;
+		this.sessions[i]++;
+		this.totalMillis[i] += millis;
+		this.lastMillis[i] = millis;
+	}
+
+	/**
+	 * The pre-connection went unused for too long. Runs on the main thread.
+	 */
+	@Override
+	public synchronized void run() {
+		if (this.session != null) {
+			this.expired++;
+			this.clear();
+		}
+	}
+
+	/**
+	 * @return {enabled, routeId, hits, misses, expired, timeToSession: {preconnected, cold}},
+	 * each time being {count, average, last} in milliseconds
+	 */
+	synchronized JSONObject getStats() {
+		JSONObject stats = new JSONObject();
+		JSONObject times = new JSONObject();
+		try {
+			times.put("preconnected", this.timeStats(1));
+			times.put("cold", this.timeStats(0));
+			stats.put("enabled", this.enabled);
+			stats.put("routeId", this.routeId);
+			stats.put("hits", this.hits);
+			stats.put("misses", this.misses);
+			stats.put("expired", this.expired);
+			stats.put("timeToSession", times);
+		} catch (JSONException e) {
+			e.printStackTrace();
+		}
+		return stats;
+	}
+
+	private JSONObject timeStats(int i) throws JSONException {
+		JSONObject time = new JSONObject();
+		time.put("count", this.sessions[i]);
+		time.put("average", this.sessions[i] > 0 ? this.totalMillis[i] / this.sessions[i] : -1);
+		time.put("last", this.lastMillis[i]);
+		return time;
+	}
+}
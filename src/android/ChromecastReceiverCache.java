@@ -0,0 +1,125 @@
+package acidhax.cordova.chromecast;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.google.android.gms.cast.CastDevice;
+
+import android.content.SharedPreferences;
+import android.support.v7.media.MediaRouter.RouteInfo;
+
+/**
+ * Remembers the receivers seen in earlier runs, in the plugin's SharedPreferences, so they can be shown
+ * before discovery finds them again. Entries are keyed by route id and hold the name, the CastDevice id,
+ * the model and when the receiver was last seen. Entries not seen for longer than the TTL are dropped.
+ */
+class ChromecastReceiverCache {
+	static final String PREFERENCE_KEY = "receiverCache";
+	static final long DEFAULT_TTL_MILLIS = 7L * 24 * 60 * 60 * 1000;
+	/** Seeing a receiver again within this time does not rewrite the cache */
+	static final long REFRESH_MILLIS = 60L * 60 * 1000;
+
+	private final SharedPreferences settings;
+	private JSONObject entries = new JSONObject();
+	private long ttlMillis = DEFAULT_TTL_MILLIS;
+
+	ChromecastReceiverCache(SharedPreferences settings) {
+		this.settings = settings;
+	}
+
+	synchronized void setTtl(long ttlMillis) {
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * Reads the persisted receivers and evicts the stale ones. Does disk I/O, keep it off the UI and bridge threads.
+	 * @return the receivers still considered likely to be around, each as {id, name, deviceId, model, lastSeen}
+	 */
+	synchronized List<JSONObject> load() {
+		JSONObject stored;
+		try {
+			stored = new JSONObject(this.settings.getString(PREFERENCE_KEY, "{}"));
+		} catch (JSONException e) {
+			e.printStackTrace();
+			stored = new JSONObject();
+		}
+		// Receivers recorded before the load finished are newer than what was stored
+		boolean changed = this.entries.length() > 0;
+		Iterator<String> recorded = this.entries.keys();
+		while (recorded.hasNext()) {
+			String id = recorded.next();
+			try {
+				stored.put(id, this.entries.get(id));
+			} catch (JSONException e) {
+				e.printStackTrace();
+			}
+		}
+		this.entries = stored;
+		if (this.evict(System.currentTimeMillis()) || changed) {
+			this.persist();
+		}
+
+		ArrayList<JSONObject> receivers = new ArrayList<JSONObject>();
+		Iterator<String> ids = this.entries.keys();
+		while (ids.hasNext()) {
+			JSONObject entry = this.entries.optJSONObject(ids.next());
+			if (entry != null) {
+				receivers.add(entry);
+			}
+		}
+		return receivers;
+	}
+
+	/**
+	 * Stores or refreshes a receiver that was just seen
+	 * @param route
+	 */
+	synchronized void record(RouteInfo route) {
+		long now = System.currentTimeMillis();
+		JSONObject previous = this.entries.optJSONObject(route.getId());
+		if (previous != null && route.getName().equals(previous.optString("name"))
+				&& now - previous.optLong("lastSeen", 0) < REFRESH_MILLIS) {
+			return;
+		}
+
+		JSONObject entry = new JSONObject();
+		try {
+			CastDevice device = CastDevice.getFromBundle(route.getExtras());
+			entry.put("id", route.getId());
+			entry.put("name", route.getName());
+			if (device != null) {
+				entry.put("deviceId", device.getDeviceId());
+				entry.put("model", device.getModelName());
+			}
+			entry.put("lastSeen", now);
+			this.entries.put(route.getId(), entry);
+		} catch (JSONException e) {
+			e.printStackTrace();
+			return;
+		}
+		this.evict(now);
+		this.persist();
+	}
+
+	private boolean evict(long now) {
+		boolean evicted = false;
+		Iterator<String> ids = this.entries.keys();
+		while (ids.hasNext()) {
+			JSONObject entry = this.entries.optJSONObject(ids.next());
+			if (entry == null || now - entry.optLong("lastSeen", 0) > this.ttlMillis) {
+				ids.remove();
+				evicted = true;
+			}
+		}
+		return evicted;
+	}
+
+	private void persist() {
+		// apply() writes to disk in the background
+		this.settings.edit().putString(PREFERENCE_KEY, this.entries.toString()).apply();
+	}
+}
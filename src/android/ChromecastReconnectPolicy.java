@@ -0,0 +1,54 @@
+package acidhax.cordova.chromecast;
+
+import java.util.Random;
+
+import org.json.JSONObject;
+
+/**
+ * How sessions try to win back a receiver after losing the connection to it.
+ * Attempts are spaced by an exponential backoff with jitter: attempt n waits between half and all of
+ * min(maxDelayMs, initialDelayMs * 2^n), so sessions that dropped together do not retry in lockstep.
+ * Configured by the javascript "reconnect" option: {"enabled": true, "initialDelayMs": 1000, "maxDelayMs": 30000, "maxAttempts": 8}.
+ * Shared by all sessions, each keeps its own attempt count.
+ */
+class ChromecastReconnectPolicy {
+	private final Random random = new Random();
+
+	private boolean enabled = true;
+	private long initialDelayMillis = 1000;
+	private long maxDelayMillis = 30000;
+	private int maxAttempts = 8;
+
+	/**
+	 * Applies the javascript supplied options
+	 * @param options may be null
+	 */
+	synchronized void configure(JSONObject options) {
+		if (options == null) {
+			return;
+		}
+		this.enabled = options.optBoolean("enabled", this.enabled);
+		this.initialDelayMillis = Math.max(1, options.optLong("initialDelayMs", this.initialDelayMillis));
+		this.maxDelayMillis = Math.max(this.initialDelayMillis, options.optLong("maxDelayMs", this.maxDelayMillis));
+		this.maxAttempts = options.optInt("maxAttempts", this.maxAttempts);
+	}
+
+	synchronized boolean isEnabled() {
+		return this.enabled && this.maxAttempts > 0;
+	}
+
+	synchronized int getMaxAttempts() {
+		return this.maxAttempts;
+	}
+
+	/**
+	 * @param attempt 0 for the first attempt
+	 * @return milliseconds to wait before the attempt
+	 */
+	synchronized long delay(int attempt) {
+		long ceiling = this.initialDelayMillis << Math.min(attempt, 20);
+		ceiling = Math.min(this.maxDelayMillis, ceiling);
+		long half = ceiling / 2;
+		return half + (long) (this.random.nextDouble() * (ceiling - half));
+	}
+}
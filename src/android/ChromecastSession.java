@@ -2,17 +2,19 @@ package acidhax.cordova.chromecast;
 
 import java.io.IOException;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.cordova.CordovaInterface;
 import org.json.JSONArray;
-import org.json.JSONException;
 import org.json.JSONObject;
 
 import com.google.android.gms.cast.ApplicationMetadata;
 import com.google.android.gms.cast.Cast;
 import com.google.android.gms.cast.Cast.ApplicationConnectionResult;
 import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.cast.CastStatusCodes;
 import com.google.android.gms.cast.MediaInfo;
 import com.google.android.gms.cast.MediaStatus;
 import com.google.android.gms.cast.RemoteMediaPlayer;
@@ -21,6 +23,7 @@ import com.google.android.gms.cast.RemoteMediaPlayer.OnMetadataUpdatedListener;
 import com.google.android.gms.cast.RemoteMediaPlayer.OnStatusUpdatedListener;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.common.api.PendingResult;
 import com.google.android.gms.common.api.ResultCallback;
 import com.google.android.gms.common.api.Status;
 import com.google.android.gms.common.images.WebImage;
@@ -41,7 +44,7 @@ public class ChromecastSession
 		Cast.MessageReceivedCallback {
 
 	private RouteInfo routeInfo = null;
-	private volatile GoogleApiClient mApiClient = null;	
+	private final GoogleApiClient mApiClient;
 	private volatile RemoteMediaPlayer mRemoteMediaPlayer;
 	private CordovaInterface cordova = null;
 	private CastDevice device = null;
@@ -54,27 +57,170 @@ public class ChromecastSession
 	private volatile List<WebImage> appImages;
 	private volatile String sessionId = null;
 	private volatile String lastSessionId = null;
-	private boolean isConnected = false;
+	private volatile boolean isConnected = false;
 	
-	private ChromecastSessionCallback launchCallback;
-	private ChromecastSessionCallback joinSessionCallback; 
+	private ChromecastPendingCommand launchCallback;
+	private ChromecastPendingCommand joinSessionCallback; 
 	
 	private boolean joinInsteadOfConnecting = false;
+	/** Set on the executor once launch or join wants the connection, until then it is only a pre-connection */
+	private boolean connectRequested = false;
+	
+	private ChromecastReconnectPolicy reconnectPolicy = new ChromecastReconnectPolicy();
+	/** The following are only touched on the executor */
+	private boolean reconnecting = false;
+	private int reconnectAttempts = 0;
+	/** Commands that came in while reconnecting, replayed in order once the session is back */
+	private final LinkedHashMap<Runnable, ChromecastSessionCallback> held = new LinkedHashMap<Runnable, ChromecastSessionCallback>();
+	/** The media that was playing when the connection was lost, reloaded if the receiver dropped it */
+	private MediaInfo recoverMedia = null;
+	private long recoverPosition = 0;
+	private boolean recoverPlaying = false;
+	private final Runnable reconnectAttempt = new Runnable() {
+		@Override
+		public void run() {
+			ChromecastSession.this.attemptReconnect();
+		}
+	};
+	/** Gives up once the last attempt had as long as another retry would have waited */
+	private final Runnable reconnectTimeout = new Runnable() {
+		@Override
+		public void run() {
+			if (ChromecastSession.this.reconnecting) {
+				ChromecastSession.this.reconnectFailed();
+			}
+		}
+	};
+	/** Set on the executor once reconnecting gave up, a connection that still comes up is left alone */
+	private boolean reconnectGaveUp = false;
 	private HashSet<String> messageNamespaces = new HashSet<String>();
 	
-	public ChromecastSession(RouteInfo routeInfo, CordovaInterface cordovaInterface, 
+	private final ChromecastConnectionPool pool;
+	private final ChromecastConnection connection;
+	/** Set once the session was killed, left or released, it takes no more commands */
+	private volatile boolean released = false;
+	/** Set on the executor once the connection went back to the pool */
+	private boolean detached = false;
+	private final ChromecastCommandExecutor commands;
+	private final ChromecastPendingCommands pending;
+	private volatile ChromecastTrace trace = null;
+	private volatile ChromecastLockManager locks = null;
+	private volatile ChromecastLog log = null;
+	private ChromecastUpdateThrottle mediaUpdates;
+	private int lastEmittedPlayerState = -1;
+	private int lastEmittedIdleReason = -1;
+	private final ChromecastSnapshotDelta<ChromecastMediaSnapshot> mediaDelta = new ChromecastSnapshotDelta<ChromecastMediaSnapshot>();
+	private final ChromecastSnapshotDelta<ChromecastSessionSnapshot> sessionDelta = new ChromecastSnapshotDelta<ChromecastSessionSnapshot>();
+	
+	private final Object snapshotLock = new Object();
+	private long stateVersion = 0;
+	private ChromecastSessionSnapshot sessionSnapshot = null;
+	private ChromecastMediaSnapshot mediaSnapshot = null;
+	
+	public ChromecastSession(RouteInfo routeInfo, CordovaInterface cordovaInterface, ChromecastConnectionPool pool,
 			ChromecastOnMediaUpdatedListener onMediaUpdatedListener, ChromecastOnSessionUpdatedListener onSessionUpdatedListener) {
 		this.cordova = cordovaInterface;
         this.onMediaUpdatedListener = onMediaUpdatedListener;
         this.onSessionUpdatedListener = onSessionUpdatedListener;
         this.routeInfo = routeInfo;
 		this.device = CastDevice.getFromBundle(this.routeInfo.getExtras());
+		this.pool = pool;
+		this.connection = pool.lease(this.device, this.device != null ? this.device.getDeviceId() : routeInfo.getId(), routeInfo.getName());
+		this.commands = this.connection.getExecutor();
+		this.mApiClient = this.connection.getClient();
+		this.pending = new ChromecastPendingCommands(this.commands.getHandler());
 		
 		this.mRemoteMediaPlayer = new RemoteMediaPlayer();
 		this.mRemoteMediaPlayer.setOnMetadataUpdatedListener(this);
 		this.mRemoteMediaPlayer.setOnStatusUpdatedListener(this);
 		
 		this.chromecastMediaController = new ChromecastMediaController(mRemoteMediaPlayer);
+		
+		this.mediaUpdates = new ChromecastUpdateThrottle(this.commands.getHandler(), new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.emitMediaUpdate();
+			}
+		});
+		this.connection.attach(this);
+	}
+	
+	/**
+	 * Limits how many media updates per second are pushed to the listener.
+	 * Only the newest media status is sent, player state changes are always sent right away.
+	 * @param updatesPerSecond 0 or less for no limit
+	 */
+	public void setMaxMediaUpdateRate(double updatesPerSecond) {
+		this.mediaUpdates.setMaxRate(updatesPerSecond);
+	}
+	
+	/**
+	 * Sets how the session reconnects after losing the receiver
+	 * @param policy
+	 */
+	public void setReconnectPolicy(ChromecastReconnectPolicy policy) {
+		this.reconnectPolicy = policy;
+	}
+	
+	/**
+	 * Sets where the session's commands record their latency and failures
+	 * @param metrics
+	 */
+	public void setMetrics(ChromecastMetrics metrics) {
+		this.pending.setMetrics(metrics);
+	}
+	
+	/**
+	 * Sets where the session traces its commands and the updates it gets from the receiver
+	 * @param trace
+	 */
+	public void setTrace(ChromecastTrace trace) {
+		this.trace = trace;
+		this.pending.setTrace(trace);
+	}
+	
+	/**
+	 * Sets who is told whether media plays on the session, to hold the wake and wifi locks
+	 * @param locks
+	 */
+	public void setLockManager(ChromecastLockManager locks) {
+		this.locks = locks;
+	}
+	
+	/**
+	 * Sets where the session logs
+	 * @param log
+	 */
+	public void setLog(ChromecastLog log) {
+		this.log = log;
+	}
+	
+	private void trace(String name, String detail) {
+		ChromecastTrace trace = this.trace;
+		if (trace != null) {
+			trace.instant("session", name, detail);
+		}
+	}
+	
+	private void logDebug(String message) {
+		ChromecastLog log = this.log;
+		if (log != null) {
+			log.d(message);
+		}
+	}
+	
+	private void logWarning(String message, Object detail) {
+		ChromecastLog log = this.log;
+		if (log != null) {
+			log.w(message, detail);
+		}
+	}
+	
+	private void logError(String message, Throwable error) {
+		ChromecastLog log = this.log;
+		if (log != null) {
+			log.e(message, error);
+		}
 	}
 
 	
@@ -82,27 +228,108 @@ public class ChromecastSession
 	 * Sets the wheels in motion - connects to the Chromecast and launches the given app
 	 * @param appId
 	 */
-	public void launch(String appId, ChromecastSessionCallback launchCallback) {
+	public void launch(String appId, final ChromecastSessionCallback launchCallback) {
 		this.appId = appId;
-		this.launchCallback = launchCallback;
-		this.connectToDevice();
+		this.invalidateSnapshot(false);
+		this.launchCallback = this.pending.start("launch", launchCallback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.connectOrReuse();
+			}
+		}, this.launchCallback);
+	}
+	
+	/**
+	 * Opens the connection to the receiver ahead of launch or join, so they can skip the handshake.
+	 * The listeners hear nothing from the session until launch or join is called.
+	 */
+	public void preconnect() {
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.connectToDevice();
+			}
+		}, null, false);
+	}
+	
+	/**
+	 * @return whether the connection to the receiver is already open
+	 */
+	public boolean isPreconnected() {
+		return this.mApiClient.isConnected();
+	}
+	
+	/**
+	 * Hands the connection back to the pool without stopping or leaving the app, e.g. for a session that was
+	 * pre-connected but never launched, or one that ended. Does nothing if the session was already released.
+	 */
+	public void release() {
+		if (this.released) {
+			return;
+		}
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.stopReconnecting();
+				ChromecastSession.this.mediaUpdates.cancel();
+				ChromecastSession.this.detach();
+			}
+		}, null, false);
+		this.released = true;
+	}
+	
+	/**
+	 * Stops listening to the receiver and returns the connection to the pool. Runs on the executor.
+	 */
+	private void detach() {
+		if (this.detached) {
+			return;
+		}
+		this.detached = true;
+		ChromecastLockManager locks = this.locks;
+		if (locks != null) {
+			locks.remove(this);
+		}
+		// Nothing reaches the session once it is detached, and the pool may close the connection soon
+		this.pending.fail(null, "session_error");
+		this.pool.release(this.connection, this);
 	}
 	
 	public boolean isConnected() { return this.isConnected; }
 	
+	/**
+	 * @return whether launch or join asked for the connection, a pre-connection does not. Called on the executor.
+	 */
+	boolean isConnectRequested() {
+		return this.connectRequested;
+	}
+	
+	/**
+	 * The pool is closing the connection, the commands in flight will not get their results. Runs on the executor.
+	 */
+	void connectionClosed() {
+		this.pending.fail(null, "session_error");
+	}
+	
 	/**
 	 * Adds a message listener if one does not already exist
 	 * @param namespace
 	 */
-	public void addMessageListener(String namespace) {
-		if (messageNamespaces.contains(namespace) == false) {
-			try {
-				 Cast.CastApi.setMessageReceivedCallbacks(mApiClient, namespace, this);
-				 messageNamespaces.add(namespace);
-			} catch(Exception e) {
-				
+	public void addMessageListener(final String namespace) {
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				if (messageNamespaces.contains(namespace) == false) {
+					try {
+						 ChromecastSession.this.connection.listen(namespace);
+						 messageNamespaces.add(namespace);
+					} catch(Exception e) {
+						
+					}
+				}
 			}
-		}
+		}, null);
 	}
 	
 	/**
@@ -111,9 +338,21 @@ public class ChromecastSession
 	 * @param message
 	 * @param callback
 	 */
-	public void sendMessage(String namespace, String message, final ChromecastSessionCallback callback) {
+	public void sendMessage(final String namespace, final String message, ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("sendMessage", callback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.sendMessageNow(namespace, message, command);
+			}
+		}, command);
+	}
+	
+	private void sendMessageNow(String namespace, String message, final ChromecastPendingCommand callback) {
 		try {
-			Cast.CastApi.sendMessage(mApiClient, namespace, message).setResultCallback(new ResultCallback<Status>() {
+			PendingResult<Status> result = Cast.CastApi.sendMessage(mApiClient, namespace, message);
+			callback.track(result);
+			result.setResultCallback(new ResultCallback<Status>() {
 		        @Override
 		        public void onResult(Status result) {
 		          if (result.isSuccess()) {
@@ -134,12 +373,18 @@ public class ChromecastSession
 	 * @param sessionId
 	 * @param joinSessionCallback
 	 */
-	public void join (String appId, String sessionId, ChromecastSessionCallback joinSessionCallback) {
+	public void join (String appId, String sessionId, final ChromecastSessionCallback joinSessionCallback) {
 		this.appId = appId;
-		this.joinSessionCallback = joinSessionCallback;
+		this.invalidateSnapshot(false);
+		this.joinSessionCallback = this.pending.start("join", joinSessionCallback);
 		this.joinInsteadOfConnecting = true;
 		this.lastSessionId = sessionId;
-		this.connectToDevice();
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.connectOrReuse();
+			}
+		}, this.joinSessionCallback);
 	}
 	
 	/**
@@ -147,6 +392,19 @@ public class ChromecastSession
 	 * @param callback
 	 */
 	public void kill (final ChromecastSessionCallback callback) {
+		this.pending.cancel(null);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.killNow(callback);
+			}
+		}, callback, false);
+		this.released = true;
+	}
+	
+	private void killNow(final ChromecastSessionCallback callback) {
+		this.stopReconnecting();
+		this.mediaUpdates.cancel();
 //		this.mRemoteMediaPlayer.stop(mApiClient).setResultCallback(new ResultCallback<RemoteMediaPlayer.MediaChannelResult>() {
 //			@Override
 //			public void onResult(MediaChannelResult result) {
@@ -162,10 +420,10 @@ public class ChromecastSession
 //		});
 		try {
 			Cast.CastApi.stopApplication(mApiClient);
-			mApiClient.disconnect();
 		} catch(Exception e) {
 			
 		}
+		this.detach();
 		
 		callback.onSuccess();
 //		Cast.CastApi.stopApplication(mApiClient);
@@ -176,11 +434,25 @@ public class ChromecastSession
 	 * @param callback
 	 */
 	public void leave (final ChromecastSessionCallback callback) {
+		this.pending.cancel(null);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.leaveNow(callback);
+			}
+		}, callback, false);
+		this.released = true;
+	}
+	
+	private void leaveNow(final ChromecastSessionCallback callback) {
+		this.stopReconnecting();
+		this.mediaUpdates.cancel();
 		try {
 			Cast.CastApi.leaveApplication(mApiClient);
 		} catch(Exception e) {
 			
 		}
+		this.detach();
 		
 		callback.onSuccess();
 	}	
@@ -196,19 +468,34 @@ public class ChromecastSession
 	 * @param callback
 	 * @return
 	 */
-	public boolean loadMedia(String contentId, String contentType, long duration, String streamType, boolean autoPlay, double currentTime, JSONObject metadata, final ChromecastSessionCallback callback) {
+	public boolean loadMedia(final String contentId, final String contentType, final long duration, final String streamType,
+			final boolean autoPlay, final double currentTime, final JSONObject metadata, ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("loadMedia", callback);
+		return this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.loadMediaNow(contentId, contentType, duration, streamType, autoPlay, currentTime, metadata, command);
+			}
+		}, command);
+	}
+	
+	private boolean loadMediaNow(String contentId, String contentType, long duration, String streamType, boolean autoPlay, double currentTime, JSONObject metadata, final ChromecastPendingCommand callback) {
 		try {
 			MediaInfo mediaInfo = chromecastMediaController.createLoadUrlRequest(contentId, contentType, duration, streamType, metadata);
 			
-			mRemoteMediaPlayer.load(mApiClient, mediaInfo, autoPlay, (long)(currentTime * 1000))
-				.setResultCallback(new ResultCallback<RemoteMediaPlayer.MediaChannelResult>() {
+			PendingResult<MediaChannelResult> result = mRemoteMediaPlayer.load(mApiClient, mediaInfo, autoPlay, (long)(currentTime * 1000));
+			callback.track(result);
+			result.setResultCallback(new ResultCallback<RemoteMediaPlayer.MediaChannelResult>() {
 					@Override
 					public void onResult(MediaChannelResult result) {
 						if (result.getStatus().isSuccess()) {
-							System.out.println("Media loaded successfully");
+							ChromecastSession.this.logDebug("Media loaded successfully");
 
-                            ChromecastSession.this.onMediaUpdatedListener.onMediaLoaded(ChromecastSession.this.createMediaObject());
-							callback.onSuccess(ChromecastSession.this.createMediaObject());
+                            ChromecastSession.this.invalidateSnapshot(true);
+                            ChromecastSession.this.mediaDelta.requestKeyframe();
+                            ChromecastMediaSnapshot media = ChromecastSession.this.captureMedia();
+                            ChromecastSession.this.onMediaUpdatedListener.onMediaLoaded(media);
+							callback.onSuccess(media.toJSONObject());
 						
 						} else {
 							callback.onError("session_error");
@@ -216,14 +503,12 @@ public class ChromecastSession
 				    }
 				});
     	} catch (IllegalStateException e) {
-    		e.printStackTrace();
-    		System.out.println("Problem occurred with media during loading");
+    		this.logError("Problem occurred with media during loading", e);
     		callback.onError("session_error");
     		return false;
     	} catch (Exception e) {
-    		e.printStackTrace();
+    		this.logError("Problem opening media during loading", e);
     		callback.onError("session_error");
-    		System.out.println("Problem opening media during loading");
     		return false;
     	}
     	return true;
@@ -233,16 +518,28 @@ public class ChromecastSession
 	 * Media API - Calls play on the current media
 	 * @param callback
 	 */
-	public void mediaPlay(ChromecastSessionCallback callback) {
-		chromecastMediaController.play(mApiClient, callback);
+	public void mediaPlay(final ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("mediaPlay", callback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				command.track(chromecastMediaController.play(mApiClient, command));
+			}
+		}, command);
 	}
 	
 	/**
 	 * Media API - Calls pause on the current media
 	 * @param callback
 	 */
-	public void mediaPause(ChromecastSessionCallback callback) {
-		chromecastMediaController.pause(mApiClient, callback);
+	public void mediaPause(final ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("mediaPause", callback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				command.track(chromecastMediaController.pause(mApiClient, command));
+			}
+		}, command);
 	}
 	
 	/**
@@ -251,8 +548,14 @@ public class ChromecastSession
 	 * @param resumeState - Resume state once seeking is complete: PLAYBACK_PAUSE or PLAYBACK_START
 	 * @param callback
 	 */
-	public void mediaSeek(long seekPosition, String resumeState, ChromecastSessionCallback callback) {
-		chromecastMediaController.seek(seekPosition, resumeState, mApiClient, callback);
+	public void mediaSeek(final long seekPosition, final String resumeState, final ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("mediaSeek", callback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				command.track(chromecastMediaController.seek(seekPosition, resumeState, mApiClient, command));
+			}
+		}, command);
 	}
 	
 	/**
@@ -260,8 +563,14 @@ public class ChromecastSession
 	 * @param level
 	 * @param callback
 	 */
-	public void mediaSetVolume(double level, ChromecastSessionCallback callback) {
-		chromecastMediaController.setVolume(level, mApiClient, callback);
+	public void mediaSetVolume(final double level, final ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("setMediaVolume", callback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				command.track(chromecastMediaController.setVolume(level, mApiClient, command));
+			}
+		}, command);
 	}
 	
 	/**
@@ -269,16 +578,62 @@ public class ChromecastSession
 	 * @param muted
 	 * @param callback
 	 */
-	public void mediaSetMuted(boolean muted, ChromecastSessionCallback callback) {
-		chromecastMediaController.setMuted(muted, mApiClient, callback);
+	public void mediaSetMuted(final boolean muted, final ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("setMediaMuted", callback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				command.track(chromecastMediaController.setMuted(muted, mApiClient, command));
+			}
+		}, command);
 	}
 	
 	/**
 	 * Media API - Stops and unloads the current playing media
 	 * @param callback
 	 */
-	public void mediaStop(ChromecastSessionCallback callback) {
-		chromecastMediaController.stop(mApiClient, callback);
+	public void mediaStop(final ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("mediaStop", callback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				command.track(chromecastMediaController.stop(mApiClient, command));
+			}
+		}, command);
+	}
+	
+	
+	/**
+	 * Sets how long commands may wait for the receiver before failing with "timeout"
+	 * @param timeouts milliseconds keyed by action name, "default" for the rest, 0 to wait forever
+	 */
+	public void setCommandTimeouts(JSONObject timeouts) {
+		this.pending.setTimeouts(timeouts);
+	}
+	
+	/**
+	 * Abandons commands still waiting for the receiver, their callbacks fail with "cancel"
+	 * @param action only cancel this action, null for all
+	 * @return how many commands were cancelled
+	 */
+	public int cancelPending(String action) {
+		return this.pending.cancel(action);
+	}
+	
+	
+	/**
+	 * Runs a list of media and receiver commands back to back
+	 * @param commands an array of [name, args...] arrays
+	 * @param continueOnError false to stop at the first failure
+	 * @param callback gets a JSONArray with the status of every command
+	 */
+	public void executeBatch(final JSONArray commands, final boolean continueOnError, final ChromecastSessionCallback callback) {
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				new ChromecastCommandBatch(ChromecastSession.this, commands, continueOnError, callback).start();
+			}
+		}, callback);
 	}
 	
 	
@@ -287,14 +642,20 @@ public class ChromecastSession
 	 * @param volume
 	 * @param callback
 	 */
-	public void setVolume(double volume, ChromecastSessionCallback callback) {
-		try {
-			Cast.CastApi.setVolume(mApiClient, volume);
-			callback.onSuccess();
-		} catch (Exception e) {
-			e.printStackTrace();
-			callback.onError(e.getMessage());
-		}
+	public void setVolume(final double volume, final ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("setReceiverVolumeLevel", callback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Cast.CastApi.setVolume(mApiClient, volume);
+					command.onSuccess();
+				} catch (Exception e) {
+					ChromecastSession.this.logError("setVolume failed", e);
+					command.onError(e.getMessage());
+				}
+			}
+		}, command);
 	}
 	
 	/**
@@ -302,50 +663,112 @@ public class ChromecastSession
 	 * @param muted
 	 * @param callback
 	 */
-	public void setMute(boolean muted, ChromecastSessionCallback callback) {
-		try{
-			Cast.CastApi.setMute(mApiClient, muted);
-			callback.onSuccess();
-		} catch (Exception e) {
-			e.printStackTrace();
-			callback.onError(e.getMessage());
+	public void setMute(final boolean muted, final ChromecastSessionCallback callback) {
+		final ChromecastPendingCommand command = this.pending.start("setReceiverMuted", callback);
+		this.enqueue(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					Cast.CastApi.setMute(mApiClient, muted);
+					command.onSuccess();
+				} catch (Exception e) {
+					ChromecastSession.this.logError("setMute failed", e);
+					command.onError(e.getMessage());
+				}
+			}
+		}, command);
+	}
+	
+	/**
+	 * Queues a Cast API call on this session's executor, behind the ones issued before it.
+	 * Exceptions thrown by the call, e.g. when the client is not connected, are reported to the callback.
+	 * @param command
+	 * @param callback may be null
+	 * @return false if the session was already killed or left
+	 */
+	private boolean enqueue(Runnable command, ChromecastSessionCallback callback) {
+		return this.enqueue(command, callback, true);
+	}
+	
+	/**
+	 * @param command
+	 * @param callback may be null
+	 * @param hold whether the command waits for the session to come back when it runs while reconnecting
+	 * @return false if the session was already killed or left
+	 */
+	private boolean enqueue(final Runnable command, final ChromecastSessionCallback callback, final boolean hold) {
+		boolean queued = !this.released && this.commands.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (ChromecastSession.this.detached) {
+					// The connection may belong to another session by now
+					if (callback != null) {
+						callback.onError("session_error");
+					}
+					return;
+				}
+				if (hold && ChromecastSession.this.reconnecting) {
+					ChromecastSession.this.held.put(this, callback);
+					return;
+				}
+				try {
+					command.run();
+				} catch (RuntimeException e) {
+					e.printStackTrace();
+					if (callback != null) {
+						callback.onError("session_error");
+					}
+				}
+			}
+		});
+		if (!queued && callback != null) {
+			callback.onError("session_error");
 		}
+		return queued;
 	}
 	
 	
 	/**
-	 * Connects to the device with all callbacks and things
+	 * Connects the pooled connection to the device, unless it is connected or connecting already.
+	 * Its callbacks reach this session through the connection.
 	 */
 	private void connectToDevice() {
 		try {
-			Cast.CastOptions.Builder apiOptionsBuilder = Cast.CastOptions.builder(this.device, this);
-			
-			this.mApiClient = new GoogleApiClient.Builder(this.cordova.getActivity().getApplicationContext())
-				.addApi(Cast.API, apiOptionsBuilder.build())
-		        .addConnectionCallbacks(this)
-		        .addOnConnectionFailedListener(this)
-		        .build();
-			
-			this.mApiClient.connect();
+			this.connection.connect();
 		} catch(Exception e) {
 			e.printStackTrace();
 		}
 	}
 	
+	/**
+	 * Launches or joins over the pre-connection or pooled connection if it is open, connects otherwise
+	 */
+	private void connectOrReuse() {
+		this.connectRequested = true;
+		if (this.mApiClient.isConnected()) {
+			this.onConnected(null);
+		} else {
+			// onConnected follows, also when the pooled connection was already connecting
+			this.connectToDevice();
+		}
+	}
+	
 	/**
 	 * Launches the application and gets a new session
 	 */
 	private void launchApplication() {
-		Cast.CastApi.launchApplication(mApiClient, this.appId, false)
-			.setResultCallback(launchApplicationResultCallback);
+		PendingResult<ApplicationConnectionResult> result = Cast.CastApi.launchApplication(mApiClient, this.appId, false);
+		this.launchCallback.track(result);
+		result.setResultCallback(launchApplicationResultCallback);
 	}
 	
 	/**
 	 * Attemps to join an already running session
 	 */
 	private void joinApplication() {
-		Cast.CastApi.joinApplication(this.mApiClient, this.appId, this.lastSessionId)
-			.setResultCallback(joinApplicationResultCallback);
+		PendingResult<ApplicationConnectionResult> result = Cast.CastApi.joinApplication(this.mApiClient, this.appId, this.lastSessionId);
+		this.joinSessionCallback.track(result);
+		result.setResultCallback(joinApplicationResultCallback);
 	}
 	
 	/**
@@ -354,23 +777,50 @@ public class ChromecastSession
 	 * @throws IOException
 	 */
 	private void connectRemoteMediaPlayer() throws IllegalStateException, IOException {
-		Cast.CastApi.setMessageReceivedCallbacks(mApiClient, mRemoteMediaPlayer.getNamespace(), mRemoteMediaPlayer);
+		this.connection.own(this);
+		this.connection.listen(mRemoteMediaPlayer.getNamespace());
 		mRemoteMediaPlayer.requestStatus(mApiClient)
 		.setResultCallback(connectRemoteMediaPlayerCallback);
 	}
 	
 	
+	/**
+	 * Stops the app a launch or join got through to after its command timed out or was cancelled,
+	 * the caller was already told it failed
+	 * @param command
+	 * @param result
+	 * @return whether the command was done and the result was dropped
+	 */
+	private boolean stopIfAbandoned(ChromecastPendingCommand command, ApplicationConnectionResult result) {
+		if (command == null || !command.isDone()) {
+			return false;
+		}
+		this.trace("abandoned", command.getAction());
+		if (result.getStatus().isSuccess()) {
+			try {
+				Cast.CastApi.stopApplication(this.mApiClient, result.getSessionId());
+			} catch (Exception e) {
+				this.logError("Could not stop the abandoned app", e);
+			}
+		}
+		return true;
+	}
+	
 	/**
 	 * launchApplication callback
 	 */
 	private ResultCallback<Cast.ApplicationConnectionResult> launchApplicationResultCallback = new ResultCallback<Cast.ApplicationConnectionResult>() {
 		@Override
 		public void onResult(ApplicationConnectionResult result) {
+			if (ChromecastSession.this.stopIfAbandoned(ChromecastSession.this.launchCallback, result)) {
+				return;
+			}
 			
 			ApplicationMetadata metadata = result.getApplicationMetadata();
 			ChromecastSession.this.sessionId = result.getSessionId();
 			ChromecastSession.this.displayName = metadata.getName();
 			ChromecastSession.this.appImages = metadata.getImages();
+			ChromecastSession.this.invalidateSnapshot(true);
 		
 			Status status = result.getStatus();
 			
@@ -386,6 +836,7 @@ public class ChromecastSession
 				}
 			} else {
 				ChromecastSession.this.isConnected = false;
+				ChromecastSession.this.launchCallback.onError("session_error");
 			}
 		}
 	};
@@ -396,6 +847,9 @@ public class ChromecastSession
 	private ResultCallback<Cast.ApplicationConnectionResult> joinApplicationResultCallback = new ResultCallback<Cast.ApplicationConnectionResult>() {
 		@Override
 		public void onResult(ApplicationConnectionResult result) {
+			if (ChromecastSession.this.stopIfAbandoned(ChromecastSession.this.joinSessionCallback, result)) {
+				return;
+			}
 		
 			Status status = result.getStatus();
 			
@@ -405,6 +859,7 @@ public class ChromecastSession
 					ChromecastSession.this.sessionId = result.getSessionId();
 					ChromecastSession.this.displayName = metadata.getName();
 					ChromecastSession.this.appImages = metadata.getImages();
+					ChromecastSession.this.invalidateSnapshot(true);
 					
 					ChromecastSession.this.joinSessionCallback.onSuccess(ChromecastSession.this);
 					connectRemoteMediaPlayer();
@@ -428,131 +883,80 @@ public class ChromecastSession
 		@Override
 		public void onResult(MediaChannelResult result) {
 			if (result.getStatus().isSuccess()) {
-                ChromecastSession.this.onMediaUpdatedListener.onMediaUpdated(true, ChromecastSession.this.createMediaObject());
+                ChromecastSession.this.mediaUpdates.flushNow();
 				/*ChromecastSession.this.onMediaUpdatedListener.onMediaLoaded(ChromecastSession.this.createMediaObject());*/
 			} else {
-				System.out.println("Failed to request status.");
+				ChromecastSession.this.logWarning("Failed to request status: ", result.getStatus().getStatusCode());
 			}
 		}
 	};
 	
 	/**
 	 * Creates a JSON representation of this session
+	 * The returned object is shared by every caller until the session changes, it must not be modified.
 	 * @return
 	 */
-	public JSONObject createSessionObject() {		
-		JSONObject out = new JSONObject();
-		try {
-			out.put("appId", this.appId);
-			out.put("media", createMediaObject());
-		
-			if (this.appImages != null) {
-				JSONArray appImages = new JSONArray();
-				for(WebImage o : this.appImages) {
-					appImages.put(o.toString());
+	public JSONObject createSessionObject() {
+		return this.captureSession().toJSONObject();
+	}
+	
+	/**
+	 * Returns the current state of this session. The snapshot is cached and only rebuilt
+	 * after one of the Cast callbacks that change it called invalidateSnapshot().
+	 * @return
+	 */
+	ChromecastSessionSnapshot captureSession() {
+		synchronized (this.snapshotLock) {
+			if (this.sessionSnapshot == null) {
+				Double volume = null;
+				Boolean muted = null;
+				try {
+					volume = Cast.CastApi.getVolume(mApiClient);
+					muted = Cast.CastApi.isMute(mApiClient);
+				} catch(Exception e) {
+					
 				}
+				this.sessionSnapshot = new ChromecastSessionSnapshot(this.stateVersion, this.appId, this.captureMedia(),
+						this.appImages, this.sessionId, this.displayName, this.device, volume, muted);
 			}
-			
-			out.put("appImages", appImages);
-			out.put("sessionId", this.sessionId);
-			out.put("displayName", this.displayName);
-			
-			JSONObject receiver = new JSONObject();
-			receiver.put("friendlyName", this.device.getFriendlyName());
-			receiver.put("label", this.device.getDeviceId());
-			
-			JSONObject volume = new JSONObject();
-			try {
-				volume.put("level", Cast.CastApi.getVolume(mApiClient));
-				volume.put("muted", Cast.CastApi.isMute(mApiClient));
-			} catch(Exception e) {
-				
-			}
-			
-			receiver.put("volume", volume);
-			
-			out.put("receiver", receiver);
-			
-		} catch(JSONException e) {
-			e.printStackTrace();
+			return this.sessionSnapshot;
 		}
-		
-		return out;
 	}
 	
 	/**
-	 * Creates a JSON representation of the current playing media
+	 * Returns the current playing media, cached like the session snapshot
 	 * @return
 	 */
-	private JSONObject createMediaObject() {
-		JSONObject out = new JSONObject();
-		JSONObject objInfo = new JSONObject();
-		
-		MediaStatus mediaStatus = mRemoteMediaPlayer.getMediaStatus();
-		if (mediaStatus == null) {
-			return out;
-		}
-		
-		MediaInfo mediaInfo = mediaStatus.getMediaInfo();
-		try {
-			out.put("media", objInfo);
-			out.put("mediaSessionId", 1);
-			out.put("sessionId", this.sessionId);
-			out.put("currentTime", mediaStatus.getStreamPosition() / 1000.0);
-			out.put("playbackRate", mediaStatus.getPlaybackRate());
-			out.put("customData", mediaStatus.getCustomData());
-			
-			switch(mediaStatus.getPlayerState()) {
-				case MediaStatus.PLAYER_STATE_BUFFERING:
-					out.put("playerState", "BUFFERING"); break;
-				case MediaStatus.PLAYER_STATE_IDLE:
-					out.put("playerState", "IDLE"); break;
-				case MediaStatus.PLAYER_STATE_PAUSED:
-					out.put("playerState", "PAUSED"); break;
-				case MediaStatus.PLAYER_STATE_PLAYING:
-					out.put("playerState", "PLAYING"); break;
-				case MediaStatus.PLAYER_STATE_UNKNOWN:
-					out.put("playerState", "UNKNOWN"); break;
+	private ChromecastMediaSnapshot captureMedia() {
+		synchronized (this.snapshotLock) {
+			if (this.mediaSnapshot == null) {
+				this.mediaSnapshot = ChromecastMediaSnapshot.capture(mRemoteMediaPlayer.getMediaStatus(), this.sessionId);
 			}
-			
-			switch(mediaStatus.getIdleReason()) {
-				case MediaStatus.IDLE_REASON_CANCELED:
-					out.put("idleReason", "canceled"); break;
-				case MediaStatus.IDLE_REASON_ERROR:
-					out.put("idleReason", "error"); break;
-				case MediaStatus.IDLE_REASON_FINISHED:
-					out.put("idleReason", "finished"); break;
-				case MediaStatus.IDLE_REASON_INTERRUPTED:
-					out.put("idleReason", "iterrupted"); break;
-				case MediaStatus.IDLE_REASON_NONE:
-					out.put("idleReason", "none"); break;
-			}
-			
-			JSONObject volume = new JSONObject();
-			volume.put("level", mediaStatus.getStreamVolume());
-			volume.put("muted", mediaStatus.isMute());
-			
-			out.put("volume", volume);
-			
-			try {
-				objInfo.put("duration", mediaInfo.getStreamDuration() / 1000.0);
-				switch(mediaInfo.getStreamType()) {
-					case MediaInfo.STREAM_TYPE_BUFFERED:
-						objInfo.put("streamType", "buffered"); break;
-					case MediaInfo.STREAM_TYPE_LIVE:
-						objInfo.put("streamType", "live"); break;
-					case MediaInfo.STREAM_TYPE_NONE:
-						objInfo.put("streamType", "other"); break;
-				}
-			} catch (Exception e) {
-				
+			return this.mediaSnapshot;
+		}
+	}
+	
+	/**
+	 * Drops the cached snapshots and bumps the state version
+	 * @param mediaChanged whether the media status changed too
+	 */
+	private void invalidateSnapshot(boolean mediaChanged) {
+		synchronized (this.snapshotLock) {
+			this.stateVersion++;
+			this.sessionSnapshot = null;
+			if (mediaChanged) {
+				this.mediaSnapshot = null;
 			}
-			
-		} catch(JSONException e) {
-			
 		}
-		
-		return out;
+	}
+	
+	/**
+	 * @return the version of the session state, bumped every time it changes
+	 */
+	public long getStateVersion() {
+		synchronized (this.snapshotLock) {
+			return this.stateVersion;
+		}
 	}
 	
 	
@@ -564,6 +968,24 @@ public class ChromecastSession
 	 */
 	@Override
 	public void onConnected(Bundle connectionHint) {
+		if (!this.connectRequested) {
+			// Pre-connected, launch or join picks it up
+			return;
+		}
+		if (this.reconnecting) {
+			this.commands.getHandler().removeCallbacks(this.reconnectAttempt);
+			this.commands.getHandler().removeCallbacks(this.reconnectTimeout);
+			this.rejoin();
+			return;
+		}
+		if (this.reconnectGaveUp) {
+			// The last reconnect attempt came through after the session was reported dead
+			return;
+		}
+		if (this.sessionId != null) {
+			// The app is already running for this session, do not launch it again
+			return;
+		}
 		if (this.joinInsteadOfConnecting) {
 			this.joinApplication();
 		} else {
@@ -578,10 +1000,8 @@ public class ChromecastSession
 	 */
 	@Override
 	public void onConnectionSuspended(int cause) {
-		if (this.onSessionUpdatedListener != null) {
-			this.isConnected = false;
-			this.onSessionUpdatedListener.onSessionUpdated(false, this.createSessionObject());
-		}
+		this.invalidateSnapshot(false);
+		this.connectionLost();
 	}
 	
 	/*
@@ -604,9 +1024,11 @@ public class ChromecastSession
 	 */
 	@Override
 	public void onApplicationStatusChanged() {
+		this.trace("applicationStatusChanged", null);
+		this.invalidateSnapshot(false);
 		if (this.onSessionUpdatedListener != null) {
 			ChromecastSession.this.isConnected = true;
-			this.onSessionUpdatedListener.onSessionUpdated(true, createSessionObject());
+			this.emitSessionUpdate(true);
 		}
 	}
 	
@@ -616,8 +1038,9 @@ public class ChromecastSession
 	 */
 	@Override
 	public void onVolumeChanged() {
+		this.invalidateSnapshot(false);
 		if (this.onSessionUpdatedListener != null) {
-			this.onSessionUpdatedListener.onSessionUpdated(true, createSessionObject());
+			this.emitSessionUpdate(true);
 		}
 	}
 	
@@ -627,25 +1050,291 @@ public class ChromecastSession
 	 */
 	@Override
 	public void onApplicationDisconnected(int errorCode) {
-		if (this.onSessionUpdatedListener != null) {
+		this.trace("applicationDisconnected", String.valueOf(errorCode));
+		this.invalidateSnapshot(false);
+		if (errorCode == CastStatusCodes.NETWORK_ERROR || errorCode == CastStatusCodes.TIMEOUT) {
+			this.connectionLost();
+		} else if (this.onSessionUpdatedListener != null) {
+			// Stopped on the receiver or by another sender
+			this.stopReconnecting();
 			this.isConnected = false;
-			this.onSessionUpdatedListener.onSessionUpdated(false, this.createSessionObject());
+			this.emitSessionUpdate(false);
+		}
+	}
+	
+	/**
+	 * The receiver is out of reach. Starts rejoining the session with backoff, or ends it if reconnecting
+	 * is off or the session never got going. Runs on the executor.
+	 */
+	private void connectionLost() {
+		this.trace("connectionLost", this.sessionId);
+		this.isConnected = false;
+		if (this.reconnecting) {
+			return;
+		}
+		if (this.sessionId == null || !this.reconnectPolicy.isEnabled()) {
+			if (this.onSessionUpdatedListener != null) {
+				this.emitSessionUpdate(false);
+			}
+			return;
+		}
+		this.reconnecting = true;
+		this.reconnectAttempts = 0;
+		this.rememberMedia();
+		this.scheduleReconnect();
+	}
+	
+	private void rememberMedia() {
+		MediaStatus status = this.mRemoteMediaPlayer.getMediaStatus();
+		this.recoverMedia = null;
+		if (status != null && status.getMediaInfo() != null && status.getPlayerState() != MediaStatus.PLAYER_STATE_IDLE) {
+			this.recoverMedia = status.getMediaInfo();
+			this.recoverPosition = this.mRemoteMediaPlayer.getApproximateStreamPosition();
+			this.recoverPlaying = status.getPlayerState() != MediaStatus.PLAYER_STATE_PAUSED;
+		}
+	}
+	
+	private void scheduleReconnect() {
+		if (this.reconnectAttempts >= this.reconnectPolicy.getMaxAttempts()) {
+			this.reconnectFailed();
+			return;
+		}
+		long delay = this.reconnectPolicy.delay(this.reconnectAttempts++);
+		this.commands.getHandler().removeCallbacks(this.reconnectAttempt);
+		this.commands.executeDelayed(this.reconnectAttempt, delay);
+	}
+	
+	/**
+	 * Reconnects the client, or rejoins right away if it is connected already.
+	 * The next attempt is scheduled in case onConnected does not follow, after the last one
+	 * only the check that gives up.
+	 */
+	private void attemptReconnect() {
+		if (!this.reconnecting) {
+			return;
+		}
+		if (this.mApiClient.isConnected()) {
+			this.rejoin();
+			return;
+		}
+		this.connectToDevice();
+		if (this.reconnectAttempts >= this.reconnectPolicy.getMaxAttempts()) {
+			this.commands.getHandler().removeCallbacks(this.reconnectTimeout);
+			this.commands.executeDelayed(this.reconnectTimeout, this.reconnectPolicy.delay(this.reconnectAttempts));
+		} else {
+			this.scheduleReconnect();
+		}
+	}
+	
+	/**
+	 * Joins the session again with its id, then restores the channels and the media
+	 */
+	private void rejoin() {
+		try {
+			Cast.CastApi.joinApplication(this.mApiClient, this.appId, this.sessionId).setResultCallback(new ResultCallback<Cast.ApplicationConnectionResult>() {
+				@Override
+				public void onResult(ApplicationConnectionResult result) {
+					if (!ChromecastSession.this.reconnecting) {
+						return;
+					}
+					if (result.getStatus().isSuccess()) {
+						ChromecastSession.this.rejoined();
+					} else {
+						ChromecastSession.this.scheduleReconnect();
+					}
+				}
+			});
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+			this.scheduleReconnect();
 		}
 	}
+	
+	private void rejoined() {
+		try {
+			this.connection.own(this);
+			for (String namespace : this.messageNamespaces) {
+				this.connection.listen(namespace);
+			}
+			this.connection.listen(this.mRemoteMediaPlayer.getNamespace());
+			this.mRemoteMediaPlayer.requestStatus(this.mApiClient).setResultCallback(new ResultCallback<MediaChannelResult>() {
+				@Override
+				public void onResult(MediaChannelResult result) {
+					ChromecastSession.this.recoverMedia();
+				}
+			});
+		} catch (Exception e) {
+			e.printStackTrace();
+			this.scheduleReconnect();
+		}
+	}
+	
+	/**
+	 * Reloads the media at its last known position if the receiver went idle while the session was away
+	 */
+	private void recoverMedia() {
+		MediaInfo media = this.recoverMedia;
+		MediaStatus status = this.mRemoteMediaPlayer.getMediaStatus();
+		this.recoverMedia = null;
+		boolean dropped = status == null || (status.getPlayerState() == MediaStatus.PLAYER_STATE_IDLE
+				&& status.getIdleReason() != MediaStatus.IDLE_REASON_FINISHED);
+		if (media == null || !dropped) {
+			this.reconnected();
+			return;
+		}
+		try {
+			this.mRemoteMediaPlayer.load(this.mApiClient, media, this.recoverPlaying, this.recoverPosition).setResultCallback(new ResultCallback<MediaChannelResult>() {
+				@Override
+				public void onResult(MediaChannelResult result) {
+					ChromecastSession.this.reconnected();
+				}
+			});
+		} catch (Exception e) {
+			e.printStackTrace();
+			this.reconnected();
+		}
+	}
+	
+	/**
+	 * The session is back, tells the listeners and replays the held commands
+	 */
+	private void reconnected() {
+		this.trace("reconnected", this.sessionId);
+		this.reconnecting = false;
+		this.reconnectAttempts = 0;
+		this.isConnected = true;
+		this.invalidateSnapshot(true);
+		if (this.onSessionUpdatedListener != null) {
+			this.emitSessionUpdate(true);
+		}
+		this.mediaUpdates.flushNow();
+		
+		for (Map.Entry<Runnable, ChromecastSessionCallback> command : this.takeHeld().entrySet()) {
+			ChromecastSessionCallback callback = command.getValue();
+			if (callback instanceof ChromecastPendingCommand && ((ChromecastPendingCommand) callback).isDone()) {
+				// Timed out or cancelled while held
+				continue;
+			}
+			command.getKey().run();
+		}
+	}
+	
+	private void reconnectFailed() {
+		this.trace("reconnectFailed", this.sessionId);
+		this.reconnectGaveUp = true;
+		this.stopReconnecting();
+		if (this.onSessionUpdatedListener != null) {
+			this.emitSessionUpdate(false);
+		}
+	}
+	
+	/**
+	 * Gives up on reconnecting, the held commands fail
+	 */
+	private void stopReconnecting() {
+		if (!this.reconnecting) {
+			return;
+		}
+		this.reconnecting = false;
+		this.recoverMedia = null;
+		this.commands.getHandler().removeCallbacks(this.reconnectAttempt);
+		this.commands.getHandler().removeCallbacks(this.reconnectTimeout);
+		for (ChromecastSessionCallback callback : this.takeHeld().values()) {
+			if (callback != null) {
+				callback.onError("session_error");
+			}
+		}
+	}
+	
+	private LinkedHashMap<Runnable, ChromecastSessionCallback> takeHeld() {
+		LinkedHashMap<Runnable, ChromecastSessionCallback> commands = new LinkedHashMap<Runnable, ChromecastSessionCallback>(this.held);
+		this.held.clear();
+		return commands;
+	}
+	
+	/**
+	 * Pushes the session to the listener, as a patch of the fields that changed since the last update
+	 * when possible. The final update of a dead session is always sent in full.
+	 * @param isAlive
+	 */
+	private void emitSessionUpdate(boolean isAlive) {
+		if (!this.connectRequested) {
+			// A pre-connected session is not the app's session yet
+			return;
+		}
+		ChromecastSessionSnapshot session = this.captureSession();
+		if (!isAlive) {
+			this.sessionDelta.requestKeyframe();
+			this.onSessionUpdatedListener.onSessionUpdated(this, false, session, false);
+			return;
+		}
+		ChromecastJsonValue encoded = this.sessionDelta.next(session);
+		if (encoded != null) {
+			this.onSessionUpdatedListener.onSessionUpdated(this, true, encoded, encoded != session);
+		}
+	}
+	
+	/**
+	 * Makes the next session and media updates carry the full objects and sends them right away.
+	 * Used by the javascript side to resync when it gets a patch it cannot apply.
+	 */
+	public void requestFullUpdate() {
+		this.mediaDelta.requestKeyframe();
+		this.sessionDelta.requestKeyframe();
+		this.commands.execute(new Runnable() {
+			@Override
+			public void run() {
+				ChromecastSession.this.mediaUpdates.flushNow();
+				if (ChromecastSession.this.onSessionUpdatedListener != null) {
+					ChromecastSession.this.emitSessionUpdate(true);
+				}
+			}
+		});
+	}
 
 
 	@Override
 	public void onMetadataUpdated() {
-		if (this.onMediaUpdatedListener != null) {
-			this.onMediaUpdatedListener.onMediaUpdated(true, this.createMediaObject());
-		}
+		this.trace("metadataUpdated", null);
+		this.invalidateSnapshot(true);
+		this.mediaUpdates.request();
 	}
 
 
 	@Override
 	public void onStatusUpdated() {
+		this.invalidateSnapshot(true);
+		MediaStatus mediaStatus = mRemoteMediaPlayer.getMediaStatus();
+		this.trace("statusUpdated", mediaStatus != null ? String.valueOf(mediaStatus.getPlayerState()) : null);
+		ChromecastLockManager locks = this.locks;
+		if (locks != null && this.connectRequested) {
+			locks.setPlaying(this, mediaStatus != null && (mediaStatus.getPlayerState() == MediaStatus.PLAYER_STATE_PLAYING
+					|| mediaStatus.getPlayerState() == MediaStatus.PLAYER_STATE_BUFFERING));
+		}
+		if (mediaStatus != null && (mediaStatus.getPlayerState() != this.lastEmittedPlayerState
+				|| mediaStatus.getIdleReason() != this.lastEmittedIdleReason)) {
+			// State transitions such as PLAYING -> IDLE must not be swallowed by the throttle
+			this.mediaUpdates.flushNow();
+		} else {
+			this.mediaUpdates.request();
+		}
+	}
+	
+	/**
+	 * Pushes the current media status to the listener. Called through the mediaUpdates throttle.
+	 */
+	private void emitMediaUpdate() {
+		MediaStatus mediaStatus = mRemoteMediaPlayer.getMediaStatus();
+		if (mediaStatus != null) {
+			this.lastEmittedPlayerState = mediaStatus.getPlayerState();
+			this.lastEmittedIdleReason = mediaStatus.getIdleReason();
+		}
 		if (this.onMediaUpdatedListener != null) {
-			this.onMediaUpdatedListener.onMediaUpdated(true, this.createMediaObject());
+			ChromecastMediaSnapshot media = this.captureMedia();
+			ChromecastJsonValue encoded = this.mediaDelta.next(media);
+			if (encoded != null) {
+				this.onMediaUpdatedListener.onMediaUpdated(true, encoded, encoded != media);
+			}
 		}
 	}
 	
@@ -654,6 +1343,10 @@ public class ChromecastSession
 	public String getSessionId() {
 		return this.sessionId;
 	}
+	
+	public String getRouteId() {
+		return this.routeInfo.getId();
+	}
 
 
 	@Override
@@ -662,4 +1355,20 @@ public class ChromecastSession
 			this.onSessionUpdatedListener.onMessage(this, namespace, message);
 		}
 	}
+	
+	/**
+	 * A message on one of the receiver's channels, passed on by the connection while this session owns it.
+	 * Media channel messages go to the media player, the others to javascript if it listens to the namespace.
+	 * Runs on the executor.
+	 * @param castDevice
+	 * @param namespace
+	 * @param message
+	 */
+	void onChannelMessage(CastDevice castDevice, String namespace, String message) {
+		if (namespace.equals(this.mRemoteMediaPlayer.getNamespace())) {
+			this.mRemoteMediaPlayer.onMessageReceived(castDevice, namespace, message);
+		} else if (this.messageNamespaces.contains(namespace)) {
+			this.onMessageReceived(castDevice, namespace, message);
+		}
+	}
 }
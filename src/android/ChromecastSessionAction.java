@@ -0,0 +1,39 @@
+package acidhax.cordova.chromecast;
+
+import org.apache.cordova.CallbackContext;
+import org.json.JSONArray;
+import org.json.JSONException;
+
+/**
+ * A prebound handler for one signature of an action that works on a session.
+ * It is registered twice: with the given argument types, acting on the default session,
+ * and with the session id as an extra first argument, acting on that session.
+ */
+abstract class ChromecastSessionAction {
+	final Class<?>[] argTypes;
+
+	ChromecastSessionAction(Class<?>... argTypes) {
+		this.argTypes = argTypes;
+	}
+
+	/**
+	 * @return the argument types of the signature that takes the session id first
+	 */
+	Class<?>[] scopedArgTypes() {
+		Class<?>[] scoped = new Class<?>[this.argTypes.length + 1];
+		scoped[0] = String.class;
+		System.arraycopy(this.argTypes, 0, scoped, 1, this.argTypes.length);
+		return scoped;
+	}
+
+	/**
+	 * Runs the action
+	 * @param session the targeted session, null if there is none
+	 * @param args the arguments as received, the action's own start at offset
+	 * @param offset the index of the action's first argument, 1 when the session id comes first
+	 * @param callbackContext
+	 * @return
+	 * @throws JSONException
+	 */
+	abstract boolean run(ChromecastSession session, JSONArray args, int offset, CallbackContext callbackContext) throws JSONException;
+}
@@ -0,0 +1,70 @@
+package acidhax.cordova.chromecast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The sessions the plugin currently drives, keyed by their Cast session id.
+ * A session is added once it was launched or joined and has its id.
+ */
+class ChromecastSessionRegistry {
+	private final ConcurrentHashMap<String, ChromecastSession> sessions = new ConcurrentHashMap<String, ChromecastSession>();
+
+	void put(ChromecastSession session) {
+		String sessionId = session.getSessionId();
+		if (sessionId != null) {
+			this.sessions.put(sessionId, session);
+		}
+	}
+
+	/**
+	 * @param sessionId
+	 * @return the session or null
+	 */
+	ChromecastSession get(String sessionId) {
+		return sessionId != null ? this.sessions.get(sessionId) : null;
+	}
+
+	/**
+	 * @param routeId
+	 * @return the session on that receiver or null
+	 */
+	ChromecastSession getForRoute(String routeId) {
+		for (ChromecastSession session : this.sessions.values()) {
+			if (session.getRouteId().equals(routeId)) {
+				return session;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @param session
+	 * @return whether the session was registered
+	 */
+	boolean remove(ChromecastSession session) {
+		return this.sessions.values().remove(session);
+	}
+
+	/**
+	 * @return a copy of the registered sessions
+	 */
+	List<ChromecastSession> getAll() {
+		return new ArrayList<ChromecastSession>(this.sessions.values());
+	}
+
+	/**
+	 * @return any registered session, null if there is none
+	 */
+	ChromecastSession any() {
+		for (ChromecastSession session : this.sessions.values()) {
+			return session;
+		}
+		return null;
+	}
+
+	boolean isEmpty() {
+		return this.sessions.isEmpty();
+	}
+}
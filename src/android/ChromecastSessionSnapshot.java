@@ -0,0 +1,130 @@
+package acidhax.cordova.chromecast;
+
+import java.util.List;
+
+import com.google.android.gms.cast.CastDevice;
+import com.google.android.gms.common.images.WebImage;
+
+/**
+ * Immutable capture of a session, in the shape chrome.cast.Session._update expects
+ */
+final class ChromecastSessionSnapshot extends ChromecastSnapshot<ChromecastSessionSnapshot> {
+	static final int APP_ID = 1;
+	static final int MEDIA = 1 << 1;
+	static final int APP_IMAGES = 1 << 2;
+	static final int SESSION_ID = 1 << 3;
+	static final int DISPLAY_NAME = 1 << 4;
+	static final int RECEIVER = 1 << 5;
+
+	private final long version;
+	private final String appId;
+	private final ChromecastMediaSnapshot media;
+	private final List<WebImage> appImages;
+	private final String sessionId;
+	private final String displayName;
+	private final String friendlyName;
+	private final String label;
+	private final boolean hasVolumeLevel;
+	private final double volumeLevel;
+	private final boolean hasMuted;
+	private final boolean muted;
+
+	/**
+	 * @param version the session state version this snapshot was taken at
+	 * @param appId
+	 * @param media
+	 * @param appImages
+	 * @param sessionId
+	 * @param displayName
+	 * @param device
+	 * @param volumeLevel the receiver volume, null if it could not be read
+	 * @param muted the receiver mute state, null if it could not be read
+	 */
+	ChromecastSessionSnapshot(long version, String appId, ChromecastMediaSnapshot media, List<WebImage> appImages, String sessionId,
+			String displayName, CastDevice device, Double volumeLevel, Boolean muted) {
+		this.version = version;
+		this.appId = appId;
+		this.media = media;
+		this.appImages = appImages;
+		this.sessionId = sessionId;
+		this.displayName = displayName;
+		this.friendlyName = device != null ? device.getFriendlyName() : null;
+		this.label = device != null ? device.getDeviceId() : null;
+		this.hasVolumeLevel = volumeLevel != null;
+		this.volumeLevel = volumeLevel != null ? volumeLevel : 0;
+		this.hasMuted = muted != null;
+		this.muted = muted != null && muted;
+	}
+
+	long getVersion() {
+		return this.version;
+	}
+
+	ChromecastMediaSnapshot getMedia() {
+		return this.media;
+	}
+
+	@Override
+	int changedFields(ChromecastSessionSnapshot previous) {
+		int changed = 0;
+		if (!same(this.appId, previous.appId)) {
+			changed |= APP_ID;
+		}
+		if (this.media.changedFields(previous.media) != 0) {
+			changed |= MEDIA;
+		}
+		if (!same(this.appImages, previous.appImages)) {
+			changed |= APP_IMAGES;
+		}
+		if (!same(this.sessionId, previous.sessionId)) {
+			changed |= SESSION_ID;
+		}
+		if (!same(this.displayName, previous.displayName)) {
+			changed |= DISPLAY_NAME;
+		}
+		if (!same(this.friendlyName, previous.friendlyName) || !same(this.label, previous.label)
+				|| this.hasVolumeLevel != previous.hasVolumeLevel || this.volumeLevel != previous.volumeLevel
+				|| this.hasMuted != previous.hasMuted || this.muted != previous.muted) {
+			changed |= RECEIVER;
+		}
+		return changed;
+	}
+
+	@Override
+	void writeTo(ChromecastJsonWriter writer, int fields, boolean isPatch) {
+		int nullable = isPatch ? fields : 0;
+		if (isPatch) {
+			fields |= SESSION_ID;
+		}
+
+		writer.beginObject();
+		writeOptional(writer, "appId", this.appId, (fields & APP_ID) != 0, (nullable & APP_ID) != 0);
+		if ((fields & MEDIA) != 0) {
+			writer.key("media");
+			this.media.writeTo(writer);
+		}
+		// Written the way org.json wrote the List it used to be handed: as its toString()
+		writeOptional(writer, "appImages", this.appImages, (fields & APP_IMAGES) != 0, (nullable & APP_IMAGES) != 0);
+		writeOptional(writer, "sessionId", this.sessionId, (fields & SESSION_ID) != 0, (nullable & SESSION_ID) != 0);
+		writeOptional(writer, "displayName", this.displayName, (fields & DISPLAY_NAME) != 0, (nullable & DISPLAY_NAME) != 0);
+		if ((fields & RECEIVER) != 0) {
+			writer.key("receiver").beginObject();
+			if (this.friendlyName != null) {
+				writer.key("friendlyName").value(this.friendlyName);
+			}
+			if (this.label != null) {
+				writer.key("label").value(this.label);
+			}
+			writer.key("volume").beginObject();
+			if (this.hasVolumeLevel) {
+				writer.key("level").value(this.volumeLevel);
+			}
+			if (this.hasMuted) {
+				writer.key("muted").value(this.muted);
+			}
+			writer.endObject();
+			writer.endObject();
+		}
+		writer.endObject();
+	}
+}
@@ -0,0 +1,106 @@
+package acidhax.cordova.chromecast;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * An immutable capture of the state sent to the javascript side. Snapshots stream themselves
+ * through a ChromecastJsonWriter and can tell which of their top level fields differ from an
+ * earlier snapshot, so patches can be written without building and comparing JSON trees.
+ * Fields are identified by bits in an int mask.
+ */
+abstract class ChromecastSnapshot<T extends ChromecastSnapshot<T>> implements ChromecastJsonValue {
+	/** Returned by changedFields() when the previous snapshot cannot be patched and has to be replaced */
+	static final int ALL_FIELDS = -1;
+
+	private volatile JSONObject json = null;
+
+	/**
+	 * @param previous
+	 * @return the mask of fields that differ from previous, 0 if none, ALL_FIELDS if a full snapshot is needed
+	 */
+	abstract int changedFields(T previous);
+
+	/**
+	 * Writes the fields in the mask. When writing a patch, the id fields are always included
+	 * and fields in the mask that this snapshot does not have are written as null.
+	 * @param writer
+	 * @param fields
+	 * @param isPatch
+	 */
+	abstract void writeTo(ChromecastJsonWriter writer, int fields, boolean isPatch);
+
+	@Override
+	public void writeTo(ChromecastJsonWriter writer) {
+		this.writeTo(writer, ALL_FIELDS, false);
+	}
+
+	/**
+	 * Builds an org.json copy, for the few places (plugin results) that need one.
+	 * The copy is built once and shared, it must not be modified.
+	 * @return
+	 */
+	JSONObject toJSONObject() {
+		JSONObject json = this.json;
+		if (json == null) {
+			ChromecastJsonWriter writer = new ChromecastJsonWriter(512);
+			this.writeTo(writer);
+			try {
+				json = new JSONObject(writer.toString());
+			} catch (JSONException e) {
+				e.printStackTrace();
+				json = new JSONObject();
+			}
+			this.json = json;
+		}
+		return json;
+	}
+
+	/**
+	 * A snapshot restricted to the fields that changed
+	 */
+	static class Patch implements ChromecastJsonValue {
+		private final ChromecastSnapshot<?> snapshot;
+		private final int fields;
+
+		Patch(ChromecastSnapshot<?> snapshot, int fields) {
+			this.snapshot = snapshot;
+			this.fields = fields;
+		}
+
+		@Override
+		public void writeTo(ChromecastJsonWriter writer) {
+			this.snapshot.writeTo(writer, this.fields, true);
+		}
+	}
+
+	/**
+	 * Writes a field that org.json would have left out when null
+	 * @param writer
+	 * @param key
+	 * @param value
+	 * @param selected whether the field is in the mask being written
+	 * @param nullIfAbsent whether a missing value has to be written as null, as patches do
+	 */
+	static void writeOptional(ChromecastJsonWriter writer, String key, Object value, boolean selected, boolean nullIfAbsent) {
+		if (!selected) {
+			return;
+		}
+		if (value != null) {
+			writer.key(key).value(value);
+		} else if (nullIfAbsent) {
+			writer.key(key).nullValue();
+		}
+	}
+
+	static boolean same(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	static boolean same(JSONObject a, JSONObject b) {
+		if (a == null || b == null) {
+			return a == b;
+		}
+		return a == b || a.toString().equals(b.toString());
+	}
+}
@@ -0,0 +1,49 @@
+package acidhax.cordova.chromecast;
+
+/**
+ * Remembers the last snapshot sent for a session or its media and turns the next one into a patch
+ * holding only the top level fields that changed. Fields that disappeared are sent as null.
+ * Every KEYFRAME_INTERVAL updates, and whenever one is requested, the full snapshot is sent instead
+ * so the javascript side can resync.
+ */
+class ChromecastSnapshotDelta<T extends ChromecastSnapshot<T>> {
+	static final int KEYFRAME_INTERVAL = 30;
+
+	private T last = null;
+	private int sinceKeyframe = 0;
+
+	/**
+	 * Makes the next call to next() return the full snapshot
+	 */
+	synchronized void requestKeyframe() {
+		this.last = null;
+	}
+
+	/**
+	 * Encodes a snapshot against the previously sent one
+	 * @param snapshot
+	 * @return the snapshot itself if it has to be sent in full, a patch of the changed fields,
+	 * or null if nothing changed
+	 */
+	synchronized ChromecastJsonValue next(T snapshot) {
+		T previous = this.last;
+		if (snapshot == previous && this.sinceKeyframe < KEYFRAME_INTERVAL) {
+			// Snapshots are cached until the state changes, the same instance means nothing changed
+			return null;
+		}
+		this.last = snapshot;
+
+		int changed = previous == null || this.sinceKeyframe >= KEYFRAME_INTERVAL
+				? ChromecastSnapshot.ALL_FIELDS : snapshot.changedFields(previous);
+		if (changed == ChromecastSnapshot.ALL_FIELDS) {
+			this.sinceKeyframe = 0;
+			return snapshot;
+		}
+		if (changed == 0) {
+			return null;
+		}
+
+		this.sinceKeyframe++;
+		return new ChromecastSnapshot.Patch(snapshot, changed);
+	}
+}
@@ -0,0 +1,180 @@
+package acidhax.cordova.chromecast;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Keeps the last CAPACITY native events in preallocated arrays, for dumpTrace.
+ * Recording takes no lock and allocates nothing: a writer claims the next slot with an atomic counter
+ * and publishes the slot by writing its sequence number last. A slot that is overwritten while being
+ * dumped is skipped. Names and categories should be constants, details are kept as given.
+ * The dump is Chrome Trace Event JSON, which Perfetto and chrome://tracing open.
+ * Enabled by default, javascript option "trace": {"enabled": false} turns it off.
+ */
+class ChromecastTrace {
+	static final int CAPACITY = 4096;
+	static final String FILE_NAME = "chromecast-trace.json";
+
+	private static final char INSTANT = 'i';
+	private static final char COMPLETE = 'X';
+
+	private final AtomicLong next = new AtomicLong();
+	/** Sequence number of the event held in each slot, -1 while it is written */
+	private final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+	private final long[] timestamps = new long[CAPACITY];
+	private final long[] durations = new long[CAPACITY];
+	private final char[] phases = new char[CAPACITY];
+	private final String[] categories = new String[CAPACITY];
+	private final String[] names = new String[CAPACITY];
+	private final String[] details = new String[CAPACITY];
+	private final long[] threadIds = new long[CAPACITY];
+	private final String[] threadNames = new String[CAPACITY];
+
+	private volatile boolean enabled = true;
+
+	ChromecastTrace() {
+		for (int i = 0; i < CAPACITY; i++) {
+			this.published.set(i, -1);
+		}
+	}
+
+	/**
+	 * Applies the javascript supplied options
+	 * @param options may be null
+	 */
+	void configure(JSONObject options) {
+		if (options != null) {
+			this.enabled = options.optBoolean("enabled", this.enabled);
+		}
+	}
+
+	/**
+	 * Records something that happened now
+	 * @param category
+	 * @param name
+	 * @param detail may be null
+	 */
+	void instant(String category, String name, String detail) {
+		if (this.enabled) {
+			this.write(INSTANT, category, name, System.nanoTime(), 0, detail);
+		}
+	}
+
+	/**
+	 * Records something that started at startedAt and ended now
+	 * @param category
+	 * @param name
+	 * @param startedAt from ChromecastMetrics.now()
+	 * @param detail may be null
+	 */
+	void complete(String category, String name, long startedAt, String detail) {
+		if (this.enabled) {
+			this.write(COMPLETE, category, name, startedAt, System.nanoTime() - startedAt, detail);
+		}
+	}
+
+	private void write(char phase, String category, String name, long timestamp, long duration, String detail) {
+		long sequence = this.next.getAndIncrement();
+		int slot = (int) (sequence % CAPACITY);
+		Thread thread = Thread.currentThread();
+		this.published.set(slot, -1);
+		this.phases[slot] = phase;
+		this.categories[slot] = category;
+		this.names[slot] = name;
+		this.timestamps[slot] = timestamp;
+		this.durations[slot] = duration;
+		this.details[slot] = detail;
+		this.threadIds[slot] = thread.getId();
+		this.threadNames[slot] = thread.getName();
+		this.published.set(slot, sequence);
+	}
+
+	/**
+	 * Writes the events recorded so far, oldest first. Does disk I/O, keep it off the UI and bridge threads.
+	 * @param directory
+	 * @return the file written
+	 * @throws IOException
+	 */
+	File dump(File directory) throws IOException {
+		File file = new File(directory, FILE_NAME);
+		HashMap<Long, String> threads = new HashMap<Long, String>();
+		long last = this.next.get();
+		long first = Math.max(0, last - CAPACITY);
+
+		BufferedWriter out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+		try {
+			out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+			boolean separate = false;
+			for (long sequence = first; sequence < last; sequence++) {
+				int slot = (int) (sequence % CAPACITY);
+				if (this.published.get(slot) != sequence) {
+					continue;
+				}
+				JSONObject event = new JSONObject();
+				long threadId = this.threadIds[slot];
+				String threadName = this.threadNames[slot];
+				try {
+					event.put("ph", String.valueOf(this.phases[slot]));
+					event.put("cat", this.categories[slot]);
+					event.put("name", this.names[slot]);
+					event.put("ts", this.timestamps[slot] / 1000);
+					if (this.phases[slot] == COMPLETE) {
+						event.put("dur", this.durations[slot] / 1000);
+					} else {
+						event.put("s", "t");
+					}
+					event.put("pid", 1);
+					event.put("tid", threadId);
+					if (this.details[slot] != null) {
+						JSONObject args = new JSONObject();
+						args.put("detail", this.details[slot]);
+						event.put("args", args);
+					}
+				} catch (JSONException e) {
+					e.printStackTrace();
+					continue;
+				}
+				// The writer may have lapped us while we read the slot
+				if (this.published.get(slot) != sequence) {
+					continue;
+				}
+				threads.put(threadId, threadName);
+				out.write(separate ? ",\n" : "\n");
+				out.write(event.toString());
+				separate = true;
+			}
+			for (Map.Entry<Long, String> thread : threads.entrySet()) {
+				JSONObject event = new JSONObject();
+				JSONObject args = new JSONObject();
+				try {
+					args.put("name", thread.getValue());
+					event.put("ph", "M");
+					event.put("name", "thread_name");
+					event.put("pid", 1);
+					event.put("tid", thread.getKey());
+					event.put("args", args);
+				} catch (JSONException e) {
+					e.printStackTrace();
+					continue;
+				}
+				out.write(separate ? ",\n" : "\n");
+				out.write(event.toString());
+				separate = true;
+			}
+			out.write("\n]}\n");
+		} finally {
+			out.close();
+		}
+		return file;
+	}
+}
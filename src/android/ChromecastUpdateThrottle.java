@@ -0,0 +1,80 @@
+package acidhax.cordova.chromecast;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+/**
+ * Runs an update at most a given number of times per second. Requests that come in
+ * while an update is already scheduled are folded into it, so the update always sees the latest state.
+ * Everything runs on the handler's thread.
+ */
+class ChromecastUpdateThrottle implements Runnable {
+	private final Handler handler;
+	private final Runnable update;
+
+	private volatile long minIntervalMs = 0;
+	private long lastRunAt = 0;
+	private boolean scheduled = false;
+
+	ChromecastUpdateThrottle(Handler handler, Runnable update) {
+		this.handler = handler;
+		this.update = update;
+	}
+
+	/**
+	 * @param updatesPerSecond the maximum rate, 0 or less for no limit
+	 */
+	void setMaxRate(double updatesPerSecond) {
+		this.minIntervalMs = updatesPerSecond > 0 ? (long) (1000 / updatesPerSecond) : 0;
+	}
+
+	/**
+	 * Asks for an update. It runs as soon as the rate allows, together with any other request made until then.
+	 */
+	void request() {
+		long delay;
+		synchronized (this) {
+			if (this.scheduled) {
+				return;
+			}
+			this.scheduled = true;
+			delay = this.lastRunAt + this.minIntervalMs - SystemClock.uptimeMillis();
+		}
+		if (delay > 0) {
+			this.handler.postDelayed(this, delay);
+		} else {
+			this.handler.post(this);
+		}
+	}
+
+	/**
+	 * Runs the update right away, bypassing the rate limit. A pending update is dropped as it would be redundant.
+	 */
+	void flushNow() {
+		synchronized (this) {
+			if (this.scheduled) {
+				this.handler.removeCallbacks(this);
+			}
+		}
+		this.run();
+	}
+
+	/**
+	 * Drops a pending update
+	 */
+	void cancel() {
+		synchronized (this) {
+			this.handler.removeCallbacks(this);
+			this.scheduled = false;
+		}
+	}
+
+	@Override
+	public void run() {
+		synchronized (this) {
+			this.scheduled = false;
+			this.lastRunAt = SystemClock.uptimeMillis();
+		}
+		this.update.run();
+	}
+}
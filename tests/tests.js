@@ -280,5 +280,45 @@ exports.init = function() {
     });
     
   });
+
+  describe('chrome.cast.media.Media._update', function() {
+
+    var _media = null;
+
+    beforeEach(function() {
+      _media = new chrome.cast.media.Media('session-1', 1);
+      _media._update(true, {
+        media: { duration: 596, streamType: 'buffered' },
+        mediaSessionId: 1,
+        sessionId: 'session-1',
+        currentTime: 42.5,
+        playbackRate: 1,
+        playerState: 'PLAYING',
+        idleReason: 'none',
+        volume: { level: 0.5, muted: false }
+      });
+    });
+
+    it('takes fields that are 0 or null', function() {
+      _media._update(true, { mediaSessionId: 1, sessionId: 'session-1', currentTime: 0, idleReason: null });
+      expect(_media.currentTime).toEqual(0);
+      expect(_media.idleReason).toBeNull();
+      expect(_media.playerState).toEqual('PLAYING');
+    });
+
+    it('keeps what a patch leaves out', function() {
+      _media._update(true, { mediaSessionId: 1, sessionId: 'session-1', playerState: 'PAUSED' });
+      expect(_media.playerState).toEqual('PAUSED');
+      expect(_media.currentTime).toEqual(42.5);
+      expect(_media.media.duration).toEqual(596);
+      expect(_media.volume.level).toEqual(0.5);
+    });
+
+    it('takes a streamType without a duration', function() {
+      _media._update(true, { mediaSessionId: 1, sessionId: 'session-1', media: { streamType: 'live' } });
+      expect(_media.media.streamType).toEqual('live');
+      expect(_media.media.duration).toEqual(596);
+    });
+  });
 };
 